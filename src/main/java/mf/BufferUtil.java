@@ -264,6 +264,7 @@ public class BufferUtil {
      * @return
      */
     static public String mozillaString(byte[] bytes) {
+        final UniversalDetector DETECTOR = BufferUtil.DETECTOR.get();
         DETECTOR.handleData(bytes, 0, bytes.length);
         DETECTOR.dataEnd();
         final String ENCODING = DETECTOR.getDetectedCharset();
@@ -301,28 +302,17 @@ public class BufferUtil {
      * @throws java.util.zip.DataFormatException
      */
     static public ByteBuffer inflateZLIB(ByteBuffer compressed, int uncompressedSize, int compressedSize) throws java.util.zip.DataFormatException {
+        // The inflater comes from a per-thread pool, and heap buffers are 
+        // inflated in place; direct and mapped buffers are fed to it in 
+        // chunks, so that the compressed data is never copied in its entirety.
         final byte[] UNCOMPRESSED_BYTES = new byte[uncompressedSize];
-        final byte[] COMPRESSED_BYTES = new byte[compressedSize];
-        compressed.get(COMPRESSED_BYTES);
+        final int bytesInflated = ZLIBPool.inflate(compressed, compressedSize, ByteBuffer.wrap(UNCOMPRESSED_BYTES));
 
-        final java.util.zip.Inflater INFLATER = new java.util.zip.Inflater();
-
-        try {
-            INFLATER.setInput(COMPRESSED_BYTES);
-            int bytesInflated = INFLATER.inflate(UNCOMPRESSED_BYTES);
-            //if (bytesInflated != uncompressedSize) {
-                //throw new IllegalStateException(String.format("Inflated %d bytes but expecting %d bytes.", bytesInflated, uncompressedSize));
-            //}
-            if (bytesInflated > uncompressedSize) {
-                throw new IllegalStateException(String.format("Inflated %d bytes but expecting %d bytes.", bytesInflated, uncompressedSize));
-            } else if (bytesInflated < uncompressedSize) {
-                LOG.warning(String.format("Inflated %d bytes but expecting %d bytes.", bytesInflated, uncompressedSize));                
-            }
-            
-            return ByteBuffer.wrap(UNCOMPRESSED_BYTES);
-        } finally {
-            INFLATER.end();
+        if (bytesInflated < uncompressedSize) {
+            LOG.warning(String.format("Inflated %d bytes but expecting %d bytes.", bytesInflated, uncompressedSize));                
         }
+
+        return ByteBuffer.wrap(UNCOMPRESSED_BYTES);
     }
 
     /**
@@ -342,7 +332,9 @@ public class BufferUtil {
     }
 
     /**
-     * Simple wrapper for deflating a small <code>ByteBuffer</code> using ZLIB.
+     * Simple wrapper for deflating a <code>ByteBuffer</code> using ZLIB. Large
+     * buffers are compressed on several threads by a
+     * <code>ParallelDeflater</code>.
      *
      * @param uncompressed
      * @param uncompressedSize
@@ -350,26 +342,27 @@ public class BufferUtil {
      */
     static public ByteBuffer deflateZLIB(ByteBuffer uncompressed, int uncompressedSize) {
         final int SIZE = Math.min(uncompressedSize, uncompressed.limit());
-        final byte[] UNCOMPRESSED_BYTES = new byte[SIZE];
-        final byte[] COMPRESSED_BYTES = new byte[11 * SIZE / 10];
-        uncompressed.get(UNCOMPRESSED_BYTES);
-
-        final java.util.zip.Deflater DEFLATER = new java.util.zip.Deflater(java.util.zip.Deflater.BEST_COMPRESSION);
 
-        try {
-            DEFLATER.setInput(UNCOMPRESSED_BYTES);
-            DEFLATER.deflate(COMPRESSED_BYTES);
-            DEFLATER.finish();
-            if (DEFLATER.getBytesRead() != SIZE) {
-                throw new IllegalStateException(String.format("Inflated %d bytes but expecting %d bytes.", DEFLATER.getBytesRead(), SIZE));
-            }
-            return ByteBuffer.wrap(COMPRESSED_BYTES, 0, (int) DEFLATER.getBytesWritten());
-        } finally {
-            DEFLATER.end();
+        if (SIZE >= PARALLEL_DEFLATE_THRESHOLD) {
+            final ByteBuffer INPUT = uncompressed.slice();
+            ((Buffer) INPUT).limit(SIZE);
+            final ByteBuffer COMPRESSED = ParallelDeflater.deflate(INPUT, java.util.zip.Deflater.BEST_COMPRESSION);
+            ((Buffer) uncompressed).position(((Buffer) uncompressed).position() + SIZE);
+            return COMPRESSED;
         }
 
+        final ByteBuffer INPUT = uncompressed.slice();
+        ((Buffer) INPUT).limit(SIZE);
+        final ByteBuffer COMPRESSED = ZLIBPool.deflate(INPUT, java.util.zip.Deflater.BEST_COMPRESSION);
+        ((Buffer) uncompressed).position(((Buffer) uncompressed).position() + SIZE);
+        return COMPRESSED;
     }
 
+    /**
+     * Buffers at least this large are deflated in parallel.
+     */
+    static final private int PARALLEL_DEFLATE_THRESHOLD = 1 << 20;
+
     /**
      * Simple wrapper for deflating a small <code>ByteBuffer</code> using LZ4.
      *
@@ -426,9 +419,53 @@ public class BufferUtil {
     }
     
     /**
-     * Used to decode strings intelligently.
+     * Releases the memory mapping behind a <code>MappedByteBuffer</code>
+     * immediately, instead of waiting for the garbage collector to do it. This
+     * matters on Windows, where a file cannot be overwritten while a mapping of
+     * it is still alive.
+     *
+     * The caller must guarantee that neither the buffer nor any slice or
+     * duplicate of it is ever used again.
+     *
+     * If the mapping can't be released, it is left for the garbage collector.
+     *
+     * @param buffer The buffer to unmap.
+     */
+    static public void unmap(java.nio.MappedByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+
+        try {
+            // Java 9 and later.
+            final Class<?> UNSAFE_CLASS = Class.forName("sun.misc.Unsafe");
+            final java.lang.reflect.Method CLEAN = UNSAFE_CLASS.getMethod("invokeCleaner", ByteBuffer.class);
+            final java.lang.reflect.Field FIELD = UNSAFE_CLASS.getDeclaredField("theUnsafe");
+            FIELD.setAccessible(true);
+            CLEAN.invoke(FIELD.get(null), buffer);
+            return;
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            // Fall through to the Java 8 approach.
+        }
+
+        try {
+            // Java 8.
+            final java.lang.reflect.Method GET_CLEANER = buffer.getClass().getMethod("cleaner");
+            GET_CLEANER.setAccessible(true);
+            final Object CLEANER = GET_CLEANER.invoke(buffer);
+            if (CLEANER != null) {
+                CLEANER.getClass().getMethod("clean").invoke(CLEANER);
+            }
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            LOG.fine("Couldn't unmap buffer; leaving it to the garbage collector.");
+        }
+    }
+
+    /**
+     * Used to decode strings intelligently. A detector holds the state of the
+     * string it is examining, so each thread gets its own.
      */
-    static final private UniversalDetector DETECTOR = new UniversalDetector(null);
+    static final private ThreadLocal<UniversalDetector> DETECTOR = ThreadLocal.withInitial(() -> new UniversalDetector(null));
 
     /**
      * @return A log of all character sets that have been detected.
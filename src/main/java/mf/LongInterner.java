@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mf;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * An intern table keyed by <code>long</code>, without boxing.
+ *
+ * The table uses open addressing with linear probing. Lookups don't lock: a
+ * slot's value is published after its key, so a reader that sees a value also
+ * sees the key that goes with it. Insertions and resizing are serialized, and
+ * a resized table is published all at once. Entries are never removed.
+ *
+ * @param <V> The type of value.
+ * @author Mark Fairchild
+ */
+final public class LongInterner<V> {
+
+    /**
+     * Creates a new <code>LongInterner</code>.
+     *
+     * @param expectedSize The number of entries to make room for.
+     */
+    public LongInterner(int expectedSize) {
+        this.table = new Table<>(capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the value for a key, creating it if necessary.
+     *
+     * @param key The key.
+     * @param factory Creates the value for a key that isn't present.
+     * @return The value.
+     */
+    public V computeIfAbsent(long key, LongFunction<V> factory) {
+        final V VALUE = this.table.get(key);
+        return VALUE != null ? VALUE : this.insert(key, factory);
+    }
+
+    /**
+     * @param key The key.
+     * @return The value for the key, or null if there isn't one.
+     */
+    public V get(long key) {
+        return this.table.get(key);
+    }
+
+    /**
+     * @return The number of entries.
+     */
+    public int size() {
+        return this.table.size;
+    }
+
+    /**
+     * @return A stream of the values, as of the time of the call.
+     */
+    public Stream<V> values() {
+        final Table<V> TABLE = this.table;
+        return IntStream.range(0, TABLE.VALUES.length())
+                .mapToObj(TABLE.VALUES::get)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Inserts a value, under the lock.
+     *
+     * @param key The key.
+     * @param factory Creates the value.
+     * @return The value that is in the table for the key.
+     */
+    synchronized private V insert(long key, LongFunction<V> factory) {
+        final V EXISTING = this.table.get(key);
+        if (EXISTING != null) {
+            return EXISTING;
+        }
+
+        final V VALUE = Objects.requireNonNull(factory.apply(key));
+
+        if (2 * (this.table.size + 1) > this.table.KEYS.length) {
+            final Table<V> LARGER = new Table<>(2 * this.table.KEYS.length);
+            for (int i = 0; i < this.table.KEYS.length; i++) {
+                final V ENTRY = this.table.VALUES.get(i);
+                if (ENTRY != null) {
+                    LARGER.put(this.table.KEYS[i], ENTRY);
+                }
+            }
+            LARGER.put(key, VALUE);
+            this.table = LARGER;
+        } else {
+            this.table.put(key, VALUE);
+        }
+
+        return VALUE;
+    }
+
+    /**
+     * @param expectedSize The expected number of entries.
+     * @return A power of two that keeps the load factor under one half.
+     */
+    static private int capacityFor(int expectedSize) {
+        return Integer.highestOneBit(Math.max(8, 2 * expectedSize) - 1) << 1;
+    }
+
+    /**
+     * @param key A key.
+     * @return The key, mixed so that sequential keys are spread out.
+     */
+    static private int mix(long key) {
+        final long H = key * 0x9E3779B97F4A7C15L;
+        return (int) (H ^ (H >>> 32));
+    }
+
+    /**
+     * A single generation of the table.
+     *
+     * @param <V> The type of value.
+     */
+    static final private class Table<V> {
+
+        Table(int capacity) {
+            this.KEYS = new long[capacity];
+            this.VALUES = new AtomicReferenceArray<>(capacity);
+            this.size = 0;
+        }
+
+        V get(long key) {
+            final int MASK = this.KEYS.length - 1;
+            for (int i = mix(key) & MASK;; i = (i + 1) & MASK) {
+                final V VALUE = this.VALUES.get(i);
+                if (VALUE == null) {
+                    return null;
+                } else if (this.KEYS[i] == key) {
+                    return VALUE;
+                }
+            }
+        }
+
+        void put(long key, V value) {
+            final int MASK = this.KEYS.length - 1;
+            int i = mix(key) & MASK;
+            while (this.VALUES.get(i) != null) {
+                i = (i + 1) & MASK;
+            }
+            this.KEYS[i] = key;
+            this.VALUES.set(i, value);
+            this.size++;
+        }
+
+        final long[] KEYS;
+        final AtomicReferenceArray<V> VALUES;
+        volatile int size;
+    }
+
+    private volatile Table<V> table;
+
+}
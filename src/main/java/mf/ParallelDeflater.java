@@ -0,0 +1,333 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a ZLIB stream, compressing blocks of the input on several threads at
+ * once, in the manner of pigz.
+ *
+ * Each block is deflated separately, primed with the 32k of input that
+ * precedes it as a dictionary, and ends with a sync flush so that the blocks
+ * can simply be concatenated. The Adler-32 checksums of the blocks are
+ * combined into the checksum for the whole stream. The result is an ordinary
+ * ZLIB stream that any inflater can read.
+ *
+ * Input is collected into batches of a few blocks per processor, so only one
+ * batch needs to be held in memory at a time.
+ *
+ * @author Mark Fairchild
+ */
+final public class ParallelDeflater {
+
+    /**
+     * Deflates a buffer into a ZLIB stream.
+     *
+     * @param uncompressed The data to deflate, from its position to its limit.
+     * @param level The compression level.
+     * @return The compressed data.
+     */
+    static public ByteBuffer deflate(ByteBuffer uncompressed, int level) {
+        final ByteArrayOutputStream BYTES = new ByteArrayOutputStream(uncompressed.remaining() / 2 + 64);
+
+        try {
+            final ParallelDeflater DEFLATER = new ParallelDeflater(Channels.newChannel(BYTES), level);
+            DEFLATER.write(uncompressed);
+            DEFLATER.finish();
+        } catch (IOException ex) {
+            // A ByteArrayOutputStream never throws.
+            throw new IllegalStateException(ex);
+        }
+
+        return ByteBuffer.wrap(BYTES.toByteArray());
+    }
+
+    /**
+     * Creates a new <code>ParallelDeflater</code>.
+     *
+     * @param channel The channel to which the ZLIB stream is written.
+     * @param level The compression level.
+     */
+    public ParallelDeflater(WritableByteChannel channel, int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+
+        this.CHANNEL = Objects.requireNonNull(channel);
+        this.LEVEL = level;
+        this.BATCH = new byte[BLOCK_SIZE * Math.max(2, 2 * Runtime.getRuntime().availableProcessors())];
+        this.WINDOW = new byte[WINDOW_SIZE];
+        this.fill = 0;
+        this.windowLength = 0;
+        this.adler = 1L;
+        this.bytesRead = 0;
+        this.bytesWritten = 0;
+        this.started = false;
+        this.finished = false;
+    }
+
+    /**
+     * Adds data to the stream.
+     *
+     * @param data The data, from its position to its limit.
+     * @throws IOException
+     */
+    public void write(ByteBuffer data) throws IOException {
+        if (this.finished) {
+            throw new IllegalStateException("Stream already finished.");
+        }
+
+        while (data.hasRemaining()) {
+            final int N = Math.min(data.remaining(), this.BATCH.length - this.fill);
+            data.get(this.BATCH, this.fill, N);
+            this.fill += N;
+            this.bytesRead += N;
+
+            if (this.fill == this.BATCH.length) {
+                this.compressBatch(false);
+            }
+        }
+    }
+
+    /**
+     * Compresses whatever is left and writes the checksum.
+     *
+     * @return The total number of bytes written to the channel.
+     * @throws IOException
+     */
+    public long finish() throws IOException {
+        if (!this.finished) {
+            this.compressBatch(true);
+
+            final ByteBuffer TRAILER = ByteBuffer.allocate(4);
+            TRAILER.putInt((int) this.adler);
+            ((Buffer) TRAILER).flip();
+            this.emit(TRAILER);
+            this.finished = true;
+        }
+
+        return this.bytesWritten;
+    }
+
+    /**
+     * @return The number of uncompressed bytes written so far.
+     */
+    public long getBytesRead() {
+        return this.bytesRead;
+    }
+
+    /**
+     * @return The number of compressed bytes written so far.
+     */
+    public long getBytesWritten() {
+        return this.bytesWritten;
+    }
+
+    /**
+     * Compresses the current batch, one block per task, and writes the blocks
+     * in order.
+     *
+     * @param last Whether this is the end of the stream.
+     * @throws IOException
+     */
+    private void compressBatch(boolean last) throws IOException {
+        if (!this.started) {
+            this.emit(ByteBuffer.wrap(header(this.LEVEL)));
+            this.started = true;
+        }
+
+        final int FILL = this.fill;
+        final int BLOCKS = Math.max(1, (FILL + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        final byte[][] OUTPUTS = new byte[BLOCKS][];
+        final long[] CHECKSUMS = new long[BLOCKS];
+
+        IntStream.range(0, BLOCKS).parallel().forEach(i -> {
+            final int START = i * BLOCK_SIZE;
+            final int LENGTH = Math.min(BLOCK_SIZE, FILL - START);
+            final boolean FINAL = last && i == BLOCKS - 1;
+            OUTPUTS[i] = this.compressBlock(START, LENGTH, FINAL);
+
+            final Adler32 CHECKSUM = new Adler32();
+            CHECKSUM.update(this.BATCH, START, LENGTH);
+            CHECKSUMS[i] = CHECKSUM.getValue();
+        });
+
+        for (int i = 0; i < BLOCKS; i++) {
+            final int LENGTH = Math.min(BLOCK_SIZE, FILL - i * BLOCK_SIZE);
+            this.adler = combine(this.adler, CHECKSUMS[i], LENGTH);
+            this.emit(ByteBuffer.wrap(OUTPUTS[i]));
+        }
+
+        // Keep the end of the batch as the dictionary for the next one.
+        if (FILL >= WINDOW_SIZE) {
+            System.arraycopy(this.BATCH, FILL - WINDOW_SIZE, this.WINDOW, 0, WINDOW_SIZE);
+            this.windowLength = WINDOW_SIZE;
+        } else {
+            final int KEEP = Math.min(this.windowLength, WINDOW_SIZE - FILL);
+            System.arraycopy(this.WINDOW, this.windowLength - KEEP, this.WINDOW, 0, KEEP);
+            System.arraycopy(this.BATCH, 0, this.WINDOW, KEEP, FILL);
+            this.windowLength = KEEP + FILL;
+        }
+
+        this.fill = 0;
+    }
+
+    /**
+     * Deflates one block of the current batch into a raw deflate fragment.
+     *
+     * @param start The offset of the block in the batch.
+     * @param length The length of the block.
+     * @param last Whether the block ends the stream.
+     * @return The compressed fragment.
+     */
+    private byte[] compressBlock(int start, int length, boolean last) {
+        final Deflater DEFLATER = new Deflater(this.LEVEL, true);
+
+        try {
+            if (start > 0) {
+                final int DICT = Math.min(start, WINDOW_SIZE);
+                DEFLATER.setDictionary(this.BATCH, start - DICT, DICT);
+            } else if (this.windowLength > 0) {
+                DEFLATER.setDictionary(this.WINDOW, 0, this.windowLength);
+            }
+
+            DEFLATER.setInput(this.BATCH, start, length);
+
+            final ByteArrayOutputStream OUT = new ByteArrayOutputStream(length / 2 + 64);
+            final byte[] CHUNK = new byte[CHUNK_SIZE];
+
+            if (last) {
+                DEFLATER.finish();
+                while (!DEFLATER.finished()) {
+                    final int N = DEFLATER.deflate(CHUNK);
+                    OUT.write(CHUNK, 0, N);
+                }
+            } else {
+                // A sync flush is complete once it leaves room in the buffer.
+                int n;
+                do {
+                    n = DEFLATER.deflate(CHUNK, 0, CHUNK.length, Deflater.SYNC_FLUSH);
+                    OUT.write(CHUNK, 0, n);
+                } while (n == CHUNK.length);
+            }
+
+            return OUT.toByteArray();
+        } finally {
+            DEFLATER.end();
+        }
+    }
+
+    /**
+     * Writes a buffer to the channel.
+     *
+     * @param data The data.
+     * @throws IOException
+     */
+    private void emit(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            this.bytesWritten += this.CHANNEL.write(data);
+        }
+    }
+
+    /**
+     * Creates the two-byte ZLIB header for a compression level.
+     *
+     * @param level The compression level.
+     * @return The header.
+     */
+    static private byte[] header(int level) {
+        final int FLEVEL;
+        if (level == Deflater.DEFAULT_COMPRESSION || level == 6) {
+            FLEVEL = 2;
+        } else if (level >= 7) {
+            FLEVEL = 3;
+        } else if (level >= 2) {
+            FLEVEL = 1;
+        } else {
+            FLEVEL = 0;
+        }
+
+        final int CMF = 0x78;
+        int flg = FLEVEL << 6;
+        flg += 31 - (CMF * 256 + flg) % 31;
+        return new byte[]{(byte) CMF, (byte) flg};
+    }
+
+    /**
+     * Combines two Adler-32 checksums, as zlib's <code>adler32_combine</code>.
+     *
+     * @param adler1 The checksum of the first sequence.
+     * @param adler2 The checksum of the second sequence.
+     * @param length2 The length of the second sequence.
+     * @return The checksum of the two sequences concatenated.
+     */
+    static long combine(long adler1, long adler2, long length2) {
+        final long BASE = 65521L;
+        final long REM = length2 % BASE;
+        long sum1 = adler1 & 0xffff;
+        long sum2 = (REM * sum1) % BASE;
+        sum1 += (adler2 & 0xffff) + BASE - 1;
+        sum2 += ((adler1 >> 16) & 0xffff) + ((adler2 >> 16) & 0xffff) + BASE - REM;
+        if (sum1 >= BASE) {
+            sum1 -= BASE;
+        }
+        if (sum1 >= BASE) {
+            sum1 -= BASE;
+        }
+        if (sum2 >= (BASE << 1)) {
+            sum2 -= (BASE << 1);
+        }
+        if (sum2 >= BASE) {
+            sum2 -= BASE;
+        }
+        return sum1 | (sum2 << 16);
+    }
+
+    final private WritableByteChannel CHANNEL;
+    final private int LEVEL;
+    final private byte[] BATCH;
+    final private byte[] WINDOW;
+    private int fill;
+    private int windowLength;
+    private long adler;
+    private long bytesRead;
+    private long bytesWritten;
+    private boolean started;
+    private boolean finished;
+
+    /**
+     * The amount of input compressed by each task.
+     */
+    static final private int BLOCK_SIZE = 1 << 17;
+
+    /**
+     * The size of the deflate window, and therefore of the dictionaries.
+     */
+    static final private int WINDOW_SIZE = 1 << 15;
+
+    static final private int CHUNK_SIZE = 1 << 16;
+
+}
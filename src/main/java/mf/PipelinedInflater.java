@@ -0,0 +1,317 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mf;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import net.jpountz.lz4.LZ4Factory;
+
+/**
+ * Inflates a compressed buffer on a background thread, so that the start of
+ * the uncompressed data can be parsed while the rest is still being inflated.
+ *
+ * The data is inflated in chunks into a single destination buffer, and the
+ * number of bytes that are ready is published after each chunk. Readers call
+ * <code>await</code> before touching a region of the buffer.
+ *
+ * The compressed buffer belongs to the producer thread until
+ * <code>finish</code> or <code>close</code> has returned.
+ *
+ * @author Mark Fairchild
+ */
+final public class PipelinedInflater implements AutoCloseable {
+
+    /**
+     * Starts inflating a ZLIB stream.
+     *
+     * @param compressed The compressed data, starting at the current position.
+     * @param uncompressedSize The size of the uncompressed data.
+     * @param compressedSize The size of the compressed data.
+     * @return The <code>PipelinedInflater</code>.
+     */
+    static public PipelinedInflater startZLIB(ByteBuffer compressed, int uncompressedSize, int compressedSize) {
+        if (compressed.remaining() < compressedSize) {
+            throw new BufferUnderflowException();
+        }
+
+        final PipelinedInflater PIPE = new PipelinedInflater(uncompressedSize);
+        final ByteBuffer INPUT = compressed.slice();
+        ((Buffer) INPUT).limit(compressedSize);
+        PIPE.start(() -> PIPE.inflateZLIB(INPUT));
+        return PIPE;
+    }
+
+    /**
+     * Starts inflating an LZ4 block. LZ4 blocks can't be inflated
+     * incrementally, so the data becomes available all at once; but the
+     * reader is still free to do other work in the meantime.
+     *
+     * @param compressed The compressed data, starting at the current position.
+     * @param uncompressedSize The size of the uncompressed data.
+     * @return The <code>PipelinedInflater</code>.
+     */
+    static public PipelinedInflater startLZ4(ByteBuffer compressed, int uncompressedSize) {
+        final PipelinedInflater PIPE = new PipelinedInflater(uncompressedSize);
+        final ByteBuffer INPUT = compressed.slice();
+        PIPE.start(() -> PIPE.inflateLZ4(INPUT));
+        return PIPE;
+    }
+
+    /**
+     * Creates a new <code>PipelinedInflater</code>.
+     *
+     * @param uncompressedSize The size of the uncompressed data.
+     */
+    private PipelinedInflater(int uncompressedSize) {
+        if (uncompressedSize < 0) {
+            throw new IllegalArgumentException("Invalid uncompressed size: " + uncompressedSize);
+        }
+        this.SIZE = uncompressedSize;
+        this.DATA = new byte[uncompressedSize];
+        this.available = 0;
+        this.done = false;
+        this.error = null;
+        this.thread = null;
+    }
+
+    /**
+     * Starts the producer thread.
+     *
+     * @param task The inflation task.
+     */
+    private void start(Producer task) {
+        this.thread = new Thread(() -> {
+            try {
+                task.run();
+                this.publish(this.SIZE, true);
+            } catch (DataFormatException | RuntimeException ex) {
+                this.fail(ex);
+            } catch (InterruptedException ex) {
+                this.fail(new InterruptedIOException("Inflation cancelled."));
+            }
+        }, "ReSaver-Inflater");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @return A little-endian view of the destination buffer. Only the bytes
+     * below the last value passed to <code>await</code> may be read.
+     */
+    public ByteBuffer getBuffer() {
+        return ByteBuffer.wrap(this.DATA).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return The size of the uncompressed data.
+     */
+    public int getSize() {
+        return this.SIZE;
+    }
+
+    /**
+     * Blocks until the first <code>position</code> bytes of the destination
+     * buffer are ready.
+     *
+     * @param position The number of bytes that must be ready.
+     * @throws IOException Thrown if the wait is interrupted.
+     * @throws DataFormatException Thrown if the compressed data is invalid.
+     */
+    public void await(int position) throws IOException, DataFormatException {
+        final int TARGET = Math.min(position, this.SIZE);
+
+        synchronized (this) {
+            while (this.available < TARGET && !this.done) {
+                try {
+                    this.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for inflation.");
+                }
+            }
+            this.rethrow();
+        }
+    }
+
+    /**
+     * Blocks until the whole buffer has been inflated.
+     *
+     * @return A little-endian view of the destination buffer.
+     * @throws IOException Thrown if the wait is interrupted.
+     * @throws DataFormatException Thrown if the compressed data is invalid.
+     */
+    public ByteBuffer finish() throws IOException, DataFormatException {
+        this.await(this.SIZE);
+        return this.getBuffer();
+    }
+
+    /**
+     * Stops the producer thread if it is still running, and waits for it to
+     * exit. Once this returns, the compressed buffer is no longer in use.
+     */
+    @Override
+    public void close() {
+        final Thread T = this.thread;
+        if (T == null) {
+            return;
+        }
+
+        T.interrupt();
+        boolean interrupted = false;
+
+        while (T.isAlive()) {
+            try {
+                T.join();
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Rethrows any exception from the producer thread. Must be called while
+     * holding the monitor.
+     *
+     * @throws IOException
+     * @throws DataFormatException
+     */
+    private void rethrow() throws IOException, DataFormatException {
+        if (this.error instanceof DataFormatException) {
+            throw (DataFormatException) this.error;
+        } else if (this.error instanceof IOException) {
+            throw (IOException) this.error;
+        } else if (this.error instanceof RuntimeException) {
+            throw (RuntimeException) this.error;
+        }
+    }
+
+    /**
+     * Publishes progress from the producer thread.
+     *
+     * @param newAvailable The number of bytes that are ready.
+     * @param finished Whether the producer is finished.
+     */
+    synchronized private void publish(int newAvailable, boolean finished) {
+        this.available = newAvailable;
+        this.done = finished;
+        this.notifyAll();
+    }
+
+    /**
+     * Publishes a failure from the producer thread.
+     *
+     * @param ex The exception.
+     */
+    synchronized private void fail(Exception ex) {
+        this.error = ex;
+        this.done = true;
+        this.notifyAll();
+    }
+
+    /**
+     * Inflates a ZLIB stream in chunks, publishing after each one.
+     *
+     * @param input The compressed data.
+     * @throws DataFormatException
+     * @throws InterruptedException
+     */
+    private void inflateZLIB(ByteBuffer input) throws DataFormatException, InterruptedException {
+        final Inflater INFLATER = new Inflater();
+
+        try {
+            final byte[] CHUNK;
+            if (input.hasArray()) {
+                CHUNK = null;
+                INFLATER.setInput(input.array(), input.arrayOffset() + ((Buffer) input).position(), input.remaining());
+            } else {
+                CHUNK = new byte[Math.min(input.remaining(), CHUNK_SIZE)];
+            }
+
+            int inflated = 0;
+
+            while (!INFLATER.finished() && inflated < this.SIZE) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+
+                if (INFLATER.needsInput()) {
+                    if (CHUNK == null || !input.hasRemaining()) {
+                        break;
+                    }
+                    final int N = Math.min(input.remaining(), CHUNK.length);
+                    input.get(CHUNK, 0, N);
+                    INFLATER.setInput(CHUNK, 0, N);
+                } else if (INFLATER.needsDictionary()) {
+                    throw new DataFormatException("ZLIB stream requires a preset dictionary.");
+                }
+
+                inflated += INFLATER.inflate(this.DATA, inflated, Math.min(CHUNK_SIZE, this.SIZE - inflated));
+                this.publish(inflated, false);
+            }
+
+            if (inflated < this.SIZE) {
+                LOG.warning(String.format("Inflated %d bytes but expecting %d bytes.", inflated, this.SIZE));
+            }
+        } finally {
+            INFLATER.end();
+        }
+    }
+
+    /**
+     * Inflates an LZ4 block.
+     *
+     * @param input The compressed data.
+     */
+    private void inflateLZ4(ByteBuffer input) {
+        final ByteBuffer OUTPUT = ByteBuffer.wrap(this.DATA);
+        LZ4Factory.fastestInstance().fastDecompressor().decompress(input, OUTPUT);
+    }
+
+    final private int SIZE;
+    final private byte[] DATA;
+    private int available;
+    private boolean done;
+    private Exception error;
+    private Thread thread;
+
+    /**
+     * The amount of data inflated between each publication.
+     */
+    static final private int CHUNK_SIZE = 1 << 18;
+
+    static final private Logger LOG = Logger.getLogger(PipelinedInflater.class.getCanonicalName());
+
+    /**
+     * The body of the producer thread.
+     */
+    @FunctionalInterface
+    static private interface Producer {
+
+        void run() throws DataFormatException, InterruptedException;
+    }
+
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mf;
+
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Inflates and deflates small ZLIB streams using an <code>Inflater</code>,
+ * <code>Deflater</code>s, and scratch arrays that belong to the calling
+ * thread. They are reset and reused from one call to the next instead of being
+ * created and ended every time, which is what makes compressing thousands of
+ * changeforms expensive.
+ *
+ * Heap buffers are read and written through their backing arrays, so nothing
+ * is copied on the way in or out. Direct buffers go through the scratch arrays.
+ *
+ * A call that starts while another is in progress on the same thread, which
+ * can only happen if a caller nests them, gets a temporary set of its own.
+ *
+ * @author Mark Fairchild
+ */
+final public class ZLIBPool {
+
+    /**
+     * Inflates a ZLIB stream from one buffer into another. Both positions are
+     * advanced: <code>compressed</code> past the stream, and
+     * <code>uncompressed</code> past the bytes that were inflated.
+     *
+     * @param compressed The buffer containing the stream.
+     * @param compressedSize The size of the stream.
+     * @param uncompressed The buffer to inflate into. At most its remaining
+     * space will be filled.
+     * @return The number of bytes that were inflated.
+     * @throws DataFormatException Thrown if the stream is invalid.
+     */
+    static public int inflate(ByteBuffer compressed, int compressedSize, ByteBuffer uncompressed) throws DataFormatException {
+        if (compressed.remaining() < compressedSize) {
+            throw new BufferUnderflowException();
+        }
+
+        final State STATE = State.acquire();
+
+        try {
+            final Inflater INFLATER = STATE.INFLATER;
+            final int START = ((Buffer) compressed).position();
+            final int CAPACITY = uncompressed.remaining();
+
+            final byte[] OUTPUT;
+            final int OUTPUT_OFFSET;
+            if (uncompressed.hasArray()) {
+                OUTPUT = uncompressed.array();
+                OUTPUT_OFFSET = uncompressed.arrayOffset() + ((Buffer) uncompressed).position();
+            } else {
+                OUTPUT = STATE.output(CAPACITY);
+                OUTPUT_OFFSET = 0;
+            }
+
+            final byte[] CHUNK;
+            int remaining;
+            if (compressed.hasArray()) {
+                INFLATER.setInput(compressed.array(), compressed.arrayOffset() + START, compressedSize);
+                CHUNK = null;
+                remaining = 0;
+            } else {
+                CHUNK = STATE.chunk(Math.min(compressedSize, CHUNK_SIZE));
+                remaining = compressedSize;
+            }
+
+            int inflated = 0;
+
+            while (!INFLATER.finished() && inflated < CAPACITY) {
+                if (INFLATER.needsInput()) {
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    final int N = Math.min(remaining, CHUNK.length);
+                    compressed.get(CHUNK, 0, N);
+                    INFLATER.setInput(CHUNK, 0, N);
+                    remaining -= N;
+                } else if (INFLATER.needsDictionary()) {
+                    throw new DataFormatException("ZLIB stream requires a preset dictionary.");
+                }
+
+                final int COUNT = INFLATER.inflate(OUTPUT, OUTPUT_OFFSET + inflated, CAPACITY - inflated);
+                if (COUNT == 0 && !INFLATER.needsInput() && !INFLATER.needsDictionary()) {
+                    break;
+                }
+                inflated += COUNT;
+            }
+
+            ((Buffer) compressed).position(START + compressedSize);
+
+            if (uncompressed.hasArray()) {
+                ((Buffer) uncompressed).position(((Buffer) uncompressed).position() + inflated);
+            } else {
+                uncompressed.put(OUTPUT, 0, inflated);
+            }
+
+            return inflated;
+
+        } finally {
+            STATE.release();
+        }
+    }
+
+    /**
+     * Deflates the remaining contents of a buffer into a ZLIB stream. The
+     * position of <code>uncompressed</code> is advanced to its limit.
+     *
+     * @param uncompressed The buffer to deflate.
+     * @param level The compression level, from <code>Deflater</code>.
+     * @return A new buffer holding exactly the stream, ready to be read.
+     */
+    static public ByteBuffer deflate(ByteBuffer uncompressed, int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+
+        final State STATE = State.acquire();
+
+        try {
+            final Deflater DEFLATER = STATE.deflater(level);
+            final int SIZE = uncompressed.remaining();
+
+            final byte[] CHUNK;
+            int remaining;
+            if (uncompressed.hasArray()) {
+                DEFLATER.setInput(uncompressed.array(), uncompressed.arrayOffset() + ((Buffer) uncompressed).position(), SIZE);
+                DEFLATER.finish();
+                ((Buffer) uncompressed).position(((Buffer) uncompressed).limit());
+                CHUNK = null;
+                remaining = 0;
+            } else {
+                CHUNK = STATE.chunk(Math.min(SIZE, CHUNK_SIZE));
+                remaining = SIZE;
+                if (remaining == 0) {
+                    DEFLATER.finish();
+                }
+            }
+
+            byte[] output = STATE.output(SIZE + SIZE / 10 + 64);
+            int deflated = 0;
+
+            while (!DEFLATER.finished()) {
+                if (remaining > 0 && DEFLATER.needsInput()) {
+                    final int N = Math.min(remaining, CHUNK.length);
+                    uncompressed.get(CHUNK, 0, N);
+                    DEFLATER.setInput(CHUNK, 0, N);
+                    remaining -= N;
+                    if (remaining == 0) {
+                        DEFLATER.finish();
+                    }
+                }
+
+                if (deflated == output.length) {
+                    output = STATE.grow(output);
+                }
+                deflated += DEFLATER.deflate(output, deflated, output.length - deflated);
+            }
+
+            final byte[] RESULT = java.util.Arrays.copyOf(output, deflated);
+            return ByteBuffer.wrap(RESULT);
+
+        } finally {
+            STATE.release();
+        }
+    }
+
+    /**
+     * Returns a scratch buffer that belongs to the calling thread, for
+     * serializing data that is about to be deflated. Its contents are only
+     * valid until the thread's next call to <code>scratch</code>.
+     *
+     * @param size The size of the buffer.
+     * @return A heap buffer with a position of zero and a limit of
+     * <code>size</code>.
+     */
+    static public ByteBuffer scratch(int size) {
+        return ByteBuffer.wrap(State.acquireScratch(size), 0, size);
+    }
+
+    /**
+     * The per-thread resources.
+     */
+    static final private class State {
+
+        /**
+         * @return The calling thread's <code>State</code>, or a temporary one
+         * if it is already in use.
+         */
+        static State acquire() {
+            final State STATE = CURRENT.get();
+            if (STATE.busy) {
+                return new State(true);
+            }
+            STATE.busy = true;
+            return STATE;
+        }
+
+        /**
+         * @param size The minimum size.
+         * @return The calling thread's scratch array, grown if necessary.
+         */
+        static byte[] acquireScratch(int size) {
+            final State STATE = CURRENT.get();
+            if (STATE.scratch.length >= size) {
+                return STATE.scratch;
+            }
+
+            final byte[] SCRATCH = new byte[size];
+            if (size <= MAX_RETAINED) {
+                STATE.scratch = SCRATCH;
+            }
+            return SCRATCH;
+        }
+
+        State(boolean temporary) {
+            this.INFLATER = new Inflater();
+            this.DEFLATERS = new Deflater[Deflater.BEST_COMPRESSION + 2];
+            this.TEMPORARY = temporary;
+            this.chunk = EMPTY;
+            this.output = EMPTY;
+            this.scratch = EMPTY;
+            this.busy = temporary;
+        }
+
+        /**
+         * Resets the inflater and deflaters, and makes the state available
+         * again. A temporary state is ended instead.
+         */
+        void release() {
+            if (this.TEMPORARY) {
+                this.INFLATER.end();
+                for (Deflater deflater : this.DEFLATERS) {
+                    if (deflater != null) {
+                        deflater.end();
+                    }
+                }
+            } else {
+                this.INFLATER.reset();
+                for (Deflater deflater : this.DEFLATERS) {
+                    if (deflater != null) {
+                        deflater.reset();
+                    }
+                }
+                this.busy = false;
+            }
+        }
+
+        /**
+         * @param level The compression level.
+         * @return A <code>Deflater</code> for the level.
+         */
+        Deflater deflater(int level) {
+            final int INDEX = level + 1;
+            if (this.DEFLATERS[INDEX] == null) {
+                this.DEFLATERS[INDEX] = new Deflater(level);
+            }
+            return this.DEFLATERS[INDEX];
+        }
+
+        /**
+         * @param size The minimum size.
+         * @return The chunk array, grown if necessary.
+         */
+        byte[] chunk(int size) {
+            if (this.chunk.length < size) {
+                this.chunk = new byte[size];
+            }
+            return this.chunk;
+        }
+
+        /**
+         * @param size The minimum size.
+         * @return The output array, grown if necessary.
+         */
+        byte[] output(int size) {
+            if (this.output.length >= size) {
+                return this.output;
+            }
+
+            final byte[] OUTPUT = new byte[size];
+            if (size <= MAX_RETAINED) {
+                this.output = OUTPUT;
+            }
+            return OUTPUT;
+        }
+
+        /**
+         * @param full The output array, which is full.
+         * @return A copy of the output array with twice the space.
+         */
+        byte[] grow(byte[] full) {
+            final byte[] GROWN = java.util.Arrays.copyOf(full, Math.max(64, 2 * full.length));
+            if (GROWN.length <= MAX_RETAINED) {
+                this.output = GROWN;
+            }
+            return GROWN;
+        }
+
+        final Inflater INFLATER;
+        final Deflater[] DEFLATERS;
+        final boolean TEMPORARY;
+        byte[] chunk;
+        byte[] output;
+        byte[] scratch;
+        boolean busy;
+
+        static final private ThreadLocal<State> CURRENT = ThreadLocal.withInitial(() -> new State(false));
+    }
+
+    /**
+     * The size of the chunks used to feed direct buffers through the
+     * inflater and deflater.
+     */
+    static final private int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Scratch arrays larger than this are used once and then dropped, so
+     * that one huge changeform doesn't pin its memory to a thread forever.
+     */
+    static final private int MAX_RETAINED = 1 << 22;
+
+    static final private byte[] EMPTY = new byte[0];
+
+}
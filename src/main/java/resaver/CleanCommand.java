@@ -0,0 +1,358 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package resaver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+import resaver.ess.ESS;
+import resaver.ess.ElementException;
+import resaver.ess.papyrus.Definition;
+import resaver.ess.papyrus.Papyrus;
+import resaver.ess.papyrus.Reference;
+import resaver.ess.papyrus.Script;
+import resaver.ess.papyrus.ScriptInstance;
+import resaver.ess.papyrus.ScriptList;
+import resaver.ess.papyrus.Struct;
+import resaver.ess.papyrus.StructInstance;
+import resaver.gui.Configurator;
+
+/**
+ * Cleans a batch of savefiles without the GUI.
+ *
+ * The savefiles are processed concurrently on a work-stealing pool. Since a
+ * decoded savefile takes several times its uncompressed size, a memory budget
+ * limits how many of them are decoded at once; a large savefile simply waits
+ * until enough of the budget is free.
+ *
+ * For every savefile, a JSON summary is written next to the cleaned copy.
+ *
+ * @author Mark Fairchild
+ */
+@Command(name = "clean", mixinStandardHelpOptions = true, description = "Cleans savefiles without opening the GUI.")
+public class CleanCommand implements Callable<Integer> {
+
+    /**
+     * @return 0 if every savefile was cleaned, 1 if any of them failed, or 2
+     * if there was nothing to do or two savefiles would be written to the 
+     * same file.
+     * @throws IOException
+     */
+    @Override
+    public Integer call() throws IOException {
+        final ScriptList SCRIPTS = ScriptList.parse(SCRIPTS_OPTION == null
+                ? Collections.emptyList()
+                : Files.readAllLines(SCRIPTS_OPTION, StandardCharsets.UTF_8));
+
+        if (SCRIPTS.isEmpty() && !UNATTACHED_OPTION && !UNDEFINED_OPTION && !HAVOK_OPTION && !FORMLISTS_OPTION) {
+            System.err.println("Nothing to do: specify --scripts, --unattached, --undefined, --havok, or --formlists.");
+            return 2;
+        }
+
+        final List<Path> SAVES = expand(PATH_PARAMETER);
+        if (SAVES.isEmpty()) {
+            System.err.println("No savefiles were found.");
+            return 2;
+        }
+
+        // Savefiles that would be written to the same place can't be cleaned
+        // side by side. Names are compared without case, as Windows does.
+        final List<List<Path>> CLASHES = SAVES.stream()
+                .collect(Collectors.groupingBy(p -> this.target(p).toString().toLowerCase(), LinkedHashMap::new, Collectors.toList()))
+                .values().stream()
+                .filter(group -> group.size() > 1)
+                .collect(Collectors.toList());
+
+        if (!CLASHES.isEmpty()) {
+            CLASHES.forEach(group -> System.err.printf("These savefiles would be written to the same file, %s: %s\n", this.target(group.get(0)), group));
+            return 2;
+        }
+
+        if (OUTPUT_OPTION != null) {
+            Files.createDirectories(OUTPUT_OPTION);
+        }
+
+        final int THREADS = THREADS_OPTION > 0 ? THREADS_OPTION : Runtime.getRuntime().availableProcessors();
+        final int BUDGET = MEMORY_OPTION > 0 ? MEMORY_OPTION : (int) (Runtime.getRuntime().maxMemory() / 2 / MB);
+        final Semaphore MEMORY = new Semaphore(BUDGET, true);
+        LOG.info(String.format("Cleaning %d savefiles on %d threads with a budget of %d mb.", SAVES.size(), THREADS, BUDGET));
+
+        final ForkJoinPool POOL = new ForkJoinPool(THREADS);
+        try {
+            final List<Map<String, Object>> SUMMARIES = POOL.submit(() -> SAVES.parallelStream()
+                    .map(save -> this.clean(save, SCRIPTS, MEMORY, BUDGET))
+                    .collect(Collectors.toList()))
+                    .get();
+
+            final long FAILED = SUMMARIES.stream().filter(s -> s.containsKey("error")).count();
+            System.out.printf("Cleaned %d of %d savefiles.\n", SUMMARIES.size() - FAILED, SUMMARIES.size());
+            return FAILED == 0 ? 0 : 1;
+
+        } catch (InterruptedException | ExecutionException ex) {
+            LOG.log(Level.SEVERE, "Batch cleaning failed.", ex);
+            return 1;
+        } finally {
+            POOL.shutdown();
+        }
+    }
+
+    /**
+     * Cleans a single savefile and writes its summary. Errors are recorded in
+     * the summary rather than thrown, so that one bad savefile doesn't stop
+     * the rest of the batch.
+     *
+     * @param saveFile The savefile.
+     * @param scripts The script list.
+     * @param memory The memory budget, in megabytes.
+     * @param budget The size of the memory budget.
+     * @return The summary.
+     */
+    private Map<String, Object> clean(Path saveFile, ScriptList scripts, Semaphore memory, int budget) {
+        final Map<String, Object> SUMMARY = new LinkedHashMap<>();
+        final Path TARGET = this.target(saveFile);
+        SUMMARY.put("file", saveFile.toString());
+        SUMMARY.put("output", TARGET.toString());
+
+        final mf.Timer TIMER = mf.Timer.startNew("cleaning");
+        int permits = 0;
+
+        try {
+            final ESS.Peek PEEK = ESS.peekHeader(saveFile);
+            final int NEEDED = (int) Math.min(budget, Math.max(1, (long) PEEK.UNCOMPRESSED_SIZE * DECODE_FACTOR / MB));
+            memory.acquire(NEEDED);
+            permits = NEEDED;
+
+            final ESS.Result RESULT = ESS.readESS(saveFile);
+            final ESS SAVE = RESULT.ESS;
+            final Papyrus PAPYRUS = SAVE.getPapyrus();
+
+            if (!scripts.isEmpty()) {
+                // Since there's nobody to answer the prompts, prompted 
+                // entries are skipped unless --prompted was given.
+                final Set<Definition> DEFINITIONS = scripts.match(PAPYRUS.getContext()).entrySet().stream()
+                        .filter(e -> !e.getValue().isPresent() || PROMPTED_OPTION)
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toCollection(TreeSet::new));
+
+                final ScriptList.Cleaned CLEANED = ScriptList.clean(PAPYRUS, DEFINITIONS);
+
+                final Map<String, Object> COUNTS = new LinkedHashMap<>();
+                COUNTS.put("matched", DEFINITIONS.size());
+                COUNTS.put("scripts", CLEANED.count(Script.class));
+                COUNTS.put("scriptInstances", CLEANED.count(ScriptInstance.class));
+                COUNTS.put("structs", CLEANED.count(Struct.class));
+                COUNTS.put("structInstances", CLEANED.count(StructInstance.class));
+                COUNTS.put("references", CLEANED.count(Reference.class));
+                COUNTS.put("threads", CLEANED.THREADS.size());
+                SUMMARY.put("scripts", COUNTS);
+            }
+
+            if (UNDEFINED_OPTION) {
+                final Map<String, Object> COUNTS = new LinkedHashMap<>();
+                COUNTS.put("removed", PAPYRUS.removeUndefinedElements().size());
+                COUNTS.put("terminated", PAPYRUS.terminateUndefinedThreads().size());
+                SUMMARY.put("undefined", COUNTS);
+            }
+
+            if (UNATTACHED_OPTION) {
+                SUMMARY.put("unattached", PAPYRUS.removeUnattachedInstances().size());
+            }
+
+            if (HAVOK_OPTION) {
+                final int[] RESULTS = SAVE.resetHavok(Optional.empty());
+                final Map<String, Object> COUNTS = new LinkedHashMap<>();
+                COUNTS.put("succeeded", RESULTS[0]);
+                COUNTS.put("failed", RESULTS[1]);
+                SUMMARY.put("havok", COUNTS);
+            }
+
+            if (FORMLISTS_OPTION) {
+                final int[] RESULTS = SAVE.cleanseFormLists(Optional.empty());
+                final Map<String, Object> COUNTS = new LinkedHashMap<>();
+                COUNTS.put("nullrefs", RESULTS[0]);
+                COUNTS.put("formlists", RESULTS[1]);
+                SUMMARY.put("formlists", COUNTS);
+            }
+
+            ESS.writeESS(SAVE, TARGET, false);
+            SUMMARY.put("size", Files.size(TARGET));
+
+        } catch (IOException | ElementException | RuntimeException ex) {
+            LOG.log(Level.WARNING, "Failed to clean " + saveFile, ex);
+            SUMMARY.put("error", String.valueOf(ex.getMessage()));
+
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            SUMMARY.put("error", "Interrupted.");
+
+        } finally {
+            memory.release(permits);
+            TIMER.stop();
+            SUMMARY.put("seconds", TIMER.getElapsed() / 1.0e9);
+        }
+
+        final Path JSON = TARGET.resolveSibling(TARGET.getFileName() + ".json");
+        try {
+            Files.write(JSON, toJSON(SUMMARY).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Failed to write the summary " + JSON, ex);
+        }
+
+        System.out.printf("%s: %s\n", saveFile.getFileName(), SUMMARY.containsKey("error") ? "FAILED" : "cleaned");
+        return SUMMARY;
+    }
+
+    /**
+     * @param saveFile A savefile.
+     * @return The file to which the cleaned savefile is written.
+     */
+    private Path target(Path saveFile) {
+        return OUTPUT_OPTION == null ? saveFile : OUTPUT_OPTION.resolve(saveFile.getFileName());
+    }
+
+    /**
+     * Expands a list of paths into savefiles. A directory stands for all of
+     * the savefiles in it, and a filename may be a glob.
+     *
+     * @param paths The paths.
+     * @return The savefiles.
+     * @throws IOException
+     */
+    static private List<Path> expand(List<String> paths) throws IOException {
+        final List<Path> SAVES = new ArrayList<>();
+
+        for (String path : paths) {
+            final Path PATH = Paths.get(path);
+            final Path DIR;
+            final PathMatcher MATCHER;
+
+            if (Files.isDirectory(PATH)) {
+                DIR = PATH;
+                MATCHER = p -> true;
+            } else if (Files.exists(PATH)) {
+                SAVES.add(PATH);
+                continue;
+            } else {
+                DIR = PATH.getParent() == null ? Paths.get(".") : PATH.getParent();
+                MATCHER = DIR.getFileSystem().getPathMatcher("glob:" + PATH.getFileName());
+            }
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(DIR)) {
+                for (Path p : stream) {
+                    if (MATCHER.matches(p.getFileName()) && Configurator.validateSavegame(p)) {
+                        SAVES.add(p);
+                    }
+                }
+            }
+        }
+
+        return SAVES.stream()
+                .map(p -> p.toAbsolutePath().normalize())
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Formats a summary as JSON.
+     *
+     * @param value A <code>Map</code>, <code>Number</code>, or anything else,
+     * which is formatted as a string.
+     * @return The JSON text.
+     */
+    static private String toJSON(Object value) {
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).entrySet().stream()
+                    .map(e -> toJSON(e.getKey().toString()) + ": " + toJSON(e.getValue()))
+                    .collect(Collectors.joining(", ", "{", "}"));
+        } else if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        } else {
+            final StringBuilder BUF = new StringBuilder("\"");
+            for (char c : String.valueOf(value).toCharArray()) {
+                if (c == '"' || c == '\\') {
+                    BUF.append('\\').append(c);
+                } else if (c < 0x20) {
+                    BUF.append(String.format("\\u%04x", (int) c));
+                } else {
+                    BUF.append(c);
+                }
+            }
+            return BUF.append('"').toString();
+        }
+    }
+
+    @Option(names = {"-s", "--scripts"}, description = "A file listing scripts to remove, in the batch cleaner format.")
+    private Path SCRIPTS_OPTION;
+
+    @Option(names = {"--prompted"}, description = "Also remove scripts whose entries have an @@ prompt.")
+    private boolean PROMPTED_OPTION;
+
+    @Option(names = {"-u", "--unattached"}, description = "Remove unattached script instances.")
+    private boolean UNATTACHED_OPTION;
+
+    @Option(names = {"-U", "--undefined"}, description = "Remove undefined elements and terminate undefined threads.")
+    private boolean UNDEFINED_OPTION;
+
+    @Option(names = {"--havok"}, description = "Reset havok data.")
+    private boolean HAVOK_OPTION;
+
+    @Option(names = {"--formlists"}, description = "Remove nullrefs from formlists.")
+    private boolean FORMLISTS_OPTION;
+
+    @Option(names = {"-o", "--output"}, description = "The directory for the cleaned savefiles (default: overwrite, with a backup).")
+    private Path OUTPUT_OPTION;
+
+    @Option(names = {"-j", "--threads"}, description = "The number of savefiles to clean concurrently (default: the number of processors).")
+    private int THREADS_OPTION;
+
+    @Option(names = {"-m", "--memory"}, description = "The memory budget in megabytes (default: half of the maximum heap).")
+    private int MEMORY_OPTION;
+
+    @Parameters(arity = "1..*", description = "Savefiles, directories, or globs.")
+    private List<String> PATH_PARAMETER;
+
+    /**
+     * A decoded savefile takes roughly this many times its uncompressed size.
+     */
+    static final private int DECODE_FACTOR = 4;
+
+    static final private long MB = 1L << 20;
+    static final private Logger LOG = Logger.getLogger(CleanCommand.class.getCanonicalName());
+
+}
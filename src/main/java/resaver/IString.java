@@ -15,9 +15,10 @@
  */
 package resaver;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
-import java.util.WeakHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -43,7 +44,7 @@ public class IString implements CharSequence, java.io.Serializable, Comparable<I
      * @return The new <code>IString</code>.
      */
     static public IString get(String val) {
-        return CACHE.computeIfAbsent(val.toLowerCase(), v -> new IString(v));
+        return POOL.get(val);
     }
 
     /**
@@ -247,6 +248,193 @@ public class IString implements CharSequence, java.io.Serializable, Comparable<I
      * Stores all <code>IString</code> instances for re-use, because they 
      * do get reused a LOT. This saves a massive amount of memory.
      */
-    static private WeakHashMap<String, IString> CACHE = new WeakHashMap<>(60_000);
+    static final private Pool POOL = new Pool(64, 60_000);
+
+    /**
+     * A weak intern pool for lowercase <code>IString</code>, safe to use from
+     * any number of threads.
+     *
+     * The pool is split into stripes by hashcode, each a small hashtable with
+     * its own lock, so threads rarely wait for each other. Entries are weak,
+     * and are cleared out once their <code>IString</code> is no longer used.
+     *
+     * Strings are lowercased a character at a time, and lookups compare that
+     * way too, so finding a string that is already in the pool never
+     * allocates, whatever its case. A new lowercase string is only made when
+     * a string that isn't already lowercase is added.
+     */
+    static final private class Pool {
+
+        /**
+         * @param stripes The number of stripes, a power of two.
+         * @param expected The expected number of entries.
+         */
+        Pool(int stripes, int expected) {
+            assert Integer.bitCount(stripes) == 1;
+            this.STRIPES = new Stripe[stripes];
+            final int CAPACITY = Integer.highestOneBit(Math.max(16, 2 * expected / stripes) - 1) << 1;
+            for (int i = 0; i < stripes; i++) {
+                this.STRIPES[i] = new Stripe(CAPACITY);
+            }
+        }
+
+        /**
+         * @param val A string.
+         * @return The pooled lowercase <code>IString</code> for the string.
+         */
+        IString get(String val) {
+            final int HASH = lowerHash(val);
+            final Stripe STRIPE = this.STRIPES[(HASH ^ (HASH >>> 16)) & (this.STRIPES.length - 1)];
+            synchronized (STRIPE) {
+                return STRIPE.get(val, HASH);
+            }
+        }
+
+        /**
+         * @param val A string.
+         * @return The hashcode that the string would have if it were
+         * lowercased a character at a time.
+         */
+        static int lowerHash(String val) {
+            int hash = 0;
+            for (int i = 0; i < val.length(); i++) {
+                hash = 31 * hash + Character.toLowerCase(val.charAt(i));
+            }
+            return hash;
+        }
+
+        /**
+         * @param val A string.
+         * @return The string, lowercased a character at a time. If it is
+         * already lowercase, the string itself.
+         */
+        static String lower(String val) {
+            for (int i = 0; i < val.length(); i++) {
+                if (Character.toLowerCase(val.charAt(i)) != val.charAt(i)) {
+                    final char[] CHARS = val.toCharArray();
+                    for (int j = i; j < CHARS.length; j++) {
+                        CHARS[j] = Character.toLowerCase(CHARS[j]);
+                    }
+                    return new String(CHARS);
+                }
+            }
+            return val;
+        }
+
+        /**
+         * @param pooled A pooled lowercase string.
+         * @param val A string.
+         * @return True if <code>val</code> lowercases to <code>pooled</code>.
+         */
+        static boolean matches(String pooled, String val) {
+            if (pooled.length() != val.length()) {
+                return false;
+            }
+            for (int i = 0; i < val.length(); i++) {
+                if (pooled.charAt(i) != Character.toLowerCase(val.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        final private Stripe[] STRIPES;
+
+        /**
+         * One stripe of the pool: a chained hashtable of weak entries. All
+         * access must hold the stripe's lock.
+         */
+        static final private class Stripe {
+
+            Stripe(int capacity) {
+                this.table = new Entry[capacity];
+                this.QUEUE = new ReferenceQueue<>();
+                this.size = 0;
+            }
+
+            IString get(String val, int hash) {
+                final int INDEX = hash & (this.table.length - 1);
+
+                for (Entry e = this.table[INDEX]; e != null; e = e.next) {
+                    if (e.HASH == hash) {
+                        final IString POOLED = e.get();
+                        if (POOLED != null && matches(POOLED.STRING, val)) {
+                            return POOLED;
+                        }
+                    }
+                }
+
+                this.expunge();
+                if (2 * (this.size + 1) > this.table.length) {
+                    this.resize();
+                }
+
+                final IString CREATED = new IString(lower(val));
+                final int SLOT = hash & (this.table.length - 1);
+                this.table[SLOT] = new Entry(CREATED, hash, this.table[SLOT], this.QUEUE);
+                this.size++;
+                return CREATED;
+            }
+
+            /**
+             * Removes the entries whose <code>IString</code> has been
+             * collected.
+             */
+            void expunge() {
+                for (Object ref; (ref = this.QUEUE.poll()) != null;) {
+                    final Entry STALE = (Entry) ref;
+                    final int INDEX = STALE.HASH & (this.table.length - 1);
+
+                    for (Entry prev = null, e = this.table[INDEX]; e != null; prev = e, e = e.next) {
+                        if (e == STALE) {
+                            if (prev == null) {
+                                this.table[INDEX] = e.next;
+                            } else {
+                                prev.next = e.next;
+                            }
+                            this.size--;
+                            break;
+                        }
+                    }
+                }
+            }
+
+            /**
+             * Doubles the size of the table.
+             */
+            void resize() {
+                final Entry[] LARGER = new Entry[2 * this.table.length];
+                for (Entry head : this.table) {
+                    for (Entry e = head; e != null;) {
+                        final Entry NEXT = e.next;
+                        final int INDEX = e.HASH & (LARGER.length - 1);
+                        e.next = LARGER[INDEX];
+                        LARGER[INDEX] = e;
+                        e = NEXT;
+                    }
+                }
+                this.table = LARGER;
+            }
+
+            final private ReferenceQueue<IString> QUEUE;
+            private Entry[] table;
+            private int size;
+        }
+
+        /**
+         * A weak reference to a pooled <code>IString</code>.
+         */
+        static final private class Entry extends WeakReference<IString> {
+
+            Entry(IString referent, int hash, Entry next, ReferenceQueue<IString> queue) {
+                super(referent, queue);
+                this.HASH = hash;
+                this.next = next;
+            }
+
+            final int HASH;
+            Entry next;
+        }
+    }
 
 }
@@ -37,14 +37,21 @@ import resaver.gui.SaveWindow;
  *
  * @author Mark Fairchild
  */
-@Command(name = "ReSaver", mixinStandardHelpOptions = true, version = "ReSaver 6.0.467", description = "")
+@Command(name = "ReSaver", mixinStandardHelpOptions = true, version = "ReSaver 6.0.467", description = "", subcommands = {CleanCommand.class})
 public class ReSaver implements Callable<Integer> {
 
     /**
      * @param args the command line arguments
      */
     public static void main(String[] args) {
-        new CommandLine(new ReSaver()).execute(args);
+        final CommandLine CLI = new CommandLine(new ReSaver());
+        final int EXIT = CLI.execute(args);
+
+        // Subcommands run headless, so report their result. The GUI keeps
+        // running after call() returns.
+        if (CLI.getParseResult() != null && CLI.getParseResult().hasSubcommand()) {
+            System.exit(EXIT);
+        }
     }
 
     /**
@@ -95,7 +102,7 @@ public class ReSaver implements Callable<Integer> {
         
         if (selection != null && INGR_OPTION) {
             try {
-                resaver.ess.ESS.Result result = resaver.ess.ESS.readESS(selection, new resaver.ess.ModelBuilder(new resaver.ProgressModel(1)));
+                resaver.ess.ESS.Result result = resaver.ess.ESS.readESS(selection);
                 resaver.ess.ESS save = result.ESS;
                 resaver.ess.RefID playerID = save.make(0x400014);
                 resaver.ess.ChangeForm form = save.getChangeForms().getChangeForm(playerID);
@@ -17,9 +17,9 @@ package resaver.esp;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
@@ -30,6 +30,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.Map;
 import java.util.logging.Logger;
+import mf.BufferUtil;
 import resaver.Game;
 import resaver.ess.Plugin;
 import resaver.ess.PluginInfo;
@@ -68,12 +69,13 @@ final public class ESP implements Entry {
         assert Files.isRegularFile(path);
         final String NAME = path.getFileName().toString();
 
-        // Prepare input stream.
+        // Map the plugin rather than copying it. Only the pages that are
+        // touched get loaded, and the mapping is released as soon as the
+        // skim is done instead of whenever the garbage collector gets to it.
+        // Nothing that the skim produces keeps a view of the mapping.
         try (FileChannel input = FileChannel.open(path, java.nio.file.StandardOpenOption.READ)) {
-            final ByteBuffer BUFFER = ByteBuffer.allocateDirect((int) input.size());
-            input.read(BUFFER);
+            final MappedByteBuffer BUFFER = input.map(FileChannel.MapMode.READ_ONLY, 0, input.size());
             BUFFER.order(ByteOrder.LITTLE_ENDIAN);
-            ((Buffer) BUFFER).flip();
           
             try {
                 // first build a typed "pre" context for TES4
@@ -90,6 +92,8 @@ final public class ESP implements Entry {
             } catch (RecordException|FieldException ex) {
                //LOG.warning(String.format("Error reading plugin %s\n%s", NAME, ex.getContext()));
                 throw new PluginException(ex, NAME, ex.getContext());
+            } finally {
+                BufferUtil.unmap(BUFFER);
             }
 
         } catch (FileNotFoundException ex) {
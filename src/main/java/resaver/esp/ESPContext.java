@@ -15,11 +15,13 @@
  */
 package resaver.esp;
 
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.function.IntFunction;
 import resaver.Game;
 import resaver.IString;
 import resaver.ess.Plugin;
+import resaver.ess.papyrus.EID;
 
 /**
  * Stores the information that ESP elements require to read and write themselves
@@ -46,7 +48,10 @@ final public class ESPContext<T extends PluginData> {
         Objects.requireNonNull(plugin);
         this.GAME = Objects.requireNonNull(game);
         this.TES4 = tes4;
-        this.CONTEXT = new LinkedList<>();
+        this.kinds = new Frame[16];
+        this.values = new int[16];
+        this.labels = new CharSequence[16];
+        this.depth = 0;
         this.PLUGIN_INFO = Objects.requireNonNull(data);
         pushContext(plugin.NAME);
     }
@@ -56,14 +61,30 @@ final public class ESPContext<T extends PluginData> {
      * @param ctx 
      */
     public void pushContext(CharSequence ctx) {
-        this.CONTEXT.addLast(IString.get(ctx.toString()));
+        this.push(Frame.TEXT, 0, Objects.requireNonNull(ctx));
+    }
+
+    /**
+     * Adds a context layer that is described by a number. Nothing is
+     * formatted until the context is actually rendered, which only happens
+     * when something goes wrong.
+     *
+     * @param kind The kind of layer.
+     * @param value The layer's number.
+     */
+    public void pushContext(Frame kind, int value) {
+        this.push(Objects.requireNonNull(kind), value, null);
     }
 
     /**
      * Removes a context layer.
      */
     public void popContext() {
-        this.CONTEXT.removeLast();
+        if (this.depth == 0) {
+            throw new java.util.NoSuchElementException();
+        }
+        this.depth--;
+        this.labels[this.depth] = null;
     }
 
     public boolean check(String... levels) {        
@@ -71,7 +92,7 @@ final public class ESPContext<T extends PluginData> {
 
 		for (String l : levels) {
             IString level = IString.get(l);
-            if (!this.CONTEXT.contains(level)) {
+            if (!this.contains(level)) {
                 return false;
             } else {
                 matches++;
@@ -81,6 +102,49 @@ final public class ESPContext<T extends PluginData> {
         return matches > 0;
     }
 
+    /**
+     * @param level A context layer.
+     * @return True if the context currently includes the layer.
+     */
+    private boolean contains(IString level) {
+        for (int i = 0; i < this.depth; i++) {
+            if (level.equals(IString.get(this.render(i)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a context layer, growing the stack if necessary.
+     *
+     * @param kind The kind of layer.
+     * @param value The layer's number.
+     * @param label The layer's text, for <code>Frame.TEXT</code>.
+     */
+    private void push(Frame kind, int value, CharSequence label) {
+        if (this.depth == this.kinds.length) {
+            final int SIZE = 2 * this.depth;
+            this.kinds = Arrays.copyOf(this.kinds, SIZE);
+            this.values = Arrays.copyOf(this.values, SIZE);
+            this.labels = Arrays.copyOf(this.labels, SIZE);
+        }
+        this.kinds[this.depth] = kind;
+        this.values[this.depth] = value;
+        this.labels[this.depth] = label;
+        this.depth++;
+    }
+
+    /**
+     * @param index The index of a context layer.
+     * @return The context layer as text.
+     */
+    private String render(int index) {
+        return this.kinds[index] == Frame.TEXT
+                ? this.labels[index].toString()
+                : this.kinds[index].RENDERER.apply(this.values[index]);
+    }
+
     /**
      * Remaps formIDs. If the formID's master is not available, the plugin field
      * of the formid will be set to 255.
@@ -94,12 +158,48 @@ final public class ESPContext<T extends PluginData> {
     
     @Override
     public String toString() {
-        return this.CONTEXT.toString();
+        final StringBuilder BUF = new StringBuilder("[");
+        for (int i = 0; i < this.depth; i++) {
+            if (i > 0) {
+                BUF.append(", ");
+            }
+            BUF.append(this.render(i));
+        }
+        return BUF.append(']').toString();
+    }
+
+    /**
+     * The kinds of context layer that are described by a single number.
+     */
+    static public enum Frame {
+        TEXT(v -> ""),
+        TOP(v -> "TOP(" + RecordCode.toString(v) + ")"),
+        WORLD_CHILDREN(v -> "GRUP Wrld children " + EID.pad8(v)),
+        INTERIOR_BLOCK(v -> "Interior Block " + v),
+        INTERIOR_SUBBLOCK(v -> "Interior SubBlock " + v),
+        EXTERIOR_BLOCK(v -> "Exerior Block: " + mf.Pair.of(v & 0xFFFF, v >>> 4)),
+        EXTERIOR_SUBBLOCK(v -> "Exerior SubBlock: " + mf.Pair.of(v & 0xFFFF, v >>> 4)),
+        CELL_CHILDREN(v -> "CELL children " + EID.pad8(v)),
+        TOPIC_CHILDREN(v -> "Children of TOPIC" + EID.pad8(v)),
+        CELL_PERSISTENT(v -> "CELL Persistent Children" + EID.pad8(v)),
+        CELL_TEMPORARY(v -> "CELL Temprorary Children" + EID.pad8(v)),
+        UNKNOWN_BLOCK(v -> "UnkBlock " + EID.pad8(v)),
+        RECORD(v -> EID.pad8(v)),
+        FIELD(v -> RecordCode.toString(v));
+
+        private Frame(IntFunction<String> renderer) {
+            this.RENDERER = renderer;
+        }
+
+        final private IntFunction<String> RENDERER;
     }
 
     final public Game GAME;
     final public RecordTes4 TES4;
-    final private LinkedList<IString> CONTEXT;
+    private Frame[] kinds;
+    private int[] values;
+    private CharSequence[] labels;
+    private int depth;
     final public T PLUGIN_INFO;
     final private int[] RECORD_COUNTS = new int[256];
     
@@ -15,12 +15,9 @@
  */
 package resaver.esp;
 
-import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.zip.DataFormatException;
 import resaver.IString;
-import resaver.ess.papyrus.EID;
 import static resaver.esp.Entry.advancingSlice;
 
 /**
@@ -67,14 +64,13 @@ abstract public class Record implements Entry {
                                           ESPContext<? extends PluginData> ctx)
             throws FieldException {
         assert input.hasRemaining();
-        IString CODE = IString.get("null");
+        IString CODE = NULL_CODE;
         
         try {
             // Read the record identification code.
-            final byte[] CODEBYTES = new byte[4];
-            input.get(CODEBYTES);
-            CODE = IString.get(new String(CODEBYTES));
-            ctx.pushContext(CODE);
+            final int CODEINT = input.getInt();
+            CODE = fieldCode(CODEINT);
+            ctx.pushContext(ESPContext.Frame.FIELD, CODEINT);
 
             // Read the record size.
             final boolean BIG = bigSize > 0;
@@ -93,25 +89,25 @@ abstract public class Record implements Entry {
 
             // Depending on what code we found, pick a subclass to readFully in the
             // rest of the data.
-            if (CODE.equals(IString.get("XXXX"))) {
+            if (CODEINT == XXXX) {
                 FieldXXXX xxxx = new FieldXXXX(CODE, FIELDINPUT);
                 FieldList fieldsRead = readFieldAux(parentCode, input, xxxx.getData(), ctx);
                 FIELDS.add(xxxx);
                 FIELDS.addAll(fieldsRead);
 
-            } else if (CODE.equals(IString.get("VMAD"))) {
+            } else if (CODEINT == VMAD) {
                 FieldVMAD field = new FieldVMAD(parentCode, CODE, FIELDINPUT, BIG, ctx);
                 FIELDS.add(field);
 
-            } else if (CODE.equals(IString.get("EDID"))) {
+            } else if (CODEINT == EDID) {
                 FieldEDID field = new FieldEDID(CODE, FIELDINPUT, ACTUALSIZE, BIG, ctx);
                 FIELDS.add(field);
 
-            } else if (CODE.equals(IString.get("FULL"))) {
+            } else if (CODEINT == FULL) {
                 FieldFull field = new FieldFull(CODE, FIELDINPUT, ACTUALSIZE, BIG, ctx);
                 FIELDS.add(field);
 
-            } else if (CODE.equals(IString.get("NAME")) && (parentCode == RecordCode.ACHR
+            } else if (CODEINT == NAME && (parentCode == RecordCode.ACHR
                     || parentCode == RecordCode.REFR)) {
                 FieldName field = new FieldName(CODE, FIELDINPUT, ACTUALSIZE, BIG, ctx);
                 FIELDS.add(field);
@@ -129,6 +125,28 @@ abstract public class Record implements Entry {
         }
     }
 
+    /**
+     * Returns the <code>IString</code> for a field code. Field codes come
+     * from a small vocabulary, so each one is converted once and then looked
+     * up by its <code>int</code> value.
+     *
+     * @param code The field code, packed little-endian.
+     * @return The field code as an <code>IString</code>.
+     */
+    static private IString fieldCode(int code) {
+        final IString CACHED = FIELD_CODES.get(code);
+        if (CACHED != null) {
+            return CACHED;
+        }
+
+        // A corrupt plugin can produce any number of codes, so stop caching
+        // them rather than letting the table grow without bound.
+        final IString NEW = IString.get(RecordCode.toString(code));
+        return FIELD_CODES.size() < MAX_FIELD_CODES
+                ? FIELD_CODES.computeIfAbsent(code, k -> NEW)
+                : NEW;
+    }
+
     /**
      * Returns the record code.
      *
@@ -149,10 +167,7 @@ abstract public class Record implements Entry {
                                     ESPContext<? extends PluginData> ctx)
             throws RecordException, FieldException {
         // Read the record identification code.
-        final byte[] CODEBYTES = new byte[4];
-        input.get(CODEBYTES);
-        final String CODESTRING = new String(CODEBYTES);
-        final RecordCode CODE = RecordCode.valueOf(CODESTRING);
+        final RecordCode CODE = RecordCode.decode(input.getInt());
 
         // Read the record size.
         final int DATASIZE = input.getInt();
@@ -202,16 +217,7 @@ abstract public class Record implements Entry {
                                   ESPContext<? extends PluginData> ctx)
             throws RecordException, FieldException {
         // Read the record identification code.
-        final byte[] CODEBYTES = new byte[4];
-        input.get(CODEBYTES);
-        final String CODESTRING = new String(CODEBYTES);
-        final RecordCode CODE;
-       
-        try {
-            CODE = RecordCode.valueOf(CODESTRING);
-        } catch (Exception ex) {
-            throw ex;
-        }
+        final RecordCode CODE = RecordCode.decode(input.getInt());
 
         // Read the record size.
         final int DATASIZE = input.getInt();
@@ -223,42 +229,7 @@ abstract public class Record implements Entry {
             final int PREFIX = HEADER.getInt();
             final int TYPE = HEADER.getInt();
 
-            switch (TYPE) {
-                case 0:
-                    final ByteBuffer TOP = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(PREFIX);
-                    ((Buffer) TOP).flip();
-                    String tops = new String(TOP.array());
-                    ctx.pushContext("TOP(" + tops + ")");
-                    break;
-                case 1:
-                    ctx.pushContext("GRUP Wrld children " + EID.pad8(PREFIX));
-                case 2:
-                    ctx.pushContext("Interior Block " + PREFIX);
-                    break;
-                case 3:
-                    ctx.pushContext("Interior SubBlock " + PREFIX);
-                    break;
-                case 4:
-                    ctx.pushContext("Exerior Block: " + grupCoords(PREFIX));
-                case 5:
-                    ctx.pushContext("Exerior SubBlock: " + grupCoords(PREFIX));
-                    break;
-                case 6:
-                    ctx.pushContext("CELL children " + EID.pad8(PREFIX));
-                    break;
-                case 7:
-                    ctx.pushContext("Children of TOPIC" + EID.pad8(PREFIX));
-                    break;
-                case 8:
-                    ctx.pushContext("CELL Persistent Children" + EID.pad8(PREFIX));
-                    break;
-                case 9:
-                    ctx.pushContext("CELL Temprorary Children" + EID.pad8(PREFIX));
-                    break;
-                default:
-                    ctx.pushContext("UnkBlock " + EID.pad8(PREFIX));
-                    break;
-            }
+            ctx.pushContext(grupFrame(TYPE), PREFIX);
 
             // Get the record data.
             final ByteBuffer RECORDINPUT = advancingSlice(input, DATASIZE - 24);
@@ -275,7 +246,7 @@ abstract public class Record implements Entry {
         } else {
             // Read the header.
             final Header HEADER = new Header(input, ctx);
-            ctx.pushContext(EID.pad8(HEADER.ID));
+            ctx.pushContext(ESPContext.Frame.RECORD, HEADER.ID);
 
             // Read the record data.
             final ByteBuffer RECORDINPUT = advancingSlice(input, DATASIZE);
@@ -369,7 +340,44 @@ abstract public class Record implements Entry {
 
     }
     
-    static private mf.Pair<Integer, Integer>grupCoords(int code) {
-        return mf.Pair.of(code & 0xFFFF, code >>> 4);
+    /**
+     * @param type The type of a GRUP.
+     * @return The kind of context layer for the GRUP.
+     */
+    static private ESPContext.Frame grupFrame(int type) {
+        switch (type) {
+            case 0:
+                return ESPContext.Frame.TOP;
+            case 1:
+                return ESPContext.Frame.WORLD_CHILDREN;
+            case 2:
+                return ESPContext.Frame.INTERIOR_BLOCK;
+            case 3:
+                return ESPContext.Frame.INTERIOR_SUBBLOCK;
+            case 4:
+                return ESPContext.Frame.EXTERIOR_BLOCK;
+            case 5:
+                return ESPContext.Frame.EXTERIOR_SUBBLOCK;
+            case 6:
+                return ESPContext.Frame.CELL_CHILDREN;
+            case 7:
+                return ESPContext.Frame.TOPIC_CHILDREN;
+            case 8:
+                return ESPContext.Frame.CELL_PERSISTENT;
+            case 9:
+                return ESPContext.Frame.CELL_TEMPORARY;
+            default:
+                return ESPContext.Frame.UNKNOWN_BLOCK;
+        }
     }
+
+    static final private int XXXX = RecordCode.pack("XXXX");
+    static final private int VMAD = RecordCode.pack("VMAD");
+    static final private int EDID = RecordCode.pack("EDID");
+    static final private int FULL = RecordCode.pack("FULL");
+    static final private int NAME = RecordCode.pack("NAME");
+
+    static final private int MAX_FIELD_CODES = 4096;
+    static final private IString NULL_CODE = IString.get("null");
+    static final private mf.IntInterner<IString> FIELD_CODES = new mf.IntInterner<>(512);
 }
@@ -179,4 +179,60 @@ public enum RecordCode {
         this.FULLNAME = fullName;
     }
 
+    /**
+     * Finds the <code>RecordCode</code> for a code that was read from a
+     * plugin as a little-endian <code>int</code>, without building a
+     * <code>String</code> for it.
+     *
+     * @param code The four characters of the code, packed little-endian.
+     * @return The <code>RecordCode</code>.
+     * @throws IllegalArgumentException Thrown if the code isn't a known record
+     * code.
+     */
+    static public RecordCode decode(int code) {
+        final RecordCode RESULT = BY_CODE.get(code);
+        if (RESULT == null) {
+            throw new IllegalArgumentException("No enum constant " + RecordCode.class.getCanonicalName() + "." + toString(code));
+        }
+        return RESULT;
+    }
+
+    /**
+     * Packs a four character code into an <code>int</code>, the way it is
+     * stored in a plugin.
+     *
+     * @param code The code.
+     * @return The code, packed little-endian.
+     */
+    static public int pack(CharSequence code) {
+        assert code.length() == 4;
+        return (code.charAt(0) & 0xFF)
+                | (code.charAt(1) & 0xFF) << 8
+                | (code.charAt(2) & 0xFF) << 16
+                | (code.charAt(3) & 0xFF) << 24;
+    }
+
+    /**
+     * Unpacks a four character code from an <code>int</code>.
+     *
+     * @param code The code, packed little-endian.
+     * @return The code as a <code>String</code>.
+     */
+    static public String toString(int code) {
+        final char[] CHARS = {
+            (char) (code & 0xFF),
+            (char) (code >>> 8 & 0xFF),
+            (char) (code >>> 16 & 0xFF),
+            (char) (code >>> 24 & 0xFF)
+        };
+        return new String(CHARS);
+    }
+
+    static final private mf.IntInterner<RecordCode> BY_CODE = new mf.IntInterner<>(values().length);
+    static {
+        for (RecordCode c : values()) {
+            BY_CODE.computeIfAbsent(pack(c.name()), k -> c);
+        }
+    }
+
 }
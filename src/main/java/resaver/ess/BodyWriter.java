@@ -0,0 +1,240 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package resaver.ess;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonReadableChannelException;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+import mf.BufferUtil;
+import mf.ParallelDeflater;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+
+/**
+ * Streams the body of a savefile into a <code>FileChannel</code>, compressing
+ * it on the way if necessary.
+ *
+ * Elements are serialized into a small staging buffer, which is handed to the
+ * compressor (or straight to the channel) whenever it fills up. That way the
+ * whole uncompressed body never has to exist in memory at once. ZLIB is
+ * compressed on several threads by a <code>ParallelDeflater</code>.
+ *
+ * LZ4 is the exception: the game expects a single LZ4 block, which can't be
+ * produced incrementally, so the staging buffer holds the whole body. The
+ * compressed block is written straight into a mapping of the file instead of
+ * a second buffer.
+ *
+ * @author Mark Fairchild
+ */
+final class BodyWriter {
+
+    /**
+     * Creates a new <code>BodyWriter</code>.
+     *
+     * @param channel The channel to write to, positioned where the body
+     * starts.
+     * @param compression The type of compression to apply.
+     * @param uncompressedSize The expected size of the uncompressed body.
+     */
+    BodyWriter(FileChannel channel, CompressionType compression, int uncompressedSize) {
+        this.CHANNEL = Objects.requireNonNull(channel);
+        this.COMPRESSION = Objects.requireNonNull(compression);
+        this.SIZE = uncompressedSize;
+
+        final int CAPACITY = compression == CompressionType.LZ4
+                ? uncompressedSize
+                : Math.min(uncompressedSize, STAGING_SIZE);
+        this.STAGING = ByteBuffer.allocate(CAPACITY).order(ByteOrder.LITTLE_ENDIAN);
+        this.current = this.STAGING;
+
+        if (compression == CompressionType.ZLIB) {
+            this.DEFLATER = new ParallelDeflater(channel, Deflater.BEST_COMPRESSION);
+        } else {
+            this.DEFLATER = null;
+        }
+
+        this.uncompressed = 0;
+        this.written = 0;
+    }
+
+    /**
+     * Returns a buffer with room for at least <code>size</code> bytes. The
+     * caller must fill it before calling any other method.
+     *
+     * @param size The number of bytes that will be written.
+     * @return A little-endian buffer to write into.
+     * @throws IOException
+     */
+    ByteBuffer stage(int size) throws IOException {
+        if (this.current.remaining() >= size || this.COMPRESSION == CompressionType.LZ4) {
+            return this.current;
+        }
+
+        this.drain();
+
+        if (this.STAGING.remaining() < size) {
+            // Too large for the staging buffer; give it a buffer of its own.
+            this.current = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        return this.current;
+    }
+
+    /**
+     * Writes the remaining contents of a buffer.
+     *
+     * @param data The data to write.
+     * @throws IOException
+     */
+    void put(ByteBuffer data) throws IOException {
+        if (this.COMPRESSION == CompressionType.LZ4 || this.current.remaining() >= data.remaining()) {
+            this.current.put(data);
+        } else {
+            this.drain();
+            this.consume(data);
+        }
+    }
+
+    /**
+     * Writes everything that is still staged and finishes the compressed
+     * stream.
+     *
+     * @return The number of bytes that were written to the channel.
+     * @throws IOException
+     */
+    int finish() throws IOException {
+        if (this.COMPRESSION == CompressionType.LZ4) {
+            this.uncompressed = ((Buffer) this.STAGING).position();
+            ((Buffer) this.STAGING).flip();
+            this.compressLZ4();
+        } else {
+            this.drain();
+        }
+
+        if (this.uncompressed != this.SIZE) {
+            throw new IOException(String.format("Wrote %d bytes of body data but expecting %d bytes.", this.uncompressed, this.SIZE));
+        }
+
+        if (this.DEFLATER != null) {
+            this.written = this.DEFLATER.finish();
+        }
+
+        if (this.COMPRESSION.isCompressed()) {
+            LOG.info(String.format("%s COMPRESSION %d->%d bytes", this.COMPRESSION, this.uncompressed, this.written));
+        }
+
+        return (int) this.written;
+    }
+
+    /**
+     * Hands the staged data to the compressor or the channel, and resets the
+     * staging buffer.
+     *
+     * @throws IOException
+     */
+    private void drain() throws IOException {
+        if (this.COMPRESSION == CompressionType.LZ4) {
+            return;
+        }
+
+        ((Buffer) this.current).flip();
+        this.consume(this.current);
+        ((Buffer) this.STAGING).clear();
+        this.current = this.STAGING;
+    }
+
+    /**
+     * Hands data to the compressor or the channel.
+     *
+     * @param data The data.
+     * @throws IOException
+     */
+    private void consume(ByteBuffer data) throws IOException {
+        this.uncompressed += data.remaining();
+
+        if (this.DEFLATER == null) {
+            while (data.hasRemaining()) {
+                this.written += this.CHANNEL.write(data);
+            }
+
+        } else {
+            this.DEFLATER.write(data);
+        }
+    }
+
+    /**
+     * Compresses the staging buffer into a single LZ4 block, directly into a
+     * mapping of the channel if possible.
+     *
+     * @throws IOException
+     */
+    private void compressLZ4() throws IOException {
+        final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+        final long POSITION = this.CHANNEL.position();
+        final int MAXIMUM = COMPRESSOR.maxCompressedLength(this.STAGING.remaining());
+
+        MappedByteBuffer mapped = null;
+        try {
+            mapped = this.CHANNEL.map(FileChannel.MapMode.READ_WRITE, POSITION, MAXIMUM);
+        } catch (NonReadableChannelException | IOException ex) {
+            LOG.log(Level.FINE, "Couldn't map the output, compressing on the heap.", ex);
+        }
+
+        if (mapped == null) {
+            final ByteBuffer COMPRESSED = BufferUtil.deflateLZ4(this.STAGING, this.STAGING.remaining());
+            while (COMPRESSED.hasRemaining()) {
+                this.written += this.CHANNEL.write(COMPRESSED);
+            }
+            return;
+        }
+
+        try {
+            COMPRESSOR.compress(this.STAGING, mapped);
+            this.written = ((Buffer) mapped).position();
+        } finally {
+            BufferUtil.unmap(mapped);
+        }
+
+        // The mapping grew the file to the maximum compressed size.
+        this.CHANNEL.truncate(POSITION + this.written);
+        this.CHANNEL.position(POSITION + this.written);
+    }
+
+    final private FileChannel CHANNEL;
+    final private CompressionType COMPRESSION;
+    final private int SIZE;
+    final private ByteBuffer STAGING;
+    final private ParallelDeflater DEFLATER;
+    private ByteBuffer current;
+    private long uncompressed;
+    private long written;
+
+    /**
+     * The size of the staging buffer, for everything but LZ4.
+     */
+    static final private int STAGING_SIZE = 1 << 20;
+
+    static final private Logger LOG = Logger.getLogger(BodyWriter.class.getCanonicalName());
+
+}
@@ -27,6 +27,7 @@ import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.zip.DataFormatException;
 import mf.BufferUtil;
+import mf.ZLIBPool;
 import resaver.Analysis;
 import resaver.Game;
 import resaver.ess.papyrus.ScriptInstance;
@@ -36,17 +37,36 @@ import resaver.ess.papyrus.ScriptInstance;
  *
  * @author Mark Fairchild
  */
-final public class ChangeForm implements AnalyzableElement, Linkable {
+final public class ChangeForm implements AnalyzableElement, Linkable, SizeCache.Member {
 
     /**
      * Creates a new <code>ChangeForm</code> by reading from a
      * <code>ByteBuffer</code>.
      *
+     * The <code>ChangeForm</code> keeps a view of its data in
+     * <code>input</code> rather than a copy, so the contents of
+     * <code>input</code> must not change afterwards.
+     *
      * @param input The input stream.
      * @param context The <code>ESSContext</code> info.
      */
     public ChangeForm(ByteBuffer input, ESS.ESSContext context) {
+        this(input, ((Buffer) input).position(), context);
+    }
+
+    /**
+     * Creates a new <code>ChangeForm</code> by reading from a
+     * <code>ByteBuffer</code> that isn't the body of the savefile, such as a
+     * copy of part of it.
+     *
+     * @param input The input stream.
+     * @param originalOffset The offset of the <code>ChangeForm</code> in the
+     * body of the savefile.
+     * @param context The <code>ESSContext</code> info.
+     */
+    ChangeForm(ByteBuffer input, int originalOffset, ESS.ESSContext context) {
         Objects.requireNonNull(input);
+        this.originalOffset = originalOffset;
         this.REFID = context.readRefID(input);
         this.changeFlags = Flags.readIntFlags(input);
         this.TYPEFIELD = Byte.toUnsignedInt(input.get());
@@ -88,17 +108,63 @@ final public class ChangeForm implements AnalyzableElement, Linkable {
             throw new IllegalStateException(MSG.toString());
         }
 
-        // Read the changeform's data.
-        final byte[] BUF = new byte[this.length1];
-        input.get(BUF);
+        // Take a view of the changeform's data instead of copying it.
+        if (input.remaining() < this.length1) {
+            throw new BufferUnderflowException();
+        }
+        
+        final ByteBuffer BODY = input.slice();
+        ((Buffer) BODY).limit(this.length1);
+        ((Buffer) input).position(((Buffer) input).position() + this.length1);
 
         // If the length2 field is greater than 0, then the data is compressed.
         this.ISCOMPRESSED = this.length2 > 0;
-        this.rawData = BUF;
+        this.rawData = BODY;
         this.parsedData = null;
         //this.modified = false;
     }
 
+    /**
+     * Skips over a <code>ChangeForm</code> without building it, using only the
+     * length fields of its header. Used to find where each
+     * <code>ChangeForm</code> starts before they are read in parallel.
+     *
+     * @param input The input stream.
+     */
+    static void skip(ByteBuffer input) {
+        final int START = ((Buffer) input).position();
+        final int TYPEFIELD = Byte.toUnsignedInt(input.get(START + 7));
+        final int HEADERSIZE;
+        final int LENGTH1;
+
+        switch (TYPEFIELD >>> 6) {
+            case 0:
+                HEADERSIZE = 11;
+                LENGTH1 = Byte.toUnsignedInt(input.get(START + 9));
+                break;
+            case 1:
+                HEADERSIZE = 13;
+                LENGTH1 = Short.toUnsignedInt(input.getShort(START + 9));
+                break;
+            case 2:
+                HEADERSIZE = 17;
+                LENGTH1 = input.getInt(START + 9);
+                break;
+            default:
+                throw new IllegalStateException("Invalid type.");
+        }
+
+        if (LENGTH1 < 0) {
+            throw new IllegalStateException(String.format("Invalid data size: l1 = %d", LENGTH1));
+        }
+
+        final long END = (long) START + HEADERSIZE + LENGTH1;
+        if (END > ((Buffer) input).limit()) {
+            throw new BufferUnderflowException();
+        }
+        ((Buffer) input).position((int) END);
+    }
+
     /**
      * @see resaver.ess.Element#write(java.nio.ByteBuffer)
      * @param output The output stream.
@@ -133,7 +199,7 @@ final public class ChangeForm implements AnalyzableElement, Linkable {
                 throw new IllegalStateException("Invalid type.");
         }
 
-        output.put(this.rawData);
+        output.put(this.rawData.duplicate());
 
     }
 
@@ -222,53 +288,90 @@ final public class ChangeForm implements AnalyzableElement, Linkable {
      * @return A flag indicating whether the change was successful.
      */
     public boolean updateRawData(ChangeFormData body, Flags.Int newChangeFlags) {
+        final Encoded ENCODED = this.encode(body);
+        if (ENCODED == null) {
+            return false;
+        }
+        
+        this.store(ENCODED, newChangeFlags);
+        return true;
+    }
+    
+    /**
+     * Serializes and, if the changeform is compressed, compresses new data
+     * for the changeform without storing it. This doesn't touch the
+     * changeform's own state, so different changeforms can be encoded on
+     * different threads.
+     *
+     * @param body The new body.
+     * @return The encoded data, or null if it couldn't be encoded.
+     */
+    Encoded encode(ChangeFormData body) {
         try {
             Objects.requireNonNull(body);
 
             final int UNCOMPRESSED_SIZE = body.calculateSize();
-            final ByteBuffer UNCOMPRESSED = ByteBuffer.allocate(UNCOMPRESSED_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+            // Data that will be compressed only needs to exist long enough to
+            // be deflated, so it is serialized into the thread's scratch 
+            // buffer. The deflater is pooled too.
+            final ByteBuffer UNCOMPRESSED = (this.ISCOMPRESSED
+                    ? ZLIBPool.scratch(UNCOMPRESSED_SIZE)
+                    : ByteBuffer.allocate(UNCOMPRESSED_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
             body.write(UNCOMPRESSED);
             ((Buffer) UNCOMPRESSED).flip();
 
             if (this.ISCOMPRESSED) {
-                // Deflater only works on byte[], so pull bytes out of the ByteBuffer
-                byte[] uncompressedBytes = new byte[UNCOMPRESSED.remaining()];
-                UNCOMPRESSED.get(uncompressedBytes);
-
-                java.util.zip.Deflater deflater = new java.util.zip.Deflater();
-                try {
-                    deflater.setInput(uncompressedBytes);
-                    deflater.finish();
-
-                    // allocate an output buffer and deflate into it
-                    byte[] tempBuf = new byte[2 * UNCOMPRESSED_SIZE];
-                    int compressedLen = deflater.deflate(tempBuf);
-
-                    this.length2 = deflater.getTotalIn();
-                    this.length1 = deflater.getTotalOut();
-                    this.rawData = java.util.Arrays.copyOf(tempBuf, compressedLen);
-                } finally {
-                    deflater.end();
-                }
-             } else {
-                this.length1 = UNCOMPRESSED_SIZE;
-                final byte[] NEW_RAW = new byte[UNCOMPRESSED_SIZE];
-                UNCOMPRESSED.get(NEW_RAW);
-                this.rawData = NEW_RAW;
-            }
-            
-            if (newChangeFlags != null) {
-                this.changeFlags = newChangeFlags;
+                final ByteBuffer COMPRESSED = ZLIBPool.deflate(UNCOMPRESSED, java.util.zip.Deflater.DEFAULT_COMPRESSION);
+                return new Encoded(COMPRESSED, COMPRESSED.remaining(), UNCOMPRESSED_SIZE);
+            } else {
+                return new Encoded(UNCOMPRESSED, UNCOMPRESSED_SIZE, this.length2);
             }
             
-            return true;
-            
         } catch (Throwable ex) {
             ex.printStackTrace(System.err);
-            return false;
+            return null;
+        }
+    }
+    
+    /**
+     * Replaces the changeform's data with data from <code>encode</code>.
+     *
+     * @param encoded The new data.
+     * @param newChangeFlags The new changeflags, or null to leave unchanged.
+     */
+    void store(Encoded encoded, Flags.Int newChangeFlags) {
+        Objects.requireNonNull(encoded);
+        SizeCache.changing(this.sizeCache, this);
+        
+        this.rawData = encoded.RAWDATA;
+        this.length1 = encoded.LENGTH1;
+        this.length2 = encoded.LENGTH2;
+
+        if (newChangeFlags != null) {
+            this.changeFlags = newChangeFlags;
         }
+
+        this.originalOffset = -1;
     }
     
+    /**
+     * @see SizeCache.Member#setSizeCache(resaver.ess.SizeCache)
+     * @param cache
+     */
+    @Override
+    public void setSizeCache(SizeCache cache) {
+        this.sizeCache = cache;
+    }
+
+    /**
+     * @return The offset of the <code>ChangeForm</code> in the body of the
+     * savefile it was read from, or -1 if its data has been replaced since.
+     */
+    int getOriginalOffset() {
+        return this.originalOffset;
+    }
+
     /**
      * @return Whether the data is compressed.
      */
@@ -287,15 +390,17 @@ final public class ChangeForm implements AnalyzableElement, Linkable {
      * Returns the raw data for the ChangeForm. It will be decompressed first,
      * if necessary.
      *
+     * Uncompressed data isn't copied; the returned buffer is a read-only view
+     * of it.
+     *
      * @return The raw form of the <code>ChangeFormData</code>.
      *
      */
     public ByteBuffer getBodyData() {
-        if (this.ISCOMPRESSED) return ChangeForm.decompress(this.rawData, this.length2);
-        else {
-            ByteBuffer buf = ByteBuffer.allocate(this.rawData.length).put(this.rawData);
-            ((java.nio.Buffer)buf).flip();
-            return buf;
+        if (this.ISCOMPRESSED) {
+            return ChangeForm.decompress(this.rawData.duplicate(), this.length2);
+        } else {
+            return this.rawData.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
         }
     }
 
@@ -581,10 +686,38 @@ final public class ChangeForm implements AnalyzableElement, Linkable {
     private int length2;
 
     final private boolean ISCOMPRESSED;
-    private byte[] rawData;
+
+    /**
+     * The stored data: a view of the buffer that the <code>ChangeForm</code>
+     * was read from, until the data is replaced.
+     */
+    private ByteBuffer rawData;
     private ChangeFormData parsedData;
+
+    /**
+     * The offset of the <code>ChangeForm</code> in the original body, or -1
+     * once it has been modified.
+     */
+    private int originalOffset;
+    private SizeCache sizeCache;
     static final private Logger LOG = Logger.getLogger(ChangeForm.class.getCanonicalName());
 
+    /**
+     * Data produced by <code>encode</code>, waiting to be stored.
+     */
+    static final class Encoded {
+
+        private Encoded(ByteBuffer rawData, int length1, int length2) {
+            this.RAWDATA = rawData;
+            this.LENGTH1 = length1;
+            this.LENGTH2 = length2;
+        }
+
+        final private ByteBuffer RAWDATA;
+        final private int LENGTH1;
+        final private int LENGTH2;
+    }
+
     /**
      * Data sizes for the length fields.
      */
@@ -707,9 +840,9 @@ final public class ChangeForm implements AnalyzableElement, Linkable {
      * @param length
      * @return
      */
-    static private ByteBuffer decompress(byte[] buf, int length) {
+    static private ByteBuffer decompress(ByteBuffer buf, int length) {
         try {
-            final ByteBuffer DECOMPRESSED = BufferUtil.inflateZLIB(ByteBuffer.wrap(buf), length, buf.length);
+            final ByteBuffer DECOMPRESSED = BufferUtil.inflateZLIB(buf, length, buf.remaining());
             return DECOMPRESSED;
         } catch (DataFormatException ex) {
             return null;
@@ -15,15 +15,43 @@
  */
 package resaver.ess;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import resaver.Analysis;
+
 /**
+ * An ordered collection of <code>ChangeForm</code>, indexed by
+ * <code>RefID</code>.
+ *
+ * Iteration follows the order in which forms were added. Lookups by
+ * <code>RefID</code>, <code>contains</code>, and removals are constant-time.
  *
  * @author Mark Fairchild
  */
-@SuppressWarnings("serial")
-final public class ChangeFormCollection extends java.util.ArrayList<ChangeForm> {
+final public class ChangeFormCollection extends java.util.AbstractCollection<ChangeForm> {
 
     public ChangeFormCollection(int expected) {
-        super(expected);
+        final int CAPACITY = Math.max(16, (int) (expected / 0.75f) + 1);
+        this.FORMS = new java.util.LinkedHashSet<>(CAPACITY);
+        this.INDEX = new java.util.HashMap<>(CAPACITY);
+        this.SIZE = new SizeCache(() -> this.FORMS.stream().mapToInt(v -> v.calculateSize()).sum());
+        this.duplicates = false;
+    }
+
+    /**
+     * The total size of the changeforms is memoized; each changeform reports
+     * to the collection when its data is replaced.
+     *
+     * @return The total size of the changeforms in bytes.
+     */
+    public int calculateSize() {
+        return this.SIZE.get();
     }
 
     /**
@@ -34,10 +62,7 @@ final public class ChangeFormCollection extends java.util.ArrayList<ChangeForm>
      * found.
      */
     public ChangeForm getChangeForm(RefID refID) {
-        return this.stream()
-                .filter(cf -> cf.getRefID().equals(refID))
-                .findAny()
-                .orElse(null);
+        return this.INDEX.get(refID);
     }
 
     /**
@@ -48,7 +73,277 @@ final public class ChangeFormCollection extends java.util.ArrayList<ChangeForm>
      * found.
      */
     public boolean containsKey(RefID refID) {
-        return this.stream().anyMatch(cf -> cf.getRefID().equals(refID));
+        return this.INDEX.containsKey(refID);
+    }
+
+    /**
+     * @see java.util.Collection#add(java.lang.Object)
+     * @param form The <code>ChangeForm</code> to add.
+     * @return True if the form wasn't already present.
+     */
+    @Override
+    public boolean add(ChangeForm form) {
+        java.util.Objects.requireNonNull(form);
+        if (!this.FORMS.add(form)) {
+            return false;
+        }
+
+        form.setSizeCache(this.SIZE);
+        this.SIZE.added(form);
+
+        // If a RefID appears more than once, the first form wins, like it
+        // did with the old linear search.
+        if (this.INDEX.putIfAbsent(form.getRefID(), form) != null) {
+            this.duplicates = true;
+        }
+        return true;
+    }
+
+    /**
+     * @see java.util.Collection#remove(java.lang.Object)
+     * @param o The <code>ChangeForm</code> to remove.
+     * @return True if the form was present.
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!this.FORMS.remove(o)) {
+            return false;
+        }
+        this.unindex((ChangeForm) o);
+        this.release((ChangeForm) o);
+        return true;
+    }
+
+    /**
+     * Removes each of the elements of a collection, in time proportional to
+     * the size of that collection.
+     *
+     * @see java.util.Collection#removeAll(java.util.Collection)
+     * @param c The <code>ChangeForm</code> objects to remove.
+     * @return True if any forms were removed.
+     */
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean modified = false;
+        for (Object o : c) {
+            modified |= this.remove(o);
+        }
+        return modified;
+    }
+
+    /**
+     * @see java.util.Collection#contains(java.lang.Object)
+     * @param o The object to look for.
+     * @return True if the <code>ChangeForm</code> is present.
+     */
+    @Override
+    public boolean contains(Object o) {
+        return this.FORMS.contains(o);
+    }
+
+    /**
+     * @see java.util.Collection#clear()
+     */
+    @Override
+    public void clear() {
+        this.FORMS.forEach(form -> form.setSizeCache(null));
+        this.SIZE.invalidate();
+        this.FORMS.clear();
+        this.INDEX.clear();
+        this.duplicates = false;
+    }
+
+    /**
+     * @see java.util.Collection#size()
+     * @return The number of forms.
+     */
+    @Override
+    public int size() {
+        return this.FORMS.size();
+    }
+
+    /**
+     * @see java.util.Collection#iterator()
+     * @return An iterator over the forms, in order. Removal through the
+     * iterator is supported.
+     */
+    @Override
+    public Iterator<ChangeForm> iterator() {
+        final Iterator<ChangeForm> ITER = this.FORMS.iterator();
+
+        return new Iterator<ChangeForm>() {
+            @Override
+            public boolean hasNext() {
+                return ITER.hasNext();
+            }
+
+            @Override
+            public ChangeForm next() {
+                this.current = ITER.next();
+                return this.current;
+            }
+
+            @Override
+            public void remove() {
+                ITER.remove();
+                unindex(this.current);
+                release(this.current);
+                this.current = null;
+            }
+
+            private ChangeForm current = null;
+        };
     }
 
+    /**
+     * @see java.util.Collection#spliterator()
+     * @return A spliterator over the forms.
+     */
+    @Override
+    public java.util.Spliterator<ChangeForm> spliterator() {
+        return this.FORMS.spliterator();
+    }
+
+    /**
+     * Decodes, transforms, and re-encodes changeforms in bulk.
+     *
+     * The forms that pass the filter are parsed, handed to the transform, and
+     * serialized and compressed again if the transform changed them. That
+     * work is done in parallel, on the fork-join pool that the caller is
+     * running in or on the common pool, so it never uses more threads than
+     * that pool allows. Nothing is stored until every form has been
+     * processed; then the new data is stored one form at a time, in the order
+     * of the collection.
+     *
+     * The transform is called on many threads at once, but never twice at
+     * the same time for the same form.
+     *
+     * @param filter Selects the forms to process. It shouldn't parse them.
+     * @param transform Transforms the parsed data of each form.
+     * @param analysis The analysis data, for parsing.
+     * @param context The <code>ESSContext</code> info.
+     * @return A tally of what happened.
+     */
+    public Tally transform(Predicate<ChangeForm> filter, Transform transform, Optional<Analysis> analysis, ESS.ESSContext context) {
+        Objects.requireNonNull(filter);
+        Objects.requireNonNull(transform);
+        Objects.requireNonNull(analysis);
+        Objects.requireNonNull(context);
+
+        final ChangeForm[] SELECTED = this.FORMS.stream().filter(filter).toArray(ChangeForm[]::new);
+        final int[] RESULTS = new int[SELECTED.length];
+        final ChangeForm.Encoded[] ENCODED = new ChangeForm.Encoded[SELECTED.length];
+
+        IntStream.range(0, SELECTED.length).parallel().forEach(i -> {
+            final ChangeForm FORM = SELECTED[i];
+            final ChangeFormData DATA = FORM.getData(analysis, context, false);
+            RESULTS[i] = transform.apply(FORM, DATA);
+            if (RESULTS[i] > 0 && DATA != null) {
+                ENCODED[i] = FORM.encode(DATA);
+            }
+        });
+
+        int changed = 0;
+        int changes = 0;
+        int failed = 0;
+
+        for (int i = 0; i < SELECTED.length; i++) {
+            if (RESULTS[i] < 0 || (RESULTS[i] > 0 && ENCODED[i] == null)) {
+                failed++;
+            } else if (RESULTS[i] > 0) {
+                SELECTED[i].store(ENCODED[i], null);
+                changed++;
+                changes += RESULTS[i];
+            }
+        }
+
+        return new Tally(SELECTED.length, changed, changes, failed);
+    }
+
+    /**
+     * A transformation of the parsed data of a changeform, for
+     * <code>transform</code>.
+     */
+    @FunctionalInterface
+    static public interface Transform {
+
+        /**
+         * Transforms the parsed data of a changeform in place.
+         *
+         * @param form The changeform.
+         * @param data The parsed data, or null if it couldn't be parsed.
+         * @return The number of changes made to the data, zero if the data
+         * wasn't changed, or a negative number if it couldn't be transformed.
+         */
+        public int apply(ChangeForm form, ChangeFormData data);
+    }
+
+    /**
+     * The outcome of <code>transform</code>.
+     */
+    static final public class Tally {
+
+        private Tally(int processed, int changed, int changes, int failed) {
+            this.PROCESSED = processed;
+            this.CHANGED = changed;
+            this.CHANGES = changes;
+            this.FAILED = failed;
+        }
+
+        /**
+         * The number of forms that passed the filter.
+         */
+        final public int PROCESSED;
+
+        /**
+         * The number of forms whose data was replaced.
+         */
+        final public int CHANGED;
+
+        /**
+         * The total number of changes reported by the transform for the forms
+         * whose data was replaced.
+         */
+        final public int CHANGES;
+
+        /**
+         * The number of forms that couldn't be transformed or re-encoded.
+         */
+        final public int FAILED;
+    }
+
+    /**
+     * Removes a form from the <code>RefID</code> index, after it has been
+     * removed from the ordered set.
+     *
+     * @param form The form that was removed.
+     */
+    private void unindex(ChangeForm form) {
+        final RefID REFID = form.getRefID();
+        if (!this.INDEX.remove(REFID, form) || !this.duplicates) {
+            return;
+        }
+
+        // Another form with the same RefID may be waiting to take over.
+        this.FORMS.stream()
+                .filter(cf -> cf.getRefID().equals(REFID))
+                .findFirst()
+                .ifPresent(cf -> this.INDEX.put(REFID, cf));
+    }
+
+    /**
+     * Stops counting the size of a changeform that was removed.
+     *
+     * @param form The changeform.
+     */
+    private void release(ChangeForm form) {
+        form.setSizeCache(null);
+        this.SIZE.removed(form);
+    }
+
+    final private Set<ChangeForm> FORMS;
+    final private Map<RefID, ChangeForm> INDEX;
+    final private SizeCache SIZE;
+    private boolean duplicates;
+
 }
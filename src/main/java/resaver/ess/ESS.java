@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.nio.Buffer;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.text.MessageFormat;
@@ -63,8 +64,27 @@ final public class ESS implements Element {
      *
      * Exceptions are not handled. At all. Not even a little bit.
      *
+     * No <code>FilterTreeModel</code> is built, so the <code>MODEL</code> of
+     * the <code>Result</code> is null. Use
+     * <code>ModelBuilder.createModel</code> if one is needed later.
+     *
      * @param saveFile The file containing the savegame.
-     * @param model A <code>ModelBuilder</code>.
+     * @return A <code>Result</code> object with details about results.
+     * @throws IOException
+     * @throws ElementException
+     *
+     */
+    static public Result readESS(Path saveFile) throws IOException, ElementException {
+        return readESS(saveFile, ModelBuilder.headless());
+    }
+
+    /**
+     * Reads a savegame and creates an <code>ESS</code> object to represent it,
+     * building a <code>FilterTreeModel</code> for it at the same time.
+     *
+     * @param saveFile The file containing the savegame.
+     * @param model A <code>ModelBuilder</code>, or a headless one to skip
+     * building the model.
      * @return A <code>Result</code> object with details about results.
      * @throws IOException
      * @throws ElementException
@@ -85,14 +105,22 @@ final public class ESS implements Element {
         // Read the savefile.
         // If the F4SE co-save is present, readRefID it too.
         try {
-            //try (LittleEndianInputStream input = LittleEndianInputStream.openCtxDig(saveFile)) {
+            // The savefile is mapped rather than copied onto the heap. Compressed
+            // bodies are inflated straight out of the mapping and uncompressed 
+            // bodies are parsed from it directly. Nothing retains a view of the 
+            // mapping once the constructor returns, so it is released right 
+            // away; otherwise the savefile couldn't be overwritten on Windows.
             try ( FileChannel channel = FileChannel.open(saveFile, StandardOpenOption.READ)) {
-                int saveSize = (int) Files.size(saveFile);
-                ByteBuffer input = ByteBuffer.allocate(saveSize).order(ByteOrder.LITTLE_ENDIAN);
-                channel.read(input);
-                ((Buffer) input).flip();
-
-                final ESS ESS = new ESS(input, saveFile, model);
+                final MappedByteBuffer INPUT = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                INPUT.order(ByteOrder.LITTLE_ENDIAN);
+                
+                final ESS ESS;
+                try {
+                    ESS = new ESS(INPUT, saveFile, model);
+                } finally {
+                    BufferUtil.unmap(INPUT);
+                }
+                
                 final FilterTreeModel TREEMODEL = model.finish(ESS);
 
                 TIMER.stop();
@@ -107,6 +135,69 @@ final public class ESS implements Element {
         }
     }
 
+    /**
+     * Reads just the header of a savegame, for browsing a folder of saves
+     * without loading any of them.
+     *
+     * Only the header and the compression prefixes are read. The plugin list
+     * is read too if the body is uncompressed, since it comes right after the
+     * header; compressed bodies are never touched. The screenshot is decoded
+     * only if it is displayed.
+     *
+     * @param saveFile The file containing the savegame.
+     * @return A <code>Peek</code> describing the savegame.
+     * @throws IOException
+     *
+     */
+    static public Peek peekHeader(Path saveFile) throws IOException {
+        Objects.requireNonNull(saveFile);
+
+        if (!Game.FILTER_ALL.accept(saveFile.toFile())) {
+            throw new IOException(String.format("Filename extension not recognized: %s", saveFile));
+        }
+
+        // Mapping the file means that only the pages that are actually read
+        // are loaded, which is a small fraction of a large save.
+        try ( FileChannel channel = FileChannel.open(saveFile, StandardOpenOption.READ)) {
+            final long FILE_SIZE = channel.size();
+            final MappedByteBuffer INPUT = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_SIZE);
+            INPUT.order(ByteOrder.LITTLE_ENDIAN);
+
+            try {
+                final Header HEADER = new Header(INPUT, saveFile);
+                final CompressionType COMPRESSION = HEADER.getCompression();
+
+                if (COMPRESSION.isCompressed()) {
+                    final int UNCOMPRESSED_LEN = INPUT.getInt();
+                    final int COMPRESSED_LEN = INPUT.getInt();
+                    return new Peek(saveFile, FILE_SIZE, HEADER, UNCOMPRESSED_LEN, COMPRESSED_LEN, null);
+                }
+
+                final int BODY_LEN = INPUT.remaining();
+                PluginInfo plugins = null;
+
+                try {
+                    final byte FORMVERSION = INPUT.get();
+                    if (HEADER.GAME.isFO4()) {
+                        mf.BufferUtil.getWString(INPUT);
+                    }
+                    plugins = new PluginInfo(INPUT, supportsESL(HEADER.GAME, FORMVERSION));
+                } catch (PluginInfo.PluginOverflowException ex) {
+                    plugins = (PluginInfo) ex.getPartial();
+                } catch (RuntimeException ex) {
+                    LOG.log(Level.FINE, "Couldn't peek at the plugins of " + saveFile, ex);
+                }
+
+                return new Peek(saveFile, FILE_SIZE, HEADER, BODY_LEN, BODY_LEN, plugins);
+
+            } catch (RuntimeException ex) {
+                throw new IOException(String.format("Failed to read the header of %s\n%s", saveFile, ex.getMessage()), ex);
+            } finally {
+                BufferUtil.unmap(INPUT);
+            }
+        }
+    }
+
     /**
      * Writes out a savegame.
      *
@@ -136,18 +227,44 @@ final public class ESS implements Element {
             backup = makeBackupFile(saveFile);
         }
 
+        final Path COSAVE_FILE;
         if (ess.COSAVE != null) {
             String filename = saveFile.getFileName().toString();
             String cosaveName = filename.replaceAll(GAME.SAVE_EXT + "$", GAME.COSAVE_EXT);
-            final Path COSAVE_FILE = saveFile.resolveSibling(cosaveName);
+            COSAVE_FILE = saveFile.resolveSibling(cosaveName);
             if (Files.exists(COSAVE_FILE)) {
                 makeBackupFile(COSAVE_FILE);
             }
-            Files.write(COSAVE_FILE, ess.COSAVE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        } else {
+            COSAVE_FILE = null;
         }
 
-        try ( FileChannel channel = FileChannel.open(saveFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
-            ess.write(channel, testingMode);
+        // Write the savefile and co-save to temporary files, and only move 
+        // them into place once both have been written. A failure part way
+        // through never leaves a broken savefile, or a savefile beside a 
+        // co-save that doesn't belong to it.
+        final Path TEMP = makeTempFile(saveFile);
+        final Path COSAVE_TEMP = COSAVE_FILE == null ? null : makeTempFile(COSAVE_FILE);
+
+        try {
+            try ( FileChannel channel = FileChannel.open(TEMP, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ess.write(channel, testingMode);
+                channel.force(true);
+            }
+            
+            if (COSAVE_TEMP != null) {
+                Files.write(COSAVE_TEMP, ess.COSAVE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.SYNC);
+            }
+
+            replaceFile(TEMP, saveFile);
+            if (COSAVE_TEMP != null) {
+                replaceFile(COSAVE_TEMP, COSAVE_FILE);
+            }
+        } finally {
+            Files.deleteIfExists(TEMP);
+            if (COSAVE_TEMP != null) {
+                Files.deleteIfExists(COSAVE_TEMP);
+            }
         }
 
         final float SIZE = Files.size(saveFile) / 1048576.0f;
@@ -171,7 +288,7 @@ final public class ESS implements Element {
         Objects.requireNonNull(buffer);
         Objects.requireNonNull(saveFile);
         Objects.requireNonNull(model);
-        this.REFIDS = new java.util.HashMap<>(100_000);
+        this.REFIDS = new mf.IntInterner<>(100_000);
         this.ORIGINAL_FILE = saveFile;
 
         LOG.fine("Reading savegame.");
@@ -182,12 +299,6 @@ final public class ESS implements Element {
         final Game GAME = this.HEADER.GAME;
         LOG.fine("Reading savegame: read header.");
 
-        // Determine the filename of the co-save.
-        String filename = saveFile.getFileName().toString();
-        String cosaveName = filename.replaceAll(GAME.SAVE_EXT + "$", GAME.COSAVE_EXT);
-        Path cosaveFile = saveFile.resolveSibling(cosaveName);
-        this.COSAVE = Files.exists(cosaveFile) ? Files.readAllBytes(cosaveFile) : null;
-
         // Store the offset where the header ends and the body begins.
         int startingOffset = ((Buffer) buffer).position();
 
@@ -195,6 +306,10 @@ final public class ESS implements Element {
         // constructor.
         final ByteBuffer INPUT;
 
+        // Compressed bodies are inflated on a background thread while the
+        // start of the body is being parsed.
+        final mf.PipelinedInflater PIPELINE;
+
         // Do the decompression, if necessary.
         final CompressionType COMPRESSION = this.HEADER.getCompression();
 
@@ -205,56 +320,35 @@ final public class ESS implements Element {
                 throw new IOException("Compression error. You might need to set [SAVEGAME]uiCompression=1 in SkyrimCustom.ini.");
             }
 
-            //final ByteBuffer UNCOMPRESSED = ByteBuffer.allocate(UNCOMPRESSED_LEN);
-            final ByteBuffer COMPRESSED = ByteBuffer.allocate(COMPRESSED_LEN);
-            COMPRESSED.put(buffer);
-            ((Buffer) COMPRESSED).flip();
-            COMPRESSED.order(ByteOrder.LITTLE_ENDIAN);
-            if (buffer.hasRemaining()) {
+            // Inflate directly from a view of the input; no intermediate copy.
+            if (buffer.remaining() > COMPRESSED_LEN) {
                 throw new IllegalStateException("Some data was not compressed.");
             }
+            final ByteBuffer COMPRESSED = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
 
             switch (COMPRESSION) {
                 case ZLIB:
                     LOG.info(MessageFormat.format("ZLIB DECOMPRESSION {0}->{1} bytes", COMPRESSED_LEN, UNCOMPRESSED_LEN));
-                    INPUT = BufferUtil.inflateZLIB(COMPRESSED, UNCOMPRESSED_LEN, COMPRESSED_LEN);
-                    INPUT.order(ByteOrder.LITTLE_ENDIAN);
+                    PIPELINE = mf.PipelinedInflater.startZLIB(COMPRESSED, UNCOMPRESSED_LEN, COMPRESSED_LEN);
                     break;
                 case LZ4:
                     LOG.info(MessageFormat.format("LZ4 DECOMPRESSION {0}->{1} bytes", COMPRESSED_LEN, UNCOMPRESSED_LEN));
-                    INPUT = BufferUtil.inflateLZ4(COMPRESSED, UNCOMPRESSED_LEN);
-                    INPUT.order(ByteOrder.LITTLE_ENDIAN);
+                    PIPELINE = mf.PipelinedInflater.startLZ4(COMPRESSED, UNCOMPRESSED_LEN);
                     break;
                 default:
                     throw new IOException("Unknown compression type: " + COMPRESSION);
             }
 
+            INPUT = PIPELINE.getBuffer();
             ORIGINAL_SIZE = UNCOMPRESSED_LEN;
         } else {
             LOG.info("NO FILE COMPRESSION");
+            PIPELINE = null;
             INPUT = buffer.slice();
             INPUT.order(ByteOrder.LITTLE_ENDIAN);
             ORIGINAL_SIZE = INPUT.remaining();
         }
 
-        // sanity check
-        int headerSize = this.HEADER.calculateSize();
-        LOG.info(MessageFormat.format("Header {0} bytes", headerSize));
-        if (headerSize != startingOffset) {
-            throw new PositionException("Header", headerSize, startingOffset);
-        }
-
-        // Make a CRC for the ESS header block.
-        CRC32 CRC32 = new CRC32();
-        ((Buffer) buffer).position(0);
-        ((Buffer) buffer).limit(startingOffset);
-        CRC32.update(buffer);
-
-        // Update the CRC with the ESS body block.
-        CRC32.update(INPUT);
-        ((Buffer) INPUT).flip();
-        this.DIGEST = CRC32.getValue();
-
         final mf.Counter SUM = new mf.Counter(buffer.capacity());
         SUM.addCountListener(sum -> {
             if (!this.isBroken() && sum != ((Buffer) INPUT).position()) {
@@ -262,71 +356,124 @@ final public class ESS implements Element {
             }
         });
 
-        // Read the form version.
-        this.FORMVERSION = INPUT.get();
-        SUM.click();
-        //LOG.info(String.format("Detected %s with form version %d, %s in %s.", GAME, this.FORMVERSION, COMPRESSION, saveFile.getParent().relativize(saveFile)));
+        // The form version, plugins, and file location table are read while 
+        // the rest of the body is still being inflated. Everything after that
+        // needs the FormID array from the end of the body, so parsing waits
+        // for the inflation to finish.
+        try {
+            // Determine the filename of the co-save.
+            String filename = saveFile.getFileName().toString();
+            String cosaveName = filename.replaceAll(GAME.SAVE_EXT + "$", GAME.COSAVE_EXT);
+            Path cosaveFile = saveFile.resolveSibling(cosaveName);
+            this.COSAVE = Files.exists(cosaveFile) ? Files.readAllBytes(cosaveFile) : null;
+
+            // sanity check
+            int headerSize = this.HEADER.calculateSize();
+            LOG.info(MessageFormat.format("Header {0} bytes", headerSize));
+            if (headerSize != startingOffset) {
+                throw new PositionException("Header", headerSize, startingOffset);
+            }
 
-        switch (GAME) {
-            case SKYRIM_LE:
-                if (this.FORMVERSION < 73) {
-                    throw new IllegalArgumentException("Invalid formVersion: " + this.FORMVERSION);
-                }
-                this.VERSION_STRING = null;
-                break;
-            case SKYRIM_SE:
-            case SKYRIM_SW:
-            case SKYRIM_VR:
-                if (this.FORMVERSION < 77) {
-                    throw new IllegalArgumentException("Invalid formVersion: " + this.FORMVERSION);
-                }
-                this.VERSION_STRING = null;
-                break;
-            case FALLOUT4:
-            case FALLOUT_VR:
-                if (this.FORMVERSION < 60) {
-                    throw new IllegalArgumentException("Invalid formVersion: " + this.FORMVERSION);
-                }
-                this.VERSION_STRING = mf.BufferUtil.getWString(INPUT);
-                SUM.click(2 + this.VERSION_STRING.length());
-                break;
-            default:
-                throw new IllegalArgumentException("Unrecognized game.");
-        }
+            // Read the form version.
+            awaitBody(PIPELINE, INPUT, 1);
+            this.FORMVERSION = INPUT.get();
+            SUM.click();
+            //LOG.info(String.format("Detected %s with form version %d, %s in %s.", GAME, this.FORMVERSION, COMPRESSION, saveFile.getParent().relativize(saveFile)));
 
-        // Read the PLUGIN info section.
-        PluginInfo pluginsPartial;
-        
-        try {
-            pluginsPartial = new PluginInfo(INPUT, this.supportsESL());
-        } catch (PluginInfo.PluginOverflowException ex) {
-            this.pluginOverflow = true;
-            pluginsPartial = (PluginInfo) ex.getPartial();
-            LOG.log(Level.SEVERE, "Error while reading Plugins.", ex);
+            switch (GAME) {
+                case SKYRIM_LE:
+                    if (this.FORMVERSION < 73) {
+                        throw new IllegalArgumentException("Invalid formVersion: " + this.FORMVERSION);
+                    }
+                    this.VERSION_STRING = null;
+                    break;
+                case SKYRIM_SE:
+                case SKYRIM_SW:
+                case SKYRIM_VR:
+                    if (this.FORMVERSION < 77) {
+                        throw new IllegalArgumentException("Invalid formVersion: " + this.FORMVERSION);
+                    }
+                    this.VERSION_STRING = null;
+                    break;
+                case FALLOUT4:
+                case FALLOUT_VR:
+                    if (this.FORMVERSION < 60) {
+                        throw new IllegalArgumentException("Invalid formVersion: " + this.FORMVERSION);
+                    }
+                    awaitBody(PIPELINE, INPUT, 2);
+                    awaitBody(PIPELINE, INPUT, 2 + Short.toUnsignedInt(INPUT.getShort(((Buffer) INPUT).position())));
+                    this.VERSION_STRING = mf.BufferUtil.getWString(INPUT);
+                    SUM.click(2 + this.VERSION_STRING.length());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unrecognized game.");
+            }
+
+            // Read the PLUGIN info section. It has a size prefix.
+            awaitBody(PIPELINE, INPUT, 4);
+            awaitBody(PIPELINE, INPUT, 4 + INPUT.getInt(((Buffer) INPUT).position()));
+            PluginInfo pluginsPartial;
+
+            try {
+                pluginsPartial = new PluginInfo(INPUT, this.supportsESL());
+            } catch (PluginInfo.PluginOverflowException ex) {
+                this.pluginOverflow = true;
+                pluginsPartial = (PluginInfo) ex.getPartial();
+                LOG.log(Level.SEVERE, "Error while reading Plugins.", ex);
+            }
+            this.PLUGINS = pluginsPartial;
+
+            SUM.click(this.PLUGINS.calculateSize());
+            LOG.fine("Reading savegame: read plugin table.");
+
+            // Add the plugins to the model.
+            model.addPluginInfo(this.PLUGINS);
+
+            // Read the file location table.
+            awaitBody(PIPELINE, INPUT, FileLocationTable.SIZE);
+            this.FLT = new FileLocationTable(INPUT, GAME);
+            this.TABLE1 = new ArrayList<>(this.FLT.TABLE1COUNT);
+            this.TABLE2 = new ArrayList<>(this.FLT.TABLE2COUNT);
+            this.TABLE3 = new ArrayList<>(this.FLT.TABLE3COUNT);
+            this.CHANGEFORMS = new ChangeFormCollection(this.FLT.changeFormCount);
+
+            SUM.click(this.FLT.calculateSize());
+            LOG.fine("Reading savegame: read file location table.");
+
+            if (PIPELINE != null) {
+                PIPELINE.finish();
+            }
+        } finally {
+            if (PIPELINE != null) {
+                PIPELINE.close();
+            }
         }
-        this.PLUGINS = pluginsPartial;
-        
-        SUM.click(this.PLUGINS.calculateSize());
-        LOG.fine("Reading savegame: read plugin table.");
 
-        // Add the plugins to the model.
-        model.addPluginInfo(this.PLUGINS);
+        // Make a CRC for the ESS header block.
+        CRC32 CRC32 = new CRC32();
+        ((Buffer) buffer).position(0);
+        ((Buffer) buffer).limit(startingOffset);
+        CRC32.update(buffer);
 
-        // Read the file location table.
-        this.FLT = new FileLocationTable(INPUT, GAME);
-        this.TABLE1 = new ArrayList<>(this.FLT.TABLE1COUNT);
-        this.TABLE2 = new ArrayList<>(this.FLT.TABLE2COUNT);
-        this.TABLE3 = new ArrayList<>(this.FLT.TABLE3COUNT);
-        this.CHANGEFORMS = new ChangeFormCollection(this.FLT.changeFormCount);
+        // Update the CRC with the ESS body block.
+        final ByteBuffer BODY = INPUT.duplicate();
+        ((Buffer) BODY).position(0);
+        CRC32.update(BODY);
+        this.DIGEST = CRC32.getValue();
 
-        SUM.click(this.FLT.calculateSize());
-        LOG.fine("Reading savegame: read file location table.");
+        // Keep the body around, so that unmodified sections can be copied
+        // straight into the output when the savefile is written. Uncompressed
+        // bodies live in the mapping, which is released, so they are read
+        // back from the original file instead.
+        this.ORIGINAL_BODY = COMPRESSION.isCompressed() ? INPUT.asReadOnlyBuffer() : null;
+        this.ORIGINAL_BODY_OFFSET = startingOffset;
+        this.ORIGINAL_TAIL_OFFSET = this.FLT.formIDArrayCountOffset - startingOffset;
 
         // Read the FormID table.
         int[] formIDs = null;
 
         try {
-            ((Buffer) INPUT).position(this.FLT.formIDArrayCountOffset - startingOffset);
+            ((Buffer) INPUT).position(this.ORIGINAL_TAIL_OFFSET);
             int formIDCount = INPUT.getInt();
             formIDs = new int[formIDCount];
             for (int formIDIndex = 0; formIDIndex < formIDCount; formIDIndex++) {
@@ -397,19 +544,65 @@ final public class ESS implements Element {
                 .findAny().orElse(new GlobalVariableTable());
         model.addGlobalVariableTable(this.GLOBALS);
 
-        // Read the changeforms.
-        for (int changeFormIndex = 0; changeFormIndex < this.FLT.changeFormCount; changeFormIndex++) {
+        // Read the changeforms. The first pass only finds where each one
+        // starts, using the length fields in their headers. The second pass
+        // builds them in parallel.
+        //
+        // Changeforms keep views of their data instead of copies. An inflated
+        // body is kept anyway, so they can point straight into it. A mapped
+        // body is about to be released, so the changeform section is copied
+        // out of it in one piece and they point into the copy instead.
+        final int CHANGEFORM_COUNT = this.FLT.changeFormCount;
+        final int[] CHANGEFORM_OFFSETS = new int[CHANGEFORM_COUNT + 1];
+
+        for (int changeFormIndex = 0; changeFormIndex < CHANGEFORM_COUNT; changeFormIndex++) {
             try {
-                ChangeForm FORM = new ChangeForm(INPUT, context);
-                this.CHANGEFORMS.add(FORM);
+                CHANGEFORM_OFFSETS[changeFormIndex] = ((Buffer) INPUT).position();
+                ChangeForm.skip(INPUT);
             } catch (RuntimeException ex) {
-                throw new IOException(String.format("Error; read %d/%d ChangeForm definitions.", changeFormIndex, this.FLT.changeFormCount), ex);
+                throw new IOException(String.format("Error; read %d/%d ChangeForm definitions.", changeFormIndex, CHANGEFORM_COUNT), ex);
             }
         }
+        CHANGEFORM_OFFSETS[CHANGEFORM_COUNT] = ((Buffer) INPUT).position();
+
+        final ByteBuffer ARENA;
+        final int ARENA_OFFSET;
+        
+        if (COMPRESSION.isCompressed()) {
+            ARENA = INPUT;
+            ARENA_OFFSET = 0;
+        } else {
+            final ByteBuffer SECTION = INPUT.duplicate();
+            ((Buffer) SECTION).limit(CHANGEFORM_OFFSETS[CHANGEFORM_COUNT]);
+            ((Buffer) SECTION).position(CHANGEFORM_OFFSETS[0]);
+            ARENA = ByteBuffer.allocate(SECTION.remaining()).put(SECTION);
+            ARENA_OFFSET = CHANGEFORM_OFFSETS[0];
+        }
+
+        final ChangeForm[] FORMS = new ChangeForm[CHANGEFORM_COUNT];
+        final java.util.Map<Integer, RuntimeException> FORM_ERRORS = new java.util.concurrent.ConcurrentHashMap<>();
+
+        java.util.stream.IntStream.range(0, CHANGEFORM_COUNT).parallel().forEach(i -> {
+            try {
+                final ByteBuffer FORM_INPUT = ARENA.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                ((Buffer) FORM_INPUT).limit(CHANGEFORM_OFFSETS[i + 1] - ARENA_OFFSET);
+                ((Buffer) FORM_INPUT).position(CHANGEFORM_OFFSETS[i] - ARENA_OFFSET);
+                FORMS[i] = new ChangeForm(FORM_INPUT, CHANGEFORM_OFFSETS[i], context);
+            } catch (RuntimeException ex) {
+                FORM_ERRORS.put(i, ex);
+            }
+        });
+
+        if (!FORM_ERRORS.isEmpty()) {
+            final int FIRST = java.util.Collections.min(FORM_ERRORS.keySet());
+            throw new IOException(String.format("Error; read %d/%d ChangeForm definitions.", FIRST, CHANGEFORM_COUNT), FORM_ERRORS.get(FIRST));
+        }
+
+        this.CHANGEFORMS.addAll(Arrays.asList(FORMS));
 
         model.addChangeForms(this.CHANGEFORMS);
 
-        SUM.click(this.CHANGEFORMS.stream().mapToInt(t -> t.calculateSize()).sum());
+        SUM.click(this.CHANGEFORMS.calculateSize());
         LOG.fine("Reading savegame: read changeform table.");
 
         // Read the third set of data tables.
@@ -515,7 +708,26 @@ final public class ESS implements Element {
     }
 
     /**
-     * Writes the <code>ESS</code> to a <code>ByteBuffer</code>.
+     * Waits until the next <code>count</code> bytes of the body are ready.
+     *
+     * @param pipeline The inflater, or null if the body isn't compressed.
+     * @param input The body.
+     * @param count The number of bytes that will be read.
+     * @throws IOException
+     * @throws DataFormatException
+     */
+    static private void awaitBody(mf.PipelinedInflater pipeline, ByteBuffer input, int count) throws IOException, DataFormatException {
+        if (pipeline != null) {
+            pipeline.await(((Buffer) input).position() + count);
+        }
+    }
+
+    /**
+     * Writes the <code>ESS</code> to a <code>FileChannel</code>.
+     *
+     * The body is streamed through the compressor as it is serialized, and
+     * the compression prefixes are filled in afterwards, so the channel must
+     * support positioned writes.
      *
      * @param channel The output channel for the savegame.
      * @param testingMode More aggressive writing that rewrites changeforms.
@@ -527,111 +739,110 @@ final public class ESS implements Element {
         final CompressionType COMPRESSION = this.HEADER.getCompression();
 
         // Write the header, with a litte of extra room for compression prefixes.
+        // The prefixes are written as placeholders for now.
+        final long START = channel.position();
         int headerSize = this.HEADER.calculateSize();
         ByteBuffer headerBlock = ByteBuffer.allocate(headerSize + 8).order(ByteOrder.LITTLE_ENDIAN);
         this.HEADER.write(headerBlock);
+        if (COMPRESSION.isCompressed()) {
+            headerBlock.putLong(0);
+        }
 
         ((Buffer) headerBlock).flip();
-        channel.write(headerBlock);
-        headerBlock.compact();
+        while (headerBlock.hasRemaining()) {
+            channel.write(headerBlock);
+        }
 
-        // Write the body to a ByteBuffer.
+        // Stream the body into the channel, copying unmodified sections from 
+        // the original body where possible.
         final int UNCOMPRESSED_LEN = this.calculateBodySize();
-        final ByteBuffer UNCOMPRESSED = ByteBuffer.allocate(UNCOMPRESSED_LEN).order(ByteOrder.LITTLE_ENDIAN);
-        this.write(UNCOMPRESSED, testingMode);
-        ((Buffer) UNCOMPRESSED).flip();
+        final int COMPRESSED_LEN;
+        final MappedByteBuffer MAPPED = this.ORIGINAL_BODY == null ? this.mapOriginalFile() : null;
 
-        // Do the decompression, if necessary.
-        if (COMPRESSION.isCompressed()) {
-            final ByteBuffer COMPRESSED;
-            switch (COMPRESSION) {
-                case ZLIB:
-                    COMPRESSED = BufferUtil.deflateZLIB(UNCOMPRESSED, UNCOMPRESSED_LEN);
-                    LOG.info(MessageFormat.format("ZLIB COMPRESSION {0}->{1} bytes", UNCOMPRESSED_LEN, COMPRESSED.limit()));
-                    break;
-                case LZ4:
-                    COMPRESSED = BufferUtil.deflateLZ4(UNCOMPRESSED, UNCOMPRESSED_LEN);
-                    LOG.info(MessageFormat.format("LZ4 COMPRESSION {0}->{1} bytes", UNCOMPRESSED_LEN, COMPRESSED.limit()));
-                    break;
-                default:
-                    throw new IOException("Unknown compression type: " + COMPRESSION);
+        try {
+            final BodyWriter output = new BodyWriter(channel, COMPRESSION, UNCOMPRESSED_LEN);
+            final ByteBuffer ORIGINAL;
+            if (this.ORIGINAL_BODY != null) {
+                ORIGINAL = this.ORIGINAL_BODY;
+            } else if (MAPPED != null) {
+                ORIGINAL = ((ByteBuffer) ((Buffer) MAPPED.duplicate()).position(this.ORIGINAL_BODY_OFFSET)).slice();
+            } else {
+                ORIGINAL = null;
             }
+            this.write(output, testingMode, ORIGINAL == null ? null : new Splicer(ORIGINAL, output));
+            COMPRESSED_LEN = output.finish();
+        } finally {
+            BufferUtil.unmap(MAPPED);
+        }
 
-            headerBlock.putInt(((Buffer) UNCOMPRESSED).limit());
-            headerBlock.putInt(((Buffer) COMPRESSED).limit());
-            ((Buffer) headerBlock).flip();
-            channel.write(headerBlock);
-            channel.write(COMPRESSED);
-
-        } else {
-            channel.write(UNCOMPRESSED);
+        // Fill in the compression prefixes.
+        if (COMPRESSION.isCompressed()) {
+            final ByteBuffer PREFIXES = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            PREFIXES.putInt(UNCOMPRESSED_LEN);
+            PREFIXES.putInt(COMPRESSED_LEN);
+            ((Buffer) PREFIXES).flip();
+
+            long position = START + headerSize;
+            while (PREFIXES.hasRemaining()) {
+                position += channel.write(PREFIXES, position);
+            }
         }
     }
 
     /**
-     * Writes the body of the <code>ESS</code> to a <code>ByteBuffer</code>. The
+     * Writes the body of the <code>ESS</code> to a <code>BodyWriter</code>. The
      * header and compression prefixes are not written.
      *
+     * Changeforms whose data was never replaced, unparsed global data blocks,
+     * and the FormID and worldspace arrays are copied from the original body
+     * when a <code>Splicer</code> is supplied. Everything else is serialized.
+     *
      * @param output The output stream for the savegame.
      * @param testingMode More aggressive writing that rewrites changeforms.
+     * @param splicer For copying from the original body, or null.
+     * @throws IOException
      * @throws ElementException
      *
      */
-    private void write(ByteBuffer output, boolean testingMode) throws ElementException {
+    private void write(BodyWriter output, boolean testingMode, Splicer splicer) throws IOException, ElementException {
         // Write the form version.
-        output.put(this.FORMVERSION);
+        output.stage(1).put(this.FORMVERSION);
 
         // Write the version string.
         if (null != this.VERSION_STRING) {
-            mf.BufferUtil.putWString(output, this.VERSION_STRING);
+            mf.BufferUtil.putWString(output.stage(this.VERSION_STRING.length() + 2), this.VERSION_STRING);
         }
 
         // Write the PLUGIN info section.
-        this.PLUGINS.write(output);
+        this.PLUGINS.write(output.stage(this.PLUGINS.calculateSize()));
         LOG.fine("Writing savegame: wrote plugin table.");
 
         // Rebuild and then write the file location table.
         this.FLT.rebuild(this);
-        this.FLT.write(output);
+        this.FLT.write(output.stage(this.FLT.calculateSize()));
         LOG.fine("Writing savegame: rebuilt and wrote file location table.");
 
-        try {
-            for (GlobalData data : this.TABLE1) {
-                try {
-                    data.write(output);
-                    LOG.log(Level.FINE, "Writing savegame: \tGlobalData type {0}.", data.getType());
-                } catch (RuntimeException ex) {
-                    throw new ListException("Error in GlobalDataTable1." + data.getType(), data.getType(), 0, ex);
-                }
-            }
-        } catch (ListException ex) {
-            throw new ElementException("Error in GlobalDataTable1", ex, this);
-        }
+        this.writeTable(output, this.TABLE1, "GlobalDataTable1", splicer);
         LOG.fine("Writing savegame: wrote GlobalDataTable #1.");
         
-        try {
-            for (GlobalData data : this.TABLE2) {
-                try {
-                    data.write(output);
-                    LOG.log(Level.FINE, "Writing savegame: \tGlobalData type {0}.", data.getType());
-                } catch (RuntimeException ex) {
-                    throw new ListException("Error in GlobalDataTable2." + data.getType(), data.getType(), 0, ex);
-                }
-            }
-        } catch (ListException ex) {
-            throw new ElementException("Error in GlobalDataTable2", ex, this);
-        }
+        this.writeTable(output, this.TABLE2, "GlobalDataTable2", splicer);
         LOG.fine("Writing savegame: wrote GlobalDataTable #2.");
 
+        // Testing mode rewrites every changeform that can be parsed.
+        if (testingMode) {
+            this.CHANGEFORMS.transform(form -> true, (form, data) -> data == null ? 0 : 1, this.analysis, this.getContext());
+        }
+
         for (ChangeForm form : this.CHANGEFORMS) {
             try {
-                if (testingMode) {
-                    ChangeFormData data = form.getData(analysis, getContext(), false);
-                    if (data != null) {
-                        form.updateRawData(data);
+                if (splicer != null && form.getOriginalOffset() >= 0) {
+                    splicer.copy(form.getOriginalOffset(), form.calculateSize());
+                } else {
+                    if (splicer != null) {
+                        splicer.flush();
                     }
+                    form.write(output.stage(form.calculateSize()));
                 }
-                form.write(output);
             } catch (RuntimeException ex) {
                 String msg = form.getRefID() != null
                         ? "Error writing ChangeForm for " + form.getRefID().toString()
@@ -639,38 +850,109 @@ final public class ESS implements Element {
                 throw new ElementException(msg, ex, form);
             }
         }
+        if (splicer != null) {
+            splicer.flush();
+        }
         LOG.fine("Writing savegame: wrote changeform table.");
 
-        try {
-            for (GlobalData data : this.TABLE3) {
-                try {
-                    data.write(output);
-                    LOG.log(Level.FINE, "Writing savegame: \tGlobalData type {0}.", data.getType());
-                } catch (RuntimeException ex) {
-                    throw new ListException("Error in GlobalDataTable3." + data.getType(), data.getType(), 0, ex);
-                }
-            }
-        } catch (ListException ex) {
-            throw new ElementException("Error in GlobalDataTable3", ex, this);
-        }
+        this.writeTable(output, this.TABLE3, "GlobalDataTable3", splicer);
         LOG.fine("Writing savegame: wrote GlobalDataTable #3.");
 
-        output.putInt(this.FORMIDARRAY.length);
+        // The FormID array, the visited worldspace array, and the unknown 
+        // block run contiguously to the end of the body, and none of them
+        // are ever modified.
+        final int TAIL_SIZE = 8 + 4 * this.FORMIDARRAY.length + 4 * this.VISITEDWORLDSPACEARRAY.length + this.UNKNOWN3.length;
+        
+        if (splicer != null && splicer.fits(this.ORIGINAL_TAIL_OFFSET, TAIL_SIZE)) {
+            splicer.copy(this.ORIGINAL_TAIL_OFFSET, TAIL_SIZE);
+            splicer.flush();
+            LOG.fine("Writing savegame: copied formid array, visited worldspace array, and unknown block.");
+            return;
+        }
+        
+        final ByteBuffer TAIL = output.stage(TAIL_SIZE);
+        
+        TAIL.putInt(this.FORMIDARRAY.length);
         for (int formID : this.FORMIDARRAY) {
-            output.putInt(formID);
+            TAIL.putInt(formID);
         }
         LOG.fine("Writing savegame: wrote formid array.");
 
-        output.putInt(this.VISITEDWORLDSPACEARRAY.length);
+        TAIL.putInt(this.VISITEDWORLDSPACEARRAY.length);
         for (int formID : this.VISITEDWORLDSPACEARRAY) {
-            output.putInt(formID);
+            TAIL.putInt(formID);
         }
         LOG.fine("Writing savegame: wrote visited worldspace array.");
 
-        output.put(this.UNKNOWN3);
+        TAIL.put(this.UNKNOWN3);
         LOG.fine("Writing savegame: wrote unknown block.");
     }
 
+    /**
+     * Writes one of the tables of <code>GlobalData</code>.
+     *
+     * @param output The output stream for the savegame.
+     * @param table The table to write.
+     * @param name The name of the table, for error messages.
+     * @param splicer For copying from the original body, or null.
+     * @throws IOException
+     * @throws ElementException
+     */
+    private void writeTable(BodyWriter output, List<GlobalData> table, String name, Splicer splicer) throws IOException, ElementException {
+        try {
+            for (GlobalData data : table) {
+                try {
+                    if (splicer != null && data.getOriginalOffset() >= 0) {
+                        splicer.copy(data.getOriginalOffset(), data.calculateSize());
+                    } else {
+                        if (splicer != null) {
+                            splicer.flush();
+                        }
+                        data.write(output.stage(data.calculateSize()));
+                    }
+                    LOG.log(Level.FINE, "Writing savegame: \tGlobalData type {0}.", data.getType());
+                } catch (RuntimeException ex) {
+                    throw new ListException("Error in " + name + "." + data.getType(), data.getType(), 0, ex);
+                }
+            }
+            if (splicer != null) {
+                splicer.flush();
+            }
+        } catch (ListException ex) {
+            throw new ElementException("Error in " + name, ex, this);
+        }
+    }
+
+    /**
+     * Maps the original savefile, if it hasn't changed since it was read.
+     * This is how the body of an uncompressed savefile is recovered.
+     *
+     * @return The mapping, or null if the file has changed or can't be read.
+     * The caller must unmap it.
+     */
+    private MappedByteBuffer mapOriginalFile() {
+        try ( FileChannel channel = FileChannel.open(this.ORIGINAL_FILE, StandardOpenOption.READ)) {
+            final long EXPECTED = (long) this.ORIGINAL_BODY_OFFSET + this.ORIGINAL_SIZE;
+            if (channel.size() != EXPECTED) {
+                return null;
+            }
+
+            final MappedByteBuffer MAPPED = channel.map(FileChannel.MapMode.READ_ONLY, 0, EXPECTED);
+            final CRC32 CRC = new CRC32();
+            CRC.update(MAPPED.duplicate());
+
+            if (CRC.getValue() != this.DIGEST) {
+                BufferUtil.unmap(MAPPED);
+                return null;
+            }
+            return MAPPED;
+
+        } catch (IOException | RuntimeException ex) {
+            LOG.log(Level.INFO, "Original savefile unavailable, writing every section.", ex);
+            return null;
+        }
+    }
+
     /**
      * Writes the body of the <code>ESS</code> to a <code>ByteBuffer</code>. The
      * header and compression prefixes are not written.
@@ -713,7 +995,7 @@ final public class ESS implements Element {
 
         sum += this.TABLE1.parallelStream().mapToInt(v -> v.calculateSize()).sum();
         sum += this.TABLE2.parallelStream().mapToInt(v -> v.calculateSize()).sum();
-        sum += this.CHANGEFORMS.stream().mapToInt(v -> v.calculateSize()).sum();
+        sum += this.CHANGEFORMS.calculateSize();
         sum += this.TABLE3.parallelStream().mapToInt(v -> v.calculateSize()).sum();
 
         sum += 4;
@@ -731,7 +1013,7 @@ final public class ESS implements Element {
      */
     public void addNames(resaver.Analysis analysis, ESSContext ctx) {
         Objects.requireNonNull(analysis);
-        this.REFIDS.values().parallelStream().forEach(v -> v.addNames(analysis, ctx));
+        this.REFIDS.values().parallel().forEach(v -> v.addNames(analysis, ctx));
     }
 
     /**
@@ -834,37 +1116,20 @@ final public class ESS implements Element {
      * @return The number of forms removed.
      */
     public int[] resetHavok(Optional<resaver.Analysis> analysis) {
-        int success = 0;
-        int failure = 0;
-
         final ChangeFlagConstants HAVOK = ChangeFlagConstantsRefr.CHANGE_REFR_HAVOK_MOVE;
-        final ESSContext CTX = this.getContext();
-        
-        for (ChangeForm form : this.CHANGEFORMS) {
-            if (form.getType() == ChangeForm.Type.REFR) {
-                if (form.getChangeFlags().getFlag(HAVOK)) {
-                    ChangeFormData data = form.getData(analysis, CTX, false);
 
-                    ChangeFormRefr refr = (ChangeFormRefr) data;
-
-                    if (refr == null || refr.hasUnparsed()) {
-                        failure++;
-                    } else {
-                        boolean result = refr.clearHavok();
-                        if (result) {
-                            success++;
-                            //Flags.Int newFlags = form.getChangeFlags().without(havokFlag);
-                            //form.updateRawData(refr, newFlags);
-                            form.updateRawData(refr);
-                        } else {
-                            failure++;
-                        }
+        final ChangeFormCollection.Tally TALLY = this.CHANGEFORMS.transform(
+                form -> form.getType() == ChangeForm.Type.REFR && form.getChangeFlags().getFlag(HAVOK),
+                (form, data) -> {
+                    final ChangeFormRefr REFR = (ChangeFormRefr) data;
+                    if (REFR == null || REFR.hasUnparsed()) {
+                        return -1;
                     }
-                }
-            }
-        }
+                    return REFR.clearHavok() ? 1 : -1;
+                },
+                analysis, this.getContext());
 
-        return new int[]{success, failure};
+        return new int[]{TALLY.CHANGED, TALLY.FAILED};
     }
 
     /**
@@ -876,28 +1141,12 @@ final public class ESS implements Element {
      * that couldn't be processed.
      */
     public int[] cleanseFormLists(Optional<resaver.Analysis> analysis) {
-        int entries = 0;
-        int forms = 0;
-
-        final ESSContext CTX = this.getContext();
+        final ChangeFormCollection.Tally TALLY = this.CHANGEFORMS.transform(
+                form -> form.getType() == ChangeForm.Type.FLST,
+                (form, data) -> data == null ? 0 : ((ChangeFormFLST) data).cleanse(),
+                analysis, this.getContext());
 
-        for (ChangeForm form : this.CHANGEFORMS) {
-            if (form.getType() == ChangeForm.Type.FLST) {
-                ChangeFormData data = form.getData(analysis, CTX, false);
-                ChangeFormFLST flst = (ChangeFormFLST) data;
-
-                if (flst != null) {
-                    int removed = flst.cleanse();
-                    if (removed > 0) {
-                        entries += removed;
-                        forms++;
-                        form.updateRawData(flst);
-                    }
-                }
-            }
-        }
-
-        return new int[]{entries, forms};
+        return new int[]{TALLY.CHANGES, TALLY.CHANGED};
     }
 
     /**
@@ -1003,14 +1252,23 @@ final public class ESS implements Element {
      * @return Flag indicating whether the game is CC enabled.
      */
     public boolean supportsESL() {
-        switch (this.HEADER.GAME) {
+        return supportsESL(this.HEADER.GAME, this.FORMVERSION);
+    }
+
+    /**
+     * @param game The game that produced a savefile.
+     * @param formVersion The form version of the savefile.
+     * @return Flag indicating whether the savefile is CC enabled.
+     */
+    static private boolean supportsESL(Game game, byte formVersion) {
+        switch (game) {
             case FALLOUT4:
             case FALLOUT_VR:
-                return this.FORMVERSION >= 68;
+                return formVersion >= 68;
             case SKYRIM_SW:
             case SKYRIM_SE:
             case SKYRIM_VR:
-                return this.FORMVERSION >= 78;
+                return formVersion >= 78;
             case SKYRIM_LE:
             default:
                 return false;
@@ -1061,7 +1319,7 @@ final public class ESS implements Element {
 
         float fileSize = Try(() -> Files.size(this.ORIGINAL_FILE) / 1048573.0f).Catch(() -> Float.NaN);
         float calculatedSize = this.calculateSize() / 1048576.0f;
-        float changeFormsSize = this.CHANGEFORMS.parallelStream().mapToInt(cf -> cf.calculateSize()).sum() / 1048576.0f;
+        float changeFormsSize = this.CHANGEFORMS.calculateSize() / 1048576.0f;
         float papyrusSize = this.PAPYRUS == null
                 ? -1.0f
                 : this.PAPYRUS.calculateSize() / 1048576.0f;
@@ -1325,12 +1583,15 @@ final public class ESS implements Element {
     final private Papyrus PAPYRUS;
     final private AnimObjects ANIMATIONS;
     final private GlobalVariableTable GLOBALS;
-    final private java.util.Map<Integer, RefID> REFIDS;
+    final private mf.IntInterner<RefID> REFIDS;
     private Optional<resaver.Analysis> analysis = Optional.empty();
     private boolean truncated = false;
     private boolean pluginOverflow = false;
     private boolean papyrusError = false;
     final private int ORIGINAL_SIZE;
+    final private ByteBuffer ORIGINAL_BODY;
+    final private int ORIGINAL_BODY_OFFSET;
+    final private int ORIGINAL_TAIL_OFFSET;
 
     static final private Logger LOG = Logger.getLogger(ESS.class.getCanonicalName());
 
@@ -1381,6 +1642,132 @@ final public class ESS implements Element {
         return NEWFILE;
     }
 
+    /**
+     * Names a temporary file for writing a replacement for a file. The
+     * temporary file is in the same directory, so that it can be moved over
+     * the original atomically.
+     *
+     * @param file The file that will be replaced.
+     * @return The temporary file.
+     */
+    static private Path makeTempFile(Path file) {
+        return file.resolveSibling(file.getFileName().toString() + ".tmp");
+    }
+
+    /**
+     * Moves a file over another one, atomically if the filesystem allows it.
+     *
+     * @param source The replacement file.
+     * @param target The file to replace.
+     * @throws IOException
+     */
+    static private void replaceFile(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            LOG.log(Level.INFO, "Atomic move not supported, replacing {0} directly.", target);
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Copies runs of bytes from the original body into the output. Adjacent
+     * runs are merged, so that a stretch of unmodified elements becomes a 
+     * single bulk copy.
+     */
+    static final private class Splicer {
+
+        /**
+         * @param original The original body.
+         * @param output The output stream for the savegame.
+         */
+        Splicer(ByteBuffer original, BodyWriter output) {
+            this.ORIGINAL = Objects.requireNonNull(original);
+            this.OUTPUT = Objects.requireNonNull(output);
+            this.start = 0;
+            this.end = 0;
+        }
+
+        /**
+         * @param offset The offset of a region in the original body.
+         * @param length The length of the region.
+         * @return True if the region lies within the original body.
+         */
+        boolean fits(int offset, int length) {
+            return offset >= 0 && length >= 0 && (long) offset + length <= this.ORIGINAL.limit();
+        }
+
+        /**
+         * Queues a region of the original body to be copied.
+         *
+         * @param offset The offset of the region in the original body.
+         * @param length The length of the region.
+         * @throws IOException
+         */
+        void copy(int offset, int length) throws IOException {
+            if (offset != this.end) {
+                this.flush();
+                this.start = offset;
+                this.end = offset;
+            }
+            this.end += length;
+        }
+
+        /**
+         * Copies any queued region. Must be called before writing anything
+         * else to the output.
+         *
+         * @throws IOException
+         */
+        void flush() throws IOException {
+            if (this.end > this.start) {
+                final ByteBuffer RUN = this.ORIGINAL.duplicate();
+                ((Buffer) RUN).limit(this.end);
+                ((Buffer) RUN).position(this.start);
+                this.OUTPUT.put(RUN);
+            }
+            this.start = this.end;
+        }
+
+        final private ByteBuffer ORIGINAL;
+        final private BodyWriter OUTPUT;
+        private int start;
+        private int end;
+    }
+
+    /**
+     * Describes a savegame from its header alone.
+     *
+     * @see ESS#peekHeader(java.nio.file.Path)
+     */
+    static final public class Peek {
+
+        private Peek(Path file, long fileSize, Header header, int uncompressedSize, int compressedSize, PluginInfo plugins) {
+            this.SAVE_FILE = file;
+            this.FILE_SIZE = fileSize;
+            this.HEADER = header;
+            this.GAME = header.GAME;
+            this.UNCOMPRESSED_SIZE = uncompressedSize;
+            this.COMPRESSED_SIZE = compressedSize;
+            this.PLUGINS = plugins;
+        }
+
+        /**
+         * @return The <code>PluginInfo</code>, if the body is uncompressed.
+         */
+        public Optional<PluginInfo> getPluginInfo() {
+            return Optional.ofNullable(this.PLUGINS);
+        }
+
+        final public Path SAVE_FILE;
+        final public long FILE_SIZE;
+        final public Header HEADER;
+        final public Game GAME;
+        final public int UNCOMPRESSED_SIZE;
+        final public int COMPRESSED_SIZE;
+        final private PluginInfo PLUGINS;
+    }
+
     /**
      * Stores the results of a load or save operation.
      */
@@ -155,7 +155,7 @@ public final class FileLocationTable implements Element {
      */
     @Override
     public int calculateSize() {
-        return 100;
+        return SIZE;
     }
 
     /**
@@ -231,4 +231,9 @@ public final class FileLocationTable implements Element {
     final int[] UNUSED;
     final Game GAME;
 
+    /**
+     * The size of a <code>FileLocationTable</code> in bytes.
+     */
+    static final public int SIZE = 100;
+
 }
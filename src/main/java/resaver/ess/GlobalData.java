@@ -39,6 +39,7 @@ final public class GlobalData implements Element {
      * @throws PapyrusException
      */
     public GlobalData(ByteBuffer input, ESS.ESSContext context, ModelBuilder model) throws PapyrusException {
+        this.ORIGINAL_OFFSET = ((Buffer) input).position();
         this.TYPE = input.getInt();
         int blockSize = input.getInt();
         final ByteBuffer subSection = input.slice().order(ByteOrder.LITTLE_ENDIAN);
@@ -93,6 +94,17 @@ final public class GlobalData implements Element {
         return this.TYPE;
     }
 
+    /**
+     * @return The offset of the <code>GlobalData</code> in the body of the
+     * savefile it was read from, or -1 if its block can be modified and must
+     * always be serialized.
+     */
+    int getOriginalOffset() {
+        return this.BLOCK instanceof DefaultGlobalDataBlock
+                ? this.ORIGINAL_OFFSET
+                : -1;
+    }
+
     /**
      * @return The data block.
      */
@@ -153,5 +165,6 @@ final public class GlobalData implements Element {
 
     final private int TYPE;
     final private GlobalDataBlock BLOCK;
+    final private int ORIGINAL_OFFSET;
 
 }
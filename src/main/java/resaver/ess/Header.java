@@ -142,30 +142,8 @@ final public class Header implements Element {
         this.SCREENSHOT = new byte[this.BYPP * this.SCREENSHOT_WIDTH * this.SCREENSHOT_HEIGHT];
         input.get(this.SCREENSHOT);
 
-        if (this.SCREENSHOT.length < 10) {
-            this.IMAGE = null;
-        } else {
-            this.IMAGE = new BufferedImage(this.SCREENSHOT_WIDTH, this.SCREENSHOT_HEIGHT, BufferedImage.TYPE_INT_RGB);
-            int x = 0;
-            int y = 0;
-
-            for (int i = 0; i < this.SCREENSHOT.length; i += this.BYPP) {
-                int rgb = 0;
-                rgb |= (this.SCREENSHOT[i + 2] & 0xFF);
-                rgb |= (this.SCREENSHOT[i + 1] & 0xFF) << 8;
-                rgb |= (this.SCREENSHOT[i + 0] & 0xFF) << 16;
-                if (this.BYPP == 4) {
-                    rgb |= (this.SCREENSHOT[i + 3] & 0xFF) << 24;
-                }
-                IMAGE.setRGB(x, y, rgb);
-
-                x++;
-                if (x >= this.SCREENSHOT_WIDTH) {
-                    x = 0;
-                    y++;
-                }
-            }
-        }
+        // The screenshot is decoded the first time it's displayed.
+        this.image = null;
     }
 
     /**
@@ -288,7 +266,8 @@ final public class Header implements Element {
      * screenshot.
      */
     public javax.swing.ImageIcon getImage(int width) {
-        if (this.IMAGE == null) {
+        final BufferedImage IMAGE = this.getBufferedImage();
+        if (IMAGE == null) {
             return null;
         }
 
@@ -301,10 +280,81 @@ final public class Header implements Element {
         final java.awt.Graphics2D G = IMG.createGraphics();
         G.setRenderingHint(java.awt.RenderingHints.KEY_ANTIALIASING, java.awt.RenderingHints.VALUE_ANTIALIAS_ON);
         G.setRenderingHint(java.awt.RenderingHints.KEY_INTERPOLATION, java.awt.RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-        G.drawRenderedImage(this.IMAGE, XFORM);
+        G.drawRenderedImage(IMAGE, XFORM);
         return new javax.swing.ImageIcon(IMG);
     }
 
+    /**
+     * Creates a small copy of the screenshot by averaging blocks of pixels
+     * straight from the screenshot data, without decoding the whole image.
+     *
+     * @param width The width of the thumbnail.
+     * @return The thumbnail, or null if there isn't a screenshot.
+     */
+    public BufferedImage getThumbnail(int width) {
+        if (this.SCREENSHOT.length < 10 || width <= 0) {
+            return null;
+        }
+
+        final int W = Math.min(width, this.SCREENSHOT_WIDTH);
+        final int H = Math.max(1, (int) ((long) this.SCREENSHOT_HEIGHT * W / this.SCREENSHOT_WIDTH));
+        final int[] PIXELS = new int[W * H];
+
+        for (int ty = 0; ty < H; ty++) {
+            final int Y0 = ty * this.SCREENSHOT_HEIGHT / H;
+            final int Y1 = Math.max(Y0 + 1, (ty + 1) * this.SCREENSHOT_HEIGHT / H);
+
+            for (int tx = 0; tx < W; tx++) {
+                final int X0 = tx * this.SCREENSHOT_WIDTH / W;
+                final int X1 = Math.max(X0 + 1, (tx + 1) * this.SCREENSHOT_WIDTH / W);
+                int r = 0, g = 0, b = 0;
+
+                for (int y = Y0; y < Y1; y++) {
+                    for (int x = X0, i = this.BYPP * (y * this.SCREENSHOT_WIDTH + X0); x < X1; x++, i += this.BYPP) {
+                        r += this.SCREENSHOT[i + 0] & 0xFF;
+                        g += this.SCREENSHOT[i + 1] & 0xFF;
+                        b += this.SCREENSHOT[i + 2] & 0xFF;
+                    }
+                }
+
+                final int N = (Y1 - Y0) * (X1 - X0);
+                PIXELS[ty * W + tx] = ((r / N) << 16) | ((g / N) << 8) | (b / N);
+            }
+        }
+
+        final BufferedImage THUMBNAIL = new BufferedImage(W, H, BufferedImage.TYPE_INT_RGB);
+        THUMBNAIL.setRGB(0, 0, W, H, PIXELS, 0, W);
+        return THUMBNAIL;
+    }
+
+    /**
+     * Decodes the screenshot, the first time it's needed.
+     *
+     * @return The screenshot, or null if there isn't one.
+     */
+    synchronized private BufferedImage getBufferedImage() {
+        if (this.image != null || this.SCREENSHOT.length < 10) {
+            return this.image;
+        }
+
+        final int[] PIXELS = new int[this.SCREENSHOT_WIDTH * this.SCREENSHOT_HEIGHT];
+
+        for (int p = 0, i = 0; p < PIXELS.length; p++, i += this.BYPP) {
+            int rgb = 0;
+            rgb |= (this.SCREENSHOT[i + 2] & 0xFF);
+            rgb |= (this.SCREENSHOT[i + 1] & 0xFF) << 8;
+            rgb |= (this.SCREENSHOT[i + 0] & 0xFF) << 16;
+            if (this.BYPP == 4) {
+                rgb |= (this.SCREENSHOT[i + 3] & 0xFF) << 24;
+            }
+            PIXELS[p] = rgb;
+        }
+
+        this.image = new BufferedImage(this.SCREENSHOT_WIDTH, this.SCREENSHOT_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        this.image.setRGB(0, 0, this.SCREENSHOT_WIDTH, this.SCREENSHOT_HEIGHT, PIXELS, 0, this.SCREENSHOT_WIDTH);
+        return this.image;
+    }
+
     /**
      * @return The <code>CompressionType</code> of the savefile.
      */
@@ -359,6 +409,6 @@ final public class Header implements Element {
     private CompressionType compression;
     final public Game GAME;
     final public byte[] SCREENSHOT;
-    final private BufferedImage IMAGE;
+    private BufferedImage image;
 
 }
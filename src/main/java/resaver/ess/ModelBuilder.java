@@ -59,11 +59,41 @@ import resaver.gui.FilterTreeModel.FunctionMessageNode;
 import resaver.gui.FilterTreeModel.SuspendedStackNode;
 
 /**
+ * Builds the <code>FilterTreeModel</code> for a savefile while it is being
+ * read. Each group of nodes is built on a background thread as soon as the
+ * part of the savefile that it shows has been read.
+ *
+ * A headless <code>ModelBuilder</code> builds nothing, for reading a savefile
+ * without a GUI. A model can still be built later with
+ * <code>createModel</code>.
  *
  * @author Mark
  */
 public class ModelBuilder {
 
+    /**
+     * Creates a <code>ModelBuilder</code> that ignores everything it is given
+     * and builds no model, so that reading a savefile doesn't pay for a tree
+     * that will never be shown. Its <code>finish</code> method returns null.
+     *
+     * @return A headless <code>ModelBuilder</code>.
+     */
+    static public ModelBuilder headless() {
+        return new ModelBuilder();
+    }
+
+    /**
+     * Creates a new headless ModelBuilder.
+     */
+    private ModelBuilder() {
+        this.MODEL = null;
+        this.EXECUTOR = null;
+        this.TASKS = java.util.Collections.emptyList();
+        this.PROGRESS = null;
+        this.COMPARE_NODES = null;
+        this.COMPARE_ELEMENTS = null;
+    }
+
     /**
      * Creates a new ModelBuilder with no sorting.
      * 
@@ -96,7 +126,13 @@ public class ModelBuilder {
         
         progress.setMaximum(36);
         this.MODEL = new FilterTreeModel();
-        this.EXECUTOR = java.util.concurrent.Executors.newFixedThreadPool(2);
+        // Daemon threads, so that a savefile that fails to load doesn't keep
+        // the JVM alive when running headless.
+        this.EXECUTOR = java.util.concurrent.Executors.newFixedThreadPool(2, r -> {
+            final Thread THREAD = new Thread(r, "ModelBuilder");
+            THREAD.setDaemon(true);
+            return THREAD;
+        });
         this.TASKS = java.util.Collections.synchronizedList(new ArrayList<>(15));
         this.PROGRESS = progress;
         
@@ -129,13 +165,33 @@ public class ModelBuilder {
         }
     }
 
+    /**
+     * @return True if the <code>ModelBuilder</code> is headless and builds
+     * nothing.
+     */
+    public boolean isHeadless() {
+        return this.EXECUTOR == null;
+    }
+
+    /**
+     * Builds part of the model in the background, unless the
+     * <code>ModelBuilder</code> is headless.
+     *
+     * @param task Builds the node for one group.
+     */
+    private void submit(java.util.concurrent.Callable<Node> task) {
+        if (!this.isHeadless()) {
+            this.TASKS.add(this.EXECUTOR.submit(task));
+        }
+    }
+
     /**
      * Add a <code>PluginInfo</code> to the model.
      *
      * @param plugins The <code>PluginInfo</code>.
      */
     public void addPluginInfo(PluginInfo plugins) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final GroupNode NODE = new GroupNode("Plugins (full)");
             NODE.addAll(plugins.getFullPlugins().stream().map(p -> new PluginNode(p)).collect(Collectors.toList()));
             PROGRESS.modifyValue(1);
@@ -143,9 +199,9 @@ public class ModelBuilder {
             //System.out.println("Plugins-Full sorted.");
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
 
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final GroupNode NODE = new GroupNode("Plugins (lite)");
             NODE.addAll(plugins.getLitePlugins().stream().map(p -> new PluginNode(p)).collect(Collectors.toList()));
             PROGRESS.modifyValue(1);
@@ -153,7 +209,7 @@ public class ModelBuilder {
             //System.out.println("Plugins-Lite sorted.");
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -162,11 +218,11 @@ public class ModelBuilder {
      * @param gvt The <code>GlobalVariableTable</code>.
      */
     public void addGlobalVariableTable(GlobalVariableTable gvt) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final GroupNode NODE = new GroupNode("Global Variables", gvt.getVariables()).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -175,7 +231,7 @@ public class ModelBuilder {
      * @param table The <code>StringTable</code>.
      */
     public void addStringTable(StringTable table) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final Map<Character, List<TString>> DICTIONARY = table.stream()
                     .collect(Collectors.groupingBy(ALPHABETICAL));
 
@@ -187,7 +243,7 @@ public class ModelBuilder {
             NODE.addAll(NODES).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -196,11 +252,11 @@ public class ModelBuilder {
      * @param script The <code>ScriptMap</code>.
      */
     public void addScripts(ScriptMap script) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final GroupNode NODE = new GroupNode("Script Definitions", script.values()).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -209,11 +265,11 @@ public class ModelBuilder {
      * @param structs The <code>StructMap</code>.
      */
     public void addStructs(StructMap structs) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final GroupNode NODE = new GroupNode("Struct Definitions", structs.values()).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -222,11 +278,11 @@ public class ModelBuilder {
      * @param references The <code>ReferenceMap</code>.
      */
     public void addReferences(ReferenceMap references) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final GroupNode NODE = new GroupNode("References", references.values()).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -235,11 +291,11 @@ public class ModelBuilder {
      * @param arrays The <code>ArrayMap</code>.
      */
     public void addArrays(ArrayMap arrays) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final GroupNode NODE = new GroupNode("Arrays", arrays.values()).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -248,22 +304,22 @@ public class ModelBuilder {
      * @param unbinds The <code>UnbindList</code>.
      */
     public void addUnbinds(UnbindList unbinds) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final GroupNode NODE = new GroupNode("QueuedUnbinds", unbinds).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
      * @param unknownIDs The <code>EID</code> list.
      */
     public void addUnknownIDList(List<EID> unknownIDs) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final GroupNode NODE = new GroupNode("Unknown ID List", unknownIDs).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -272,11 +328,11 @@ public class ModelBuilder {
      * @param animations The <code>GlobalVariableTable</code>.
      */
     public void addAnimations(AnimObjects animations) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final GroupNode NODE = new GroupNode("Animations", animations.getAnimations());
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -285,7 +341,7 @@ public class ModelBuilder {
      * @param instances The <code>ScriptInstanceMap</code>.
      */
     public void addScriptInstances(ScriptInstanceMap instances) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final Map<Character, List<ScriptInstance>> DICTIONARY = instances.values().stream()
                     .collect(Collectors.groupingBy(ALPHABETICAL));
 
@@ -296,7 +352,7 @@ public class ModelBuilder {
             final ContainerNode NODE = new GroupNode("Script Instances").addAll(NODES).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -305,11 +361,11 @@ public class ModelBuilder {
      * @param instances The <code>StructInstanceMap</code>.
      */
     public void addStructInstances(StructInstanceMap instances) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final GroupNode NODE = new GroupNode("Struct Instances", instances.values()).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -319,7 +375,7 @@ public class ModelBuilder {
      */
     public void addThreads(ActiveScriptMap threads) {
         if (threads.size() > 1000) {
-            this.TASKS.add(this.EXECUTOR.submit(() -> {
+            this.submit(() -> {
                 final Map<String, List<ActiveScriptNode>> GROUPS = new java.util.LinkedHashMap<>();
                 List<ActiveScriptNode> currentGroup = null;
                 
@@ -343,15 +399,15 @@ public class ModelBuilder {
                 NODE.addAll(NODE_GROUPS).sort();
                 PROGRESS.modifyValue(1);
                 return NODE;
-            }));
+            });
 
         } else {
-            this.TASKS.add(this.EXECUTOR.submit(() -> {
+            this.submit(() -> {
                 final GroupNode NODE = new GroupNode("Active Scripts");
                 NODE.addAll(threads.values().stream().map(t -> new ActiveScriptNode(t)).collect(Collectors.toList())).sort();
                 PROGRESS.modifyValue(1);
                 return NODE;
-            }));
+            });
         }
     }
 
@@ -361,12 +417,12 @@ public class ModelBuilder {
      * @param messages The list of <code>FunctionMessage</code>.
      */
     public void addFunctionMessages(List<FunctionMessage> messages) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final GroupNode NODE = new GroupNode("Function Messages");
             NODE.addAll(messages.stream().map(t -> new FunctionMessageNode(t)).collect(Collectors.toList())).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -375,12 +431,12 @@ public class ModelBuilder {
      * @param stacks The list of <code>SuspendedStack</code>.
      */
     public void addSuspendedStacks1(SuspendedStackMap stacks) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final GroupNode NODE = new GroupNode("Suspended Stacks 1");
             NODE.addAll(stacks.values().stream().map(t -> new SuspendedStackNode(t)).collect(Collectors.toList())).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -389,12 +445,12 @@ public class ModelBuilder {
      * @param stacks The list of <code>SuspendedStack</code>.
      */
     public void addSuspendedStacks2(SuspendedStackMap stacks) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final GroupNode NODE = new GroupNode("Suspended Stacks 2");
             NODE.addAll(stacks.values().stream().map(t -> new SuspendedStackNode(t)).collect(Collectors.toList())).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -402,7 +458,7 @@ public class ModelBuilder {
      * @param changeForms
      */
     public void addChangeForms(ChangeFormCollection changeForms) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final Map<ChangeForm.Type, List<ChangeForm>> DICTIONARY = changeForms.stream().collect(Collectors.groupingBy(form -> form.getType()));
 
             final List<Node> NODES = DICTIONARY.entrySet().stream()
@@ -412,7 +468,7 @@ public class ModelBuilder {
             final ContainerNode NODE = new GroupNode("ChangeForms").addAll(NODES).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
@@ -421,7 +477,7 @@ public class ModelBuilder {
      * @param data The <code>OtherData</code>.
      */
     public void addOtherData(OtherData data) {
-        this.TASKS.add(this.EXECUTOR.submit(() -> {
+        this.submit(() -> {
             final List<FilterTreeModel.Node> OTHERDATA_NODES = new ArrayList<>(10);
 
             if (data != null) {
@@ -436,15 +492,19 @@ public class ModelBuilder {
             final ContainerNode NODE = new GroupNode("Mystery Arrays").addAll(OTHERDATA_NODES).sort();
             PROGRESS.modifyValue(1);
             return NODE;
-        }));
+        });
     }
 
     /**
      *
      * @param ess
-     * @return
+     * @return The model, or null if the <code>ModelBuilder</code> is headless.
      */
     public FilterTreeModel finish(ESS ess) {
+        if (this.isHeadless()) {
+            return null;
+        }
+
         try {
             this.EXECUTOR.shutdown();
             this.EXECUTOR.awaitTermination(2, TimeUnit.MINUTES);
@@ -0,0 +1,587 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package resaver.ess;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import javax.imageio.ImageIO;
+import resaver.Game;
+
+/**
+ * A persistent catalog of savefiles, so that a folder of saves can be browsed
+ * without parsing every file each time.
+ *
+ * Each entry is keyed by the path of the savefile and fingerprinted by its
+ * size and modification time; a savefile is only parsed (with
+ * <code>ESS.peekHeader</code>) when it is new or its fingerprint has changed.
+ * Savefiles that have been fully loaded also record their CRC and the sizes
+ * of their sections.
+ *
+ * The catalog is safe to use from several threads at once.
+ *
+ * @author Mark Fairchild
+ */
+final public class SaveCatalog {
+
+    /**
+     * Loads a catalog from a file. If the file doesn't exist or can't be
+     * read, the catalog starts out empty.
+     *
+     * @param file The file in which the catalog is stored.
+     * @return The <code>SaveCatalog</code>.
+     */
+    static public SaveCatalog load(Path file) {
+        final SaveCatalog CATALOG = new SaveCatalog(file);
+
+        try ( DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                LOG.info("Save catalog is from a different version; starting over.");
+                return CATALOG;
+            }
+
+            final int COUNT = input.readInt();
+            for (int i = 0; i < COUNT; i++) {
+                final Entry ENTRY = new Entry(input);
+                CATALOG.ENTRIES.put(ENTRY.SAVE_FILE, ENTRY);
+            }
+
+            LOG.fine(String.format("Save catalog: read %d entries from %s.", COUNT, file));
+
+        } catch (NoSuchFileException ex) {
+            LOG.fine("No save catalog yet.");
+        } catch (IOException | RuntimeException ex) {
+            LOG.log(Level.WARNING, "Couldn't read the save catalog; starting over.", ex);
+            CATALOG.ENTRIES.clear();
+        }
+
+        return CATALOG;
+    }
+
+    /**
+     * Creates a new empty <code>SaveCatalog</code>.
+     *
+     * @param file The file in which the catalog is stored.
+     */
+    private SaveCatalog(Path file) {
+        this.FILE = Objects.requireNonNull(file);
+        this.ENTRIES = new ConcurrentHashMap<>();
+        this.dirty = false;
+    }
+
+    /**
+     * Returns the entry for a savefile, if the catalog has an up-to-date one.
+     * The savefile is never parsed.
+     *
+     * @param saveFile The savefile.
+     * @return The <code>Entry</code>, if there is a current one.
+     */
+    public Optional<Entry> get(Path saveFile) {
+        final Path KEY = key(saveFile);
+        final Entry ENTRY = this.ENTRIES.get(KEY);
+
+        if (ENTRY == null) {
+            return Optional.empty();
+        }
+
+        try {
+            final BasicFileAttributes ATTRS = Files.readAttributes(KEY, BasicFileAttributes.class);
+            return ENTRY.matches(ATTRS) ? Optional.of(ENTRY) : Optional.empty();
+        } catch (IOException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the entry for a savefile, parsing its header if the catalog
+     * doesn't have an up-to-date entry.
+     *
+     * @param saveFile The savefile.
+     * @return The <code>Entry</code>.
+     * @throws IOException
+     */
+    public Entry update(Path saveFile) throws IOException {
+        return this.update(key(saveFile), null);
+    }
+
+    /**
+     * Brings the catalog up to date with the savefiles in a set of
+     * directories. New and changed savefiles are parsed in parallel, and
+     * entries for savefiles that no longer exist are dropped.
+     *
+     * @param directories The directories to scan.
+     * @return The number of savefiles that were parsed.
+     */
+    public int refresh(Collection<Path> directories) {
+        final List<Path> DIRS = directories.stream()
+                .filter(Objects::nonNull)
+                .map(SaveCatalog::key)
+                .filter(Files::isDirectory)
+                .distinct()
+                .collect(Collectors.toList());
+
+        final List<Path> FILES = DIRS.stream()
+                .flatMap(SaveCatalog::listSaves)
+                .collect(Collectors.toList());
+
+        final AtomicInteger PARSED = new AtomicInteger();
+
+        FILES.parallelStream().forEach(file -> {
+            try {
+                this.update(file, PARSED);
+            } catch (IOException | RuntimeException ex) {
+                LOG.log(Level.FINE, "Save catalog: couldn't read " + file, ex);
+            }
+        });
+
+        // Drop savefiles that have been deleted.
+        final boolean PRUNED = this.ENTRIES.keySet().removeIf(path
+                -> DIRS.contains(path.getParent()) && !Files.exists(path));
+
+        if (PRUNED) {
+            this.dirty = true;
+        }
+
+        LOG.info(String.format("Save catalog: %d savefiles, %d parsed.", FILES.size(), PARSED.get()));
+        return PARSED.get();
+    }
+
+    /**
+     * Adds the details that are only available from a fully loaded savefile:
+     * its CRC and the sizes of its sections.
+     *
+     * @param ess The savefile.
+     */
+    public void record(ESS ess) {
+        final Path KEY = key(ess.getOriginalFile());
+
+        try {
+            final Entry ENTRY = this.update(KEY, null);
+
+            // Reopening a savefile that has already been recorded changes
+            // nothing, so don't mark the catalog as needing to be written.
+            if (ENTRY.getDigest().isPresent() && ENTRY.getDigest().get().equals(ess.getDigest())) {
+                return;
+            }
+
+            final Map<String, Integer> SECTIONS = new LinkedHashMap<>(ENTRY.SECTIONS);
+            SECTIONS.put("plugins", ess.getPluginInfo().calculateSize());
+            SECTIONS.put("table1", ess.getTable1().stream().mapToInt(GlobalData::calculateSize).sum());
+            SECTIONS.put("table2", ess.getTable2().stream().mapToInt(GlobalData::calculateSize).sum());
+            SECTIONS.put("changeforms", ess.getChangeForms().stream().mapToInt(ChangeForm::calculateSize).sum());
+            SECTIONS.put("table3", ess.getTable3().stream().mapToInt(GlobalData::calculateSize).sum());
+            if (ess.getPapyrus() != null) {
+                SECTIONS.put("papyrus", ess.getPapyrus().calculateSize());
+            }
+
+            final Entry RECORDED = new Entry(ENTRY, pluginHash(ess.getPluginInfo()), ess.getPluginInfo().getSize(), ess.getDigest(), SECTIONS);
+            this.ENTRIES.put(KEY, RECORDED);
+            this.dirty = true;
+
+        } catch (IOException | RuntimeException ex) {
+            LOG.log(Level.FINE, "Save catalog: couldn't record " + KEY, ex);
+        }
+    }
+
+    /**
+     * @return An unmodifiable view of all entries.
+     */
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(this.ENTRIES.values());
+    }
+
+    /**
+     * Writes the catalog back to its file, if anything has changed. The file
+     * is replaced atomically where the filesystem allows it.
+     *
+     * @throws IOException
+     */
+    synchronized public void save() throws IOException {
+        if (!this.dirty) {
+            return;
+        }
+
+        this.dirty = false;
+        final List<Entry> SNAPSHOT = new java.util.ArrayList<>(this.ENTRIES.values());
+
+        if (this.FILE.getParent() != null) {
+            Files.createDirectories(this.FILE.getParent());
+        }
+
+        final Path TEMP = this.FILE.resolveSibling(this.FILE.getFileName() + ".tmp");
+
+        try {
+            try ( DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(TEMP)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(SNAPSHOT.size());
+                for (Entry entry : SNAPSHOT) {
+                    entry.write(output);
+                }
+            }
+
+            try {
+                Files.move(TEMP, this.FILE, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(TEMP, this.FILE, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+        } catch (IOException ex) {
+            this.dirty = true;
+            throw ex;
+        } finally {
+            Files.deleteIfExists(TEMP);
+        }
+
+        LOG.fine(String.format("Save catalog: wrote %d entries to %s.", SNAPSHOT.size(), this.FILE));
+    }
+
+    /**
+     * Returns the entry for a savefile, parsing its header if necessary.
+     *
+     * @param key The normalized path of the savefile.
+     * @param parsed A counter of parsed savefiles, or null.
+     * @return The <code>Entry</code>.
+     * @throws IOException
+     */
+    private Entry update(Path key, AtomicInteger parsed) throws IOException {
+        final BasicFileAttributes ATTRS = Files.readAttributes(key, BasicFileAttributes.class);
+        final Entry EXISTING = this.ENTRIES.get(key);
+
+        if (EXISTING != null && EXISTING.matches(ATTRS)) {
+            return EXISTING;
+        }
+
+        final ESS.Peek PEEK = ESS.peekHeader(key);
+        final Entry ENTRY = new Entry(key, ATTRS, PEEK);
+        this.ENTRIES.put(key, ENTRY);
+        this.dirty = true;
+
+        if (parsed != null) {
+            parsed.incrementAndGet();
+        }
+
+        return ENTRY;
+    }
+
+    /**
+     * @param path A path.
+     * @return The path in the form used for keys.
+     */
+    static private Path key(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Lists the savefiles in a directory.
+     *
+     * @param dir The directory.
+     * @return A stream of savefiles.
+     */
+    static private Stream<Path> listSaves(Path dir) {
+        try ( Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(p -> Game.FILTER_ALL.accept(p.toFile()))
+                    .collect(Collectors.toList())
+                    .stream();
+        } catch (IOException ex) {
+            LOG.log(Level.FINE, "Save catalog: couldn't list " + dir, ex);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Hashes the names of the plugins in a <code>PluginInfo</code>, in
+     * order.
+     *
+     * @param plugins The <code>PluginInfo</code>.
+     * @return The hash.
+     */
+    static private long pluginHash(PluginInfo plugins) {
+        final CRC32 CRC = new CRC32();
+        plugins.stream().forEach(p -> {
+            CRC.update(p.NAME.toLowerCase().getBytes(StandardCharsets.UTF_8));
+            CRC.update('\n');
+        });
+        return CRC.getValue();
+    }
+
+    final private Path FILE;
+    final private ConcurrentHashMap<Path, Entry> ENTRIES;
+    private volatile boolean dirty;
+
+    static final private int MAGIC = 0x52534354;
+    static final private int VERSION = 1;
+    static final private int THUMBNAIL_WIDTH = 128;
+    static final private Logger LOG = Logger.getLogger(SaveCatalog.class.getCanonicalName());
+
+    /**
+     * Describes one savefile in the catalog.
+     */
+    static final public class Entry {
+
+        /**
+         * Creates an entry from a header scan.
+         *
+         * @param file The savefile.
+         * @param attrs The attributes of the savefile.
+         * @param peek The header scan.
+         */
+        private Entry(Path file, BasicFileAttributes attrs, ESS.Peek peek) {
+            final Header HEADER = peek.HEADER;
+            this.SAVE_FILE = file;
+            this.FILE_SIZE = attrs.size();
+            this.MODIFIED = attrs.lastModifiedTime().toMillis();
+            this.GAME = peek.GAME;
+            this.SAVENUMBER = HEADER.SAVENUMBER;
+            this.NAME = HEADER.NAME.toString();
+            this.LEVEL = HEADER.LEVEL;
+            this.LOCATION = HEADER.LOCATION.toString();
+            this.GAMEDATE = HEADER.GAMEDATE.toString();
+            this.RACE = HEADER.RACEID.toString();
+            this.FILETIME = HEADER.FILETIME;
+            this.COMPRESSION = HEADER.getCompression();
+            this.PLUGIN_COUNT = peek.getPluginInfo().map(PluginInfo::getSize).orElse(-1);
+            this.PLUGIN_HASH = peek.getPluginInfo().map(SaveCatalog::pluginHash).orElse(0L);
+            this.DIGEST = null;
+
+            final Map<String, Integer> SECTIONS = new LinkedHashMap<>();
+            SECTIONS.put("header", HEADER.calculateSize());
+            SECTIONS.put("screenshot", HEADER.SCREENSHOT.length);
+            SECTIONS.put("body", peek.UNCOMPRESSED_SIZE);
+            SECTIONS.put("compressed", peek.COMPRESSED_SIZE);
+            this.SECTIONS = Collections.unmodifiableMap(SECTIONS);
+
+            this.THUMBNAIL = encodeThumbnail(HEADER.getThumbnail(THUMBNAIL_WIDTH));
+        }
+
+        /**
+         * Creates a copy of an entry with the details from a fully loaded
+         * savefile.
+         *
+         * @param base The entry from the header scan.
+         * @param pluginHash The hash of the plugin names.
+         * @param pluginCount The number of plugins.
+         * @param digest The CRC of the savefile.
+         * @param sections The sizes of the sections.
+         */
+        private Entry(Entry base, long pluginHash, int pluginCount, Long digest, Map<String, Integer> sections) {
+            this.SAVE_FILE = base.SAVE_FILE;
+            this.FILE_SIZE = base.FILE_SIZE;
+            this.MODIFIED = base.MODIFIED;
+            this.GAME = base.GAME;
+            this.SAVENUMBER = base.SAVENUMBER;
+            this.NAME = base.NAME;
+            this.LEVEL = base.LEVEL;
+            this.LOCATION = base.LOCATION;
+            this.GAMEDATE = base.GAMEDATE;
+            this.RACE = base.RACE;
+            this.FILETIME = base.FILETIME;
+            this.COMPRESSION = base.COMPRESSION;
+            this.PLUGIN_COUNT = pluginCount;
+            this.PLUGIN_HASH = pluginHash;
+            this.DIGEST = digest;
+            this.SECTIONS = Collections.unmodifiableMap(new LinkedHashMap<>(sections));
+            this.THUMBNAIL = base.THUMBNAIL;
+        }
+
+        /**
+         * Reads an entry from the catalog file.
+         *
+         * @param input The input stream.
+         * @throws IOException
+         */
+        private Entry(DataInputStream input) throws IOException {
+            this.SAVE_FILE = Paths.get(input.readUTF());
+            this.FILE_SIZE = input.readLong();
+            this.MODIFIED = input.readLong();
+            this.GAME = Game.valueOf(input.readUTF());
+            this.SAVENUMBER = input.readInt();
+            this.NAME = input.readUTF();
+            this.LEVEL = input.readInt();
+            this.LOCATION = input.readUTF();
+            this.GAMEDATE = input.readUTF();
+            this.RACE = input.readUTF();
+            this.FILETIME = input.readLong();
+            this.COMPRESSION = CompressionType.valueOf(input.readUTF());
+            this.PLUGIN_COUNT = input.readInt();
+            this.PLUGIN_HASH = input.readLong();
+            this.DIGEST = input.readBoolean() ? input.readLong() : null;
+
+            final int SECTIONCOUNT = input.readInt();
+            final Map<String, Integer> SECTIONS = new LinkedHashMap<>(SECTIONCOUNT);
+            for (int i = 0; i < SECTIONCOUNT; i++) {
+                SECTIONS.put(input.readUTF(), input.readInt());
+            }
+            this.SECTIONS = Collections.unmodifiableMap(SECTIONS);
+
+            final int THUMBSIZE = input.readInt();
+            if (THUMBSIZE < 0) {
+                this.THUMBNAIL = null;
+            } else {
+                this.THUMBNAIL = new byte[THUMBSIZE];
+                input.readFully(this.THUMBNAIL);
+            }
+        }
+
+        /**
+         * Writes the entry to the catalog file.
+         *
+         * @param output The output stream.
+         * @throws IOException
+         */
+        private void write(DataOutputStream output) throws IOException {
+            output.writeUTF(this.SAVE_FILE.toString());
+            output.writeLong(this.FILE_SIZE);
+            output.writeLong(this.MODIFIED);
+            output.writeUTF(this.GAME.name());
+            output.writeInt(this.SAVENUMBER);
+            output.writeUTF(this.NAME);
+            output.writeInt(this.LEVEL);
+            output.writeUTF(this.LOCATION);
+            output.writeUTF(this.GAMEDATE);
+            output.writeUTF(this.RACE);
+            output.writeLong(this.FILETIME);
+            output.writeUTF(this.COMPRESSION.name());
+            output.writeInt(this.PLUGIN_COUNT);
+            output.writeLong(this.PLUGIN_HASH);
+            output.writeBoolean(this.DIGEST != null);
+            if (this.DIGEST != null) {
+                output.writeLong(this.DIGEST);
+            }
+
+            output.writeInt(this.SECTIONS.size());
+            for (Map.Entry<String, Integer> section : this.SECTIONS.entrySet()) {
+                output.writeUTF(section.getKey());
+                output.writeInt(section.getValue());
+            }
+
+            if (this.THUMBNAIL == null) {
+                output.writeInt(-1);
+            } else {
+                output.writeInt(this.THUMBNAIL.length);
+                output.write(this.THUMBNAIL);
+            }
+        }
+
+        /**
+         * @param attrs The current attributes of the savefile.
+         * @return True if the savefile hasn't changed since the entry was
+         * made.
+         */
+        private boolean matches(BasicFileAttributes attrs) {
+            return attrs.size() == this.FILE_SIZE
+                    && attrs.lastModifiedTime().toMillis() == this.MODIFIED;
+        }
+
+        /**
+         * @return The thumbnail of the screenshot, if there is one.
+         */
+        public Optional<BufferedImage> getThumbnail() {
+            if (this.THUMBNAIL == null) {
+                return Optional.empty();
+            }
+
+            try {
+                return Optional.ofNullable(ImageIO.read(new ByteArrayInputStream(this.THUMBNAIL)));
+            } catch (IOException ex) {
+                return Optional.empty();
+            }
+        }
+
+        /**
+         * @return The CRC of the savefile, if it has been fully loaded.
+         */
+        public Optional<Long> getDigest() {
+            return Optional.ofNullable(this.DIGEST);
+        }
+
+        /**
+         * @see Object#toString()
+         * @return
+         */
+        @Override
+        public String toString() {
+            return String.format("%s: %s, level %d, %s", this.SAVE_FILE.getFileName(), this.NAME, this.LEVEL, this.LOCATION);
+        }
+
+        /**
+         * Encodes a thumbnail compactly.
+         *
+         * @param image The thumbnail.
+         * @return The encoded thumbnail, or null.
+         */
+        static private byte[] encodeThumbnail(BufferedImage image) {
+            if (image == null) {
+                return null;
+            }
+
+            try {
+                final ByteArrayOutputStream BYTES = new ByteArrayOutputStream();
+                return ImageIO.write(image, "jpg", BYTES) ? BYTES.toByteArray() : null;
+            } catch (IOException ex) {
+                return null;
+            }
+        }
+
+        final public Path SAVE_FILE;
+        final public long FILE_SIZE;
+        final public long MODIFIED;
+        final public Game GAME;
+        final public int SAVENUMBER;
+        final public String NAME;
+        final public int LEVEL;
+        final public String LOCATION;
+        final public String GAMEDATE;
+        final public String RACE;
+        final public long FILETIME;
+        final public CompressionType COMPRESSION;
+        final public int PLUGIN_COUNT;
+        final public long PLUGIN_HASH;
+        final public Map<String, Integer> SECTIONS;
+        final private Long DIGEST;
+        final private byte[] THUMBNAIL;
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package resaver.ess;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+/**
+ * Memoizes the total size of a collection of elements.
+ *
+ * The total is calculated in full once. After that it is kept up to date by
+ * notifications: an element reports itself with <code>changing</code> just
+ * before it changes, and the collection reports elements as they are added
+ * and removed. Elements that changed are only measured again the next time
+ * the total is needed, so that costs time proportional to the number of
+ * elements that changed rather than the size of the collection.
+ *
+ * An element that changes without reporting it will make the total wrong, so
+ * every mutator of a <code>Member</code> must call <code>changing</code>
+ * first.
+ *
+ * @author Mark Fairchild
+ */
+final public class SizeCache {
+
+    /**
+     * Creates a new <code>SizeCache</code>.
+     *
+     * @param calculator Calculates the total in full.
+     */
+    public SizeCache(IntSupplier calculator) {
+        this.CALCULATOR = Objects.requireNonNull(calculator);
+        this.PENDING = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.total = -1;
+    }
+
+    /**
+     * @return The total size.
+     */
+    synchronized public int get() {
+        if (this.total < 0) {
+            this.total = this.CALCULATOR.getAsInt();
+        } else {
+            for (Element element : this.PENDING) {
+                this.total += element.calculateSize();
+            }
+        }
+
+        this.PENDING.clear();
+        return this.total;
+    }
+
+    /**
+     * Reports that an element is about to change. Must be called before the
+     * change is made, while the element still has the size that was counted.
+     *
+     * @param element The element.
+     */
+    synchronized public void changing(Element element) {
+        if (this.total >= 0 && this.PENDING.add(element)) {
+            this.total -= element.calculateSize();
+        }
+    }
+
+    /**
+     * Reports that an element was added.
+     *
+     * @param element The element.
+     */
+    synchronized public void added(Element element) {
+        if (this.total >= 0) {
+            this.PENDING.add(element);
+        }
+    }
+
+    /**
+     * Reports that an element was removed.
+     *
+     * @param element The element.
+     */
+    synchronized public void removed(Element element) {
+        if (this.total >= 0 && !this.PENDING.remove(element)) {
+            this.total -= element.calculateSize();
+        }
+    }
+
+    /**
+     * Discards the total, so that it will be calculated in full next time.
+     */
+    synchronized public void invalidate() {
+        this.total = -1;
+        this.PENDING.clear();
+    }
+
+    /**
+     * Reports that an element is about to change, if it belongs to a
+     * <code>SizeCache</code>.
+     *
+     * @param cache The <code>SizeCache</code>, or null.
+     * @param element The element.
+     */
+    static public void changing(SizeCache cache, Element element) {
+        if (cache != null) {
+            cache.changing(element);
+        }
+    }
+
+    /**
+     * An element that can change after being counted by a
+     * <code>SizeCache</code>. The collection that holds the element tells it
+     * which cache to report to.
+     */
+    static public interface Member extends Element {
+
+        /**
+         * @param cache The <code>SizeCache</code> that counts the element, or
+         * null if it has been removed.
+         */
+        public void setSizeCache(SizeCache cache);
+    }
+
+    final private IntSupplier CALCULATOR;
+    final private Set<Element> PENDING;
+    private int total;
+
+}
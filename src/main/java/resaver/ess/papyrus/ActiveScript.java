@@ -32,13 +32,14 @@ import resaver.ess.Element;
 import resaver.ess.Linkable;
 import resaver.ess.Plugin;
 import resaver.ess.RefID;
+import resaver.ess.SizeCache;
 
 /**
  * Describes an active script in a Skyrim savegame.
  *
  * @author Mark Fairchild
  */
-final public class ActiveScript implements AnalyzableElement, HasID, SeparateData {
+final public class ActiveScript implements AnalyzableElement, HasID, SeparateData, SizeCache.Member {
 
     /**
      * Creates a new <code>ActiveScript</code> by reading from a
@@ -78,6 +79,7 @@ final public class ActiveScript implements AnalyzableElement, HasID, SeparateDat
      */
     @Override
     public void readData(ByteBuffer input, PapyrusContext context) throws PapyrusElementException, PapyrusFormatException {
+        this.changing();
         try {
             this.data = new ActiveScriptData(input, context);
         } catch (PapyrusElementException ex) {
@@ -119,9 +121,27 @@ final public class ActiveScript implements AnalyzableElement, HasID, SeparateDat
      * Replaces the opcodes of each <code>StackFrame</code> with NOPs.
      */
     public void zero() {
+        this.changing();
         this.getStackFrames().forEach(f -> f.zero());
     }
 
+    /**
+     * @see SizeCache.Member#setSizeCache(resaver.ess.SizeCache)
+     * @param cache
+     */
+    @Override
+    public void setSizeCache(SizeCache cache) {
+        this.sizeCache = cache;
+    }
+
+    /**
+     * Reports that the thread is about to change size. Its
+     * <code>StackFrame</code> objects call this too.
+     */
+    void changing() {
+        SizeCache.changing(this.sizeCache, this);
+    }
+
     /**
      * @return The ID of the papyrus element.
      */
@@ -516,6 +536,7 @@ final public class ActiveScript implements AnalyzableElement, HasID, SeparateDat
     final private byte TYPE;
     private ActiveScriptData data;
     private AnalyzableElement owner;
+    private SizeCache sizeCache;
     private SuspendedStack suspendedStack;
     private FunctionMessage message;
     static final private Logger LOG = Logger.getLogger(ActiveScript.class.getCanonicalName());
@@ -25,9 +25,11 @@ import java.nio.ByteBuffer;
 import java.text.MessageFormat;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 import resaver.ess.ESS;
 import resaver.ess.Linkable;
 import resaver.ess.Element;
+import resaver.ess.SizeCache;
 
 /**
  * Describes an array in a Skyrim savegame.
@@ -35,7 +37,7 @@ import resaver.ess.Element;
  * @author Mark Fairchild
  */
 final public class ArrayInfo implements AnalyzableElement, HasID, SeparateData,
-        HasVariables {
+        HasVariables, SizeCache.Member {
 
     /**
      * Creates a new <code>ArrayInfo</code> by reading from a
@@ -86,9 +88,26 @@ final public class ArrayInfo implements AnalyzableElement, HasID, SeparateData,
      */
     @Override
     public void readData(ByteBuffer input, PapyrusContext context) throws PapyrusElementException, PapyrusFormatException {
+        this.changing();
         this.data = new ArrayData(input, context);
     }
 
+    /**
+     * @see SizeCache.Member#setSizeCache(resaver.ess.SizeCache)
+     * @param cache
+     */
+    @Override
+    public void setSizeCache(SizeCache cache) {
+        this.sizeCache = cache;
+    }
+
+    /**
+     * Reports that the array is about to change size.
+     */
+    private void changing() {
+        SizeCache.changing(this.sizeCache, this);
+    }
+
     /**
      * @see SeparateData#writeData(java.nio.ByteBuffer)
      * @param output
@@ -286,6 +305,15 @@ final public class ArrayInfo implements AnalyzableElement, HasID, SeparateData,
                 : Collections.unmodifiableList(this.data.VARIABLES);
     }
 
+    /**
+     * @see HasVariables#getReferents()
+     * @return
+     */
+    @Override
+    public Stream<PapyrusElement> getReferents() {
+        return this.data == null ? Stream.empty() : this.data.VARIABLES.referents();
+    }
+
     /**
      * @see HasVariables#getDescriptors() 
      * @return An empty <code>List</code>.
@@ -309,6 +337,7 @@ final public class ArrayInfo implements AnalyzableElement, HasID, SeparateData,
             throw new IllegalArgumentException("Invalid variable index: " + index);
         }
         
+        this.changing();
         this.data.VARIABLES.set(index, newVar);
     }
 
@@ -317,6 +346,7 @@ final public class ArrayInfo implements AnalyzableElement, HasID, SeparateData,
     final private TString REFTYPE;
     private int LENGTH;
     private ArrayData data;
+    private SizeCache sizeCache;
 
     public void shiftUp(int index)
     {
@@ -329,6 +359,7 @@ final public class ArrayInfo implements AnalyzableElement, HasID, SeparateData,
             throw new IllegalArgumentException(MessageFormat.format("Invalid index {0}; size is {1}.", index, this.data.VARIABLES.size()));
         }
         
+        this.changing();
         Variable first = this.data.VARIABLES.get(index-1);
         Variable second = this.data.VARIABLES.get(index);
         this.data.VARIABLES.set(index, first);
@@ -350,6 +381,7 @@ final public class ArrayInfo implements AnalyzableElement, HasID, SeparateData,
             throw new IllegalArgumentException(MessageFormat.format("Invalid index {0}; size is {1}.", index, this.data.VARIABLES.size()));
         }
         
+        this.changing();
         this.data.VARIABLES.remove(index);
         this.LENGTH = this.data.VARIABLES.size();
         return index;
@@ -375,6 +407,7 @@ final public class ArrayInfo implements AnalyzableElement, HasID, SeparateData,
         }
         
         int index = this.data.VARIABLES.size();
+        this.changing();
         this.data.VARIABLES.add(newVar);
         this.LENGTH = this.data.VARIABLES.size();
         return index;
@@ -424,7 +457,7 @@ final public class ArrayInfo implements AnalyzableElement, HasID, SeparateData,
         @Override
         public void write(ByteBuffer output) {
             ID.write(output);
-            this.VARIABLES.forEach(var -> var.write(output));
+            this.VARIABLES.write(output);
         }
 
         /**
@@ -434,7 +467,7 @@ final public class ArrayInfo implements AnalyzableElement, HasID, SeparateData,
         @Override
         public int calculateSize() {
             int sum = ID.calculateSize();
-            sum += this.VARIABLES.stream().mapToInt(var -> var.calculateSize()).sum();
+            sum += this.VARIABLES.calculateSize();
             return sum;
         }
 
@@ -447,7 +480,7 @@ final public class ArrayInfo implements AnalyzableElement, HasID, SeparateData,
         }
 
         //final private EID ID;
-        final private List<Variable> VARIABLES;
+        final private VariableList VARIABLES;
 
     }
 }
@@ -21,6 +21,7 @@ import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Optional;
 import resaver.ess.AnalyzableElement;
+import resaver.ess.SizeCache;
 
 /**
  * <code>DefinedElement</code> is a superclass of <code>ScriptInstance</code>,
@@ -29,7 +30,7 @@ import resaver.ess.AnalyzableElement;
  *
  * @author Mark Fairchild
  */
-abstract public class DefinedElement implements PapyrusElement, HasID, AnalyzableElement {
+abstract public class DefinedElement implements PapyrusElement, HasID, AnalyzableElement, SizeCache.Member {
 
     /**
      * Creates a new <code>DefinedElement</code> by reading from a
@@ -78,6 +79,24 @@ abstract public class DefinedElement implements PapyrusElement, HasID, Analyzabl
         return sum;
     }
 
+    /**
+     * @see SizeCache.Member#setSizeCache(resaver.ess.SizeCache)
+     * @param cache
+     */
+    @Override
+    public void setSizeCache(SizeCache cache) {
+        this.sizeCache = cache;
+    }
+
+    /**
+     * Reports that the element is about to change size. Subclasses must call
+     * this before modifying anything that is counted by
+     * <code>calculateSize</code>.
+     */
+    protected void changing() {
+        SizeCache.changing(this.sizeCache, this);
+    }
+
     /**
      * @return The ID of the papyrus element.
      */
@@ -143,4 +162,5 @@ abstract public class DefinedElement implements PapyrusElement, HasID, Analyzabl
     final private EID ID;
     final private TString DEFINITION_NAME;
     final private Definition DEFINITION;
+    private SizeCache sizeCache;
 }
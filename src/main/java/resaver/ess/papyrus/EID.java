@@ -62,7 +62,7 @@ abstract public class EID implements PapyrusElement, Comparable<EID> {
      * @return The <code>EID</code>.
      */
     static public EID make4byte(int val, Papyrus pap) {
-        return pap.EIDS.computeIfAbsent(val, v -> new EID32(val));
+        return pap.EIDS32.computeIfAbsent(val, EID32::new);
     }
 
     /**
@@ -74,7 +74,7 @@ abstract public class EID implements PapyrusElement, Comparable<EID> {
      * @return The <code>EID</code>.
      */
     static public EID make8Byte(long val, Papyrus pap) {
-        return pap.EIDS.computeIfAbsent(val, v -> new EID64(val));
+        return pap.EIDS64.computeIfAbsent(val, EID64::new);
     }
 
     /**
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package resaver.ess.papyrus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import resaver.ess.Element;
+import resaver.ess.Plugin;
+
+/**
+ * The cross-reference graph of a savefile, in compact form.
+ *
+ * Every element gets a dense integer id, and the edges are stored as
+ * compressed sparse rows: the successors of node <code>i</code> are
+ * <code>TARGETS[OFFSETS[i]]</code> up to <code>TARGETS[OFFSETS[i+1]]</code>.
+ * The reverse edges are stored the same way, so that the referrers of an
+ * element can be found without searching the whole graph.
+ *
+ * Removing elements doesn't rebuild the graph; removed elements are just
+ * marked, and are skipped by queries.
+ *
+ * @author Mark Fairchild
+ */
+final class ElementGraph {
+
+    /**
+     * Builds the graph from a search.
+     *
+     * @param search A search that reports every edge to a consumer, like
+     * <code>PapyrusContext.search</code>.
+     * @return The graph.
+     */
+    static ElementGraph build(java.util.function.Consumer<BiConsumer<Element, Element>> search) {
+        final Map<Element, Integer> IDS = new HashMap<>(100_000);
+        final ArrayList<Element> NODES = new ArrayList<>(100_000);
+        final int[][] EDGES = {new int[1 << 16], new int[1 << 16]};
+        final int[] COUNT = {0};
+
+        search.accept((a, b) -> {
+            final int SRC = IDS.computeIfAbsent(a, k -> { NODES.add(k); return NODES.size() - 1; });
+            final int DST = IDS.computeIfAbsent(b, k -> { NODES.add(k); return NODES.size() - 1; });
+            if (COUNT[0] == EDGES[0].length) {
+                EDGES[0] = Arrays.copyOf(EDGES[0], 2 * COUNT[0]);
+                EDGES[1] = Arrays.copyOf(EDGES[1], 2 * COUNT[0]);
+            }
+            EDGES[0][COUNT[0]] = SRC;
+            EDGES[1][COUNT[0]] = DST;
+            COUNT[0]++;
+        });
+
+        return new ElementGraph(IDS, NODES.toArray(new Element[0]), EDGES[0], EDGES[1], COUNT[0]);
+    }
+
+    /**
+     * Creates a new <code>ElementGraph</code> from a list of edges. Duplicate
+     * edges are dropped.
+     *
+     * @param ids The id of each element.
+     * @param nodes The element for each id.
+     * @param sources The source of each edge.
+     * @param targets The target of each edge.
+     * @param edgeCount The number of edges.
+     */
+    private ElementGraph(Map<Element, Integer> ids, Element[] nodes, int[] sources, int[] targets, int edgeCount) {
+        this.IDS = ids;
+        this.NODES = nodes;
+        this.OFFSETS = new int[nodes.length + 1];
+
+        // Counting sort by source.
+        for (int i = 0; i < edgeCount; i++) {
+            this.OFFSETS[sources[i] + 1]++;
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            this.OFFSETS[i + 1] += this.OFFSETS[i];
+        }
+
+        final int[] FILL = Arrays.copyOf(this.OFFSETS, nodes.length);
+        final int[] SORTED = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            SORTED[FILL[sources[i]]++] = targets[i];
+        }
+
+        // Sort and deduplicate each row, compacting as we go.
+        int out = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            final int START = this.OFFSETS[i];
+            final int END = this.OFFSETS[i + 1];
+            Arrays.sort(SORTED, START, END);
+            this.OFFSETS[i] = out;
+            for (int j = START; j < END; j++) {
+                if (j == START || SORTED[j] != SORTED[j - 1]) {
+                    SORTED[out++] = SORTED[j];
+                }
+            }
+        }
+        this.OFFSETS[nodes.length] = out;
+        this.TARGETS = Arrays.copyOf(SORTED, out);
+
+        // The reverse edges, by another counting sort.
+        this.REVERSE_OFFSETS = new int[nodes.length + 1];
+        for (int target : this.TARGETS) {
+            this.REVERSE_OFFSETS[target + 1]++;
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            this.REVERSE_OFFSETS[i + 1] += this.REVERSE_OFFSETS[i];
+        }
+
+        final int[] REVERSE_FILL = Arrays.copyOf(this.REVERSE_OFFSETS, nodes.length);
+        this.SOURCES = new int[out];
+        for (int i = 0; i < nodes.length; i++) {
+            for (int j = this.OFFSETS[i]; j < this.OFFSETS[i + 1]; j++) {
+                this.SOURCES[REVERSE_FILL[this.TARGETS[j]]++] = i;
+            }
+        }
+
+        this.REMOVED = new BitSet(nodes.length);
+    }
+
+    /**
+     * @return The number of elements in the graph.
+     */
+    int size() {
+        return this.NODES.length;
+    }
+
+    /**
+     * @param element An element.
+     * @return The id of the element, or -1 if it isn't in the graph.
+     */
+    int id(Element element) {
+        return this.IDS.getOrDefault(element, -1);
+    }
+
+    /**
+     * @param id An id.
+     * @return The element with the id.
+     */
+    Element get(int id) {
+        return this.NODES[id];
+    }
+
+    /**
+     * @param id An id.
+     * @return The number of successors of the element with the id.
+     */
+    int degree(int id) {
+        return this.OFFSETS[id + 1] - this.OFFSETS[id];
+    }
+
+    /**
+     * Finds the elements that refer directly to an element, skipping any that
+     * have been removed. This takes time proportional to the number of
+     * referrers.
+     *
+     * @param element The element.
+     * @return The elements that refer to it.
+     */
+    synchronized List<Element> referrers(Element element) {
+        final int ID = this.id(element);
+        if (ID < 0 || this.REMOVED.get(ID)) {
+            return java.util.Collections.emptyList();
+        }
+
+        final List<Element> REFERRERS = new ArrayList<>(this.REVERSE_OFFSETS[ID + 1] - this.REVERSE_OFFSETS[ID]);
+        for (int i = this.REVERSE_OFFSETS[ID]; i < this.REVERSE_OFFSETS[ID + 1]; i++) {
+            if (!this.REMOVED.get(this.SOURCES[i])) {
+                REFERRERS.add(this.NODES[this.SOURCES[i]]);
+            }
+        }
+        return REFERRERS;
+    }
+
+    /**
+     * Marks elements as removed, so that they no longer show up as
+     * referrers. Elements that aren't in the graph are ignored.
+     *
+     * @param elements The elements that were removed.
+     */
+    synchronized void remove(Collection<? extends Element> elements) {
+        elements.stream()
+                .mapToInt(this::id)
+                .filter(id -> id >= 0)
+                .forEach(this.REMOVED::set);
+    }
+
+    /**
+     * For each plugin, finds the elements that belong to it alone.
+     *
+     * Starting from the elements that each plugin refers to directly, the
+     * reachable sets are extended one level at a time. After each level, any
+     * element that has been reached from more than one plugin is eliminated:
+     * it is dropped from every plugin and is never extended through. This
+     * repeats until nothing changes. Finally, each plugin gets back the
+     * elements that it refers to directly, eliminated or not.
+     *
+     * The reachable sets are bitsets, so elimination is a word-parallel pass
+     * over all of the plugins at once, and each plugin is extended on its own
+     * thread.
+     *
+     * @param plugins The plugins.
+     * @return A map from each plugin to the elements that belong to it.
+     */
+    Map<Plugin, Set<Element>> partition(Collection<Plugin> plugins) {
+        final int[] KERNEL = plugins.stream()
+                .mapToInt(this::id)
+                .filter(id -> id >= 0 && this.degree(id) > 0)
+                .toArray();
+
+        final int WORDS = (this.NODES.length + 63) >>> 6;
+        final long[][] REACH = new long[KERNEL.length][WORDS];
+        final long[] ELIMINATED = new long[WORDS];
+        final int[][] FRONTIERS = new int[KERNEL.length][];
+
+        for (int p = 0; p < KERNEL.length; p++) {
+            FRONTIERS[p] = Arrays.copyOfRange(this.TARGETS, this.OFFSETS[KERNEL[p]], this.OFFSETS[KERNEL[p] + 1]);
+            for (int target : FRONTIERS[p]) {
+                REACH[p][target >>> 6] |= 1L << target;
+            }
+        }
+
+        while (true) {
+            // Eliminate anything reachable from two or more plugins. Each
+            // word is independent of the others.
+            final boolean CLEANED = IntStream.range(0, WORDS).parallel().map(w -> {
+                long once = 0L;
+                long twice = 0L;
+                for (long[] reach : REACH) {
+                    twice |= once & reach[w];
+                    once |= reach[w];
+                }
+                if (twice == 0L) {
+                    return 0;
+                }
+                for (long[] reach : REACH) {
+                    reach[w] &= ~twice;
+                }
+                ELIMINATED[w] |= twice;
+                return 1;
+            }).sum() > 0;
+
+            // Extend each plugin by one level. Each plugin only writes to
+            // its own bitset and frontier.
+            final boolean EXTENDED = IntStream.range(0, KERNEL.length).parallel().map(p -> {
+                final long[] REACHABLE = REACH[p];
+                final IntStream.Builder NEXT = IntStream.builder();
+                boolean extended = false;
+
+                for (int node : FRONTIERS[p]) {
+                    if (isSet(ELIMINATED, node)) {
+                        continue;
+                    }
+                    for (int i = this.OFFSETS[node]; i < this.OFFSETS[node + 1]; i++) {
+                        final int TARGET = this.TARGETS[i];
+                        if (!isSet(ELIMINATED, TARGET) && !isSet(REACHABLE, TARGET)) {
+                            REACHABLE[TARGET >>> 6] |= 1L << TARGET;
+                            NEXT.add(TARGET);
+                            extended = true;
+                        }
+                    }
+                }
+
+                FRONTIERS[p] = NEXT.build().toArray();
+                return extended ? 1 : 0;
+            }).sum() > 0;
+
+            if (!CLEANED && !EXTENDED) {
+                break;
+            }
+        }
+
+        return IntStream.range(0, KERNEL.length).parallel().boxed().collect(Collectors.toMap(
+                p -> (Plugin) this.NODES[KERNEL[p]],
+                p -> {
+                    final long[] REACHABLE = REACH[p];
+                    for (int i = this.OFFSETS[KERNEL[p]]; i < this.OFFSETS[KERNEL[p] + 1]; i++) {
+                        REACHABLE[this.TARGETS[i] >>> 6] |= 1L << this.TARGETS[i];
+                    }
+
+                    final Set<Element> ELEMENTS = new HashSet<>();
+                    for (int w = 0; w < WORDS; w++) {
+                        for (long bits = REACHABLE[w]; bits != 0L; bits &= bits - 1) {
+                            ELEMENTS.add(this.NODES[(w << 6) + Long.numberOfTrailingZeros(bits)]);
+                        }
+                    }
+                    return ELEMENTS;
+                }));
+    }
+
+    /**
+     * @param bits A bitset.
+     * @param index An index.
+     * @return True if the bit is set.
+     */
+    static private boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0L;
+    }
+
+    final private Map<Element, Integer> IDS;
+    final private Element[] NODES;
+    final private int[] OFFSETS;
+    final private int[] TARGETS;
+    final private int[] REVERSE_OFFSETS;
+    final private int[] SOURCES;
+    final private BitSet REMOVED;
+
+}
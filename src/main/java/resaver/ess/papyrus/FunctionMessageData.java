@@ -19,6 +19,7 @@ import resaver.ListException;
 import resaver.ess.AnalyzableElement;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 import java.util.Objects;
 import resaver.IString;
 import java.nio.ByteBuffer;
@@ -47,6 +48,7 @@ public class FunctionMessageData implements AnalyzableElement, HasVariables {
         Objects.requireNonNull(input);
         Objects.requireNonNull(context);
 
+        this.PARENT = parent;
         this.FN_FLAGS = Flags.readByteFlags(input);
         this.SCRIPTNAME = context.readTString(input);
         this.SCRIPT = context.findScript(this.SCRIPTNAME);
@@ -73,7 +75,7 @@ public class FunctionMessageData implements AnalyzableElement, HasVariables {
         this.EVENT.write(output);
         this.UNKNOWNVAR.write(output);
         output.putInt(this.VARIABLES.size());
-        this.VARIABLES.forEach(var -> var.write(output));
+        this.VARIABLES.write(output);
     }
 
     /**
@@ -87,7 +89,7 @@ public class FunctionMessageData implements AnalyzableElement, HasVariables {
         sum += this.EVENT.calculateSize();
         sum += this.UNKNOWNVAR.calculateSize();
         sum += 4;
-        sum += this.VARIABLES.stream().mapToInt(var -> var.calculateSize()).sum();
+        sum += this.VARIABLES.calculateSize();
         return sum;
     }
 
@@ -123,6 +125,15 @@ public class FunctionMessageData implements AnalyzableElement, HasVariables {
                 : Collections.unmodifiableList(this.VARIABLES);
     }
 
+    /**
+     * @see HasVariables#getReferents()
+     * @return
+     */
+    @Override
+    public Stream<PapyrusElement> getReferents() {
+        return this.VARIABLES == null ? Stream.empty() : this.VARIABLES.referents();
+    }
+
     /**
      * @see HasVariables#getDescriptors() 
      * @return 
@@ -148,6 +159,9 @@ public class FunctionMessageData implements AnalyzableElement, HasVariables {
             throw new IllegalArgumentException("Invalid variable index: " + index);
         }
         
+        if (this.PARENT instanceof SuspendedStack) {
+            ((SuspendedStack) this.PARENT).changing();
+        }
         this.VARIABLES.set(index, newVar);
     }
 
@@ -258,10 +272,11 @@ public class FunctionMessageData implements AnalyzableElement, HasVariables {
         else return !Script.NATIVE_SCRIPTS.contains(this.SCRIPTNAME.toWString());
     }
 
+    final private PapyrusElement PARENT;
     final private Flags.Byte FN_FLAGS;
     final private TString SCRIPTNAME;
     final private Script SCRIPT;
     final private TString EVENT;
     final private Variable UNKNOWNVAR;
-    final private List<Variable> VARIABLES;
+    final private VariableList VARIABLES;
 }
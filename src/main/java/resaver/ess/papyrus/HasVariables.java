@@ -16,6 +16,7 @@
 package resaver.ess.papyrus;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  *
@@ -43,6 +44,14 @@ public interface HasVariables extends PapyrusElement {
      */
     public void setVariable(int index, Variable newVar);
 
+    /**
+     * @return A stream of the elements that the <code>Variable</code> objects
+     * refer to.
+     */
+    default public Stream<PapyrusElement> getReferents() {
+        return VariableList.referents(this.getVariables());
+    }
+
     /**
      * @return A new <code>List</code> made by pairing each
      * <code>Variable</code> with its corresponding <code>MemberDesc</code>.
@@ -58,7 +58,8 @@ final public class Papyrus implements PapyrusElement, GlobalDataBlock {
         });
 
         this.CONTEXT = new PapyrusContext(context, this);
-        this.EIDS = new java.util.HashMap<>(100_000);
+        this.EIDS32 = new mf.IntInterner<>(100_000);
+        this.EIDS64 = new mf.LongInterner<>(100_000);
 
         try {
             if (input.limit() - input.position() < 7) {
@@ -752,6 +753,11 @@ final public class Papyrus implements PapyrusElement, GlobalDataBlock {
     /**
      * Removes a <code>PapyrusElement</code> collection.
      *
+     * Removing a <code>Script</code> or <code>Struct</code> also removes its
+     * instances. The definitions in the collection are gathered first, so
+     * that the instances of all of them are found in a single pass, no
+     * matter how many definitions are being removed.
+     *
      * @param elements The elements to remove.
      * @return The elements that were removed.
      *
@@ -761,54 +767,66 @@ final public class Papyrus implements PapyrusElement, GlobalDataBlock {
             throw new NullPointerException("The set of elements to remove must not be null and must not contain null.");
         }
 
-        final java.util.LinkedList<PapyrusElement> ELEMENTS = new java.util.LinkedList<>(elements);
-        final java.util.Set<PapyrusElement> REMOVED = new java.util.HashSet<>(ELEMENTS.size());
+        final java.util.Set<PapyrusElement> REMOVED = new java.util.HashSet<>(elements.size());
+        final java.util.Set<Definition> SCRIPTS = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+        final java.util.Set<Definition> STRUCTS = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+
+        elements.stream().filter(e -> e instanceof Script).map(e -> (Definition) e).forEach(SCRIPTS::add);
+        elements.stream().filter(e -> e instanceof Struct).map(e -> (Definition) e).forEach(STRUCTS::add);
+
+        SCRIPTS.forEach(def -> REMOVED.add(this.getScripts().remove(def.getName())));
+        STRUCTS.forEach(def -> REMOVED.add(this.getStructs().remove(def.getName())));
 
-        while (!ELEMENTS.isEmpty()) {
-            final PapyrusElement ELEMENT = ELEMENTS.pop();
+        if (!SCRIPTS.isEmpty()) {
+            this.getScriptInstances().values().parallelStream()
+                    .filter(v -> SCRIPTS.contains(v.getDefinition()))
+                    .collect(Collectors.toList())
+                    .forEach(v -> REMOVED.add(this.getScriptInstances().remove(v.getID())));
+        }
 
-            if (ELEMENT instanceof Script) {
-                final Definition DEF = (Definition) ELEMENT;
-                ELEMENTS.addAll(this.getScriptInstances().values().parallelStream().filter(v -> v.getDefinition() == DEF).collect(Collectors.toSet()));
-                REMOVED.add(this.getScripts().remove(DEF.getName()));
+        if (!STRUCTS.isEmpty()) {
+            this.getStructInstances().values().parallelStream()
+                    .filter(v -> STRUCTS.contains(v.getDefinition()))
+                    .collect(Collectors.toList())
+                    .forEach(v -> REMOVED.add(this.getStructInstances().remove(v.getID())));
+        }
 
-            } else if (ELEMENT instanceof Struct) {
-                final Struct DEF = (Struct) ELEMENT;
-                ELEMENTS.addAll(this.getStructInstances().values().parallelStream().filter(v -> v.getDefinition() == DEF).collect(Collectors.toSet()));
-                REMOVED.add(this.getStructs().remove(DEF.getName()));
+        for (PapyrusElement element : elements) {
+            if (element instanceof Script || element instanceof Struct) {
+                // Already done.
 
-            } else if (ELEMENT instanceof ScriptInstance) {
-                final ScriptInstance INSTANCE = (ScriptInstance) ELEMENT;
+            } else if (element instanceof ScriptInstance) {
+                final ScriptInstance INSTANCE = (ScriptInstance) element;
                 if (this.getScriptInstances().containsKey(INSTANCE.getID())) {
                     REMOVED.add(this.getScriptInstances().remove(INSTANCE.getID()));
                 }
 
-            } else if (ELEMENT instanceof StructInstance) {
-                final StructInstance STRUCT = (StructInstance) ELEMENT;
+            } else if (element instanceof StructInstance) {
+                final StructInstance STRUCT = (StructInstance) element;
                 if (this.getStructInstances().containsKey(STRUCT.getID())) {
                     REMOVED.add(this.getStructInstances().remove(STRUCT.getID()));
                 }
 
-            } else if (ELEMENT instanceof Reference) {
-                final Reference REF = (Reference) ELEMENT;
+            } else if (element instanceof Reference) {
+                final Reference REF = (Reference) element;
                 if (this.getReferences().containsKey(REF.getID())) {
                     REMOVED.add(this.getReferences().remove(REF.getID()));
                 }
 
-            } else if (ELEMENT instanceof ArrayInfo) {
-                final ArrayInfo ARRAY = (ArrayInfo) ELEMENT;
+            } else if (element instanceof ArrayInfo) {
+                final ArrayInfo ARRAY = (ArrayInfo) element;
                 if (this.getArrays().containsKey(ARRAY.getID())) {
                     REMOVED.add(this.getArrays().remove(ARRAY.getID()));
                 }
 
-            } else if (ELEMENT instanceof ActiveScript) {
-                final ActiveScript ACTIVE = (ActiveScript) ELEMENT;
+            } else if (element instanceof ActiveScript) {
+                final ActiveScript ACTIVE = (ActiveScript) element;
                 if (this.getActiveScripts().containsKey(ACTIVE.getID())) {
                     REMOVED.add(this.getActiveScripts().remove(ACTIVE.getID()));
                 }
 
-            } else if (ELEMENT instanceof SuspendedStack) {
-                final SuspendedStack STACK = (SuspendedStack) ELEMENT;
+            } else if (element instanceof SuspendedStack) {
+                final SuspendedStack STACK = (SuspendedStack) element;
                 if (this.getSuspendedStacks1().containsKey(STACK.getID())) {
                     REMOVED.add(this.getSuspendedStacks1().remove(STACK.getID()));
                 } else if (this.getSuspendedStacks2().containsKey(STACK.getID())) {
@@ -816,12 +834,12 @@ final public class Papyrus implements PapyrusElement, GlobalDataBlock {
                 }
 
             } else {
-                LOG.warning(String.format("Papyrus.removeElements: can't delete element: %s", ELEMENT));
+                LOG.warning(String.format("Papyrus.removeElements: can't delete element: %s", element));
             }
-
         }
 
         REMOVED.remove(null);
+        this.CONTEXT.removeCrossreferences(REMOVED);
         return REMOVED;
     }
 
@@ -835,52 +853,51 @@ final public class Papyrus implements PapyrusElement, GlobalDataBlock {
 
     /**
      * Searches for all <code>Linkable</code> elements that refer to the
-     * specified ID.
+     * specified element. Only the element's referrers in the cross-reference
+     * are examined, rather than everything in the savefile.
      *
-     * @param id
+     * @param ref
      * @return
      */
-    private ReferrentMap findMatches(EID id) {
+    private ReferrentMap findMatches(DefinedElement ref) {
+        final EID ID = ref.getID();
+        final List<Element> REFERRERS = this.CONTEXT.findReferrers(ref);
         final ReferrentMap REFERRENTS = new ReferrentMap();
 
-        REFERRENTS.put(ScriptInstance.class, this.getScriptInstances().values().stream()
-                .filter(v -> !id.equals(v.getID()))
-                .filter(v -> v.getData() != null)
-                .filter(v -> v.getVariables().stream().anyMatch(m -> m.hasRef(id)))
-                .collect(Collectors.toSet()));
-
-        REFERRENTS.put(Reference.class, this.getReferences().values().stream()
-                .filter(v -> !id.equals(v.getID()))
-                .filter(v -> v.getVariables().stream().anyMatch(m -> m.hasRef(id)))
-                .collect(Collectors.toSet()));
+        REFERRENTS.put(ScriptInstance.class, referrersOfType(REFERRERS, ScriptInstance.class, v -> !ID.equals(v.getID()) && v.getData() != null));
+        REFERRENTS.put(Reference.class, referrersOfType(REFERRERS, Reference.class, v -> !ID.equals(v.getID())));
+        REFERRENTS.put(ArrayInfo.class, referrersOfType(REFERRERS, ArrayInfo.class, v -> true));
+        REFERRENTS.put(StructInstance.class, referrersOfType(REFERRERS, StructInstance.class, v -> !ID.equals(v.getID())));
 
-        REFERRENTS.put(ArrayInfo.class, this.getArrays().values().stream()
-                .filter(v -> v.getVariables().stream().anyMatch(m -> m.hasRef(id)))
-                .collect(Collectors.toSet()));
+        REFERRENTS.put(ActiveScript.class, referrersOfType(REFERRERS, ActiveScript.class, v -> ID.equals(v.getAttached())
+                || v.getStackFrames().stream().anyMatch(s -> s.getOwner() != null && s.getOwner().hasRef(ID))));
 
-        REFERRENTS.put(ActiveScript.class, this.getActiveScripts().values().stream()
-                .filter(v -> !id.equals(v.getID()))
-                .filter(v -> v.getAttached() == id)
-                .collect(Collectors.toSet()));
-
-        REFERRENTS.put(ActiveScript.class, this.getActiveScripts().values().stream()
-                .flatMap(t -> t.getStackFrames().stream())
-                .filter(s -> s.getOwner().hasRef(id))
-                .collect(Collectors.toSet()));
-
-        REFERRENTS.put(StackFrame.class, this.getActiveScripts().values().stream()
-                .flatMap(t -> t.getStackFrames().stream())
-                .filter(s -> s.getVariables().stream().anyMatch(m -> m.hasRef(id)))
-                .collect(Collectors.toSet()));
-
-        REFERRENTS.put(StructInstance.class, this.getStructInstances().values().stream()
-                .filter(v -> !id.equals(v.getID()))
-                .filter(v -> v.getVariables().stream().anyMatch(m -> m.hasRef(id)))
+        REFERRENTS.put(StackFrame.class, REFERRERS.stream()
+                .filter(v -> v instanceof ActiveScript)
+                .flatMap(v -> ((ActiveScript) v).getStackFrames().stream())
+                .filter(s -> s.getVariables().stream().anyMatch(m -> m.hasRef(ID)))
                 .collect(Collectors.toSet()));
 
         return REFERRENTS;
     }
 
+    /**
+     * Helper for findMatches.
+     *
+     * @param <T> The type of referrer.
+     * @param referrers The referrers.
+     * @param type The type of referrer.
+     * @param filter An additional filter.
+     * @return The referrers of the specified type that pass the filter.
+     */
+    static private <T extends Linkable> Set<Linkable> referrersOfType(List<Element> referrers, Class<T> type, java.util.function.Predicate<T> filter) {
+        return referrers.stream()
+                .filter(type::isInstance)
+                .map(type::cast)
+                .filter(filter)
+                .collect(Collectors.toSet());
+    }
+
     /**
      * Searches for all <code>Linkable</code> elements that refer to the
      * specified ID and prints them to a <code>StringBuilder</code>.
@@ -890,7 +907,7 @@ final public class Papyrus implements PapyrusElement, GlobalDataBlock {
      * @param myName
      */
     public void printReferrents(DefinedElement ref, StringBuilder builder, String myName) {
-        final ReferrentMap REFERENTS = this.findMatches(ref.getID());
+        final ReferrentMap REFERENTS = this.findMatches(ref);
         referrentsPrint(ref, builder, REFERENTS.get(ActiveScript.class), myName, "threads", "attached to");
         referrentsPrint(ref, builder, REFERENTS.get(StackFrame.class), myName, "stackframes", "with member data referring to");
         referrentsPrint(ref, builder, REFERENTS.get(ScriptInstance.class), myName, "instances", "with member data referring to");
@@ -965,7 +982,8 @@ final public class Papyrus implements PapyrusElement, GlobalDataBlock {
     final private List<EID> UNKS;
     final private OtherData OTHER;
     final private byte[] ARRAYSBLOCK;
-    final java.util.Map<Number, EID> EIDS;
+    final mf.IntInterner<EID> EIDS32;
+    final mf.LongInterner<EID> EIDS64;
     static final private Logger LOG = Logger.getLogger(Papyrus.class.getCanonicalName());
 
 }
@@ -236,21 +236,34 @@ public class PapyrusContext extends resaver.ess.ESS.ESSContext {
     }
 
     void buildCrossreferences() {
-        generalCrossReference = createSearchMap();
-        search((a, b) -> generalCrossReference.computeIfAbsent(a, k -> createSearchSet()).add(b));
-        pluginsCrossReference = crossReferencePlugins();
+        generalCrossReference = ElementGraph.build(this::search);
+        pluginsCrossReference = generalCrossReference.partition(this.getESS().getPluginInfo().stream().collect(Collectors.toList()));
     }
 
-    private Map<Element, Set<Element>> getCrossreference(boolean copy) {
-        if (copy) {
-            final Map<Element, Set<Element>> copiedCrossReference = copySearchMap(generalCrossReference);
-            copiedCrossReference.replaceAll((k, v) -> copySearchSet(v));
-            return copiedCrossReference;
-        } else {
-            return generalCrossReference;
+    /**
+     * Drops removed elements from the cross-references, so that they are no
+     * longer reported as referrers.
+     *
+     * @param removed The elements that were removed.
+     */
+    void removeCrossreferences(java.util.Collection<? extends Element> removed) {
+        if (generalCrossReference != null) {
+            generalCrossReference.remove(removed);
         }
     }
 
+    /**
+     * Finds the elements that refer directly to an element.
+     *
+     * @param element The element.
+     * @return The elements that refer to it.
+     */
+    List<Element> findReferrers(Element element) {
+        return generalCrossReference == null
+                ? Collections.emptyList()
+                : generalCrossReference.referrers(element);
+    }
+
     public void search(BiConsumer<Element, Element> consumer) {
         final mf.ConsoleProgress PROGRESS = new mf.ConsoleProgress();
         PROGRESS.toggleQuiet();
@@ -274,11 +287,7 @@ public class PapyrusContext extends resaver.ess.ESS.ESSContext {
                 consumer.accept(instance, instance.getScript());
             }
 
-            instance.getVariables().stream()
-                    .filter(Objects::nonNull)
-                    .filter(var -> var.hasRef())
-                    .map(var -> var.getReferent())
-                    .filter(Objects::nonNull)
+            instance.getReferents()
                     .forEach(referent -> consumer.accept(instance, referent));
         });
 
@@ -288,11 +297,7 @@ public class PapyrusContext extends resaver.ess.ESS.ESSContext {
                 consumer.accept(instance, instance.getScript());
             }
 
-            instance.getVariables().stream()
-                    .filter(Objects::nonNull)
-                    .filter(var -> var.hasRef())
-                    .map(var -> var.getReferent())
-                    .filter(Objects::nonNull)
+            instance.getReferents()
                     .forEach(referent -> consumer.accept(instance, referent));
         });
 
@@ -302,11 +307,7 @@ public class PapyrusContext extends resaver.ess.ESS.ESSContext {
                 consumer.accept(instance, instance.getStruct());
             }
 
-            instance.getVariables().stream()
-                    .filter(Objects::nonNull)
-                    .filter(var -> var.hasRef())
-                    .map(var -> var.getReferent())
-                    .filter(Objects::nonNull)
+            instance.getReferents()
                     .forEach(referent -> consumer.accept(instance, referent));
         });
 
@@ -320,18 +321,14 @@ public class PapyrusContext extends resaver.ess.ESS.ESSContext {
             thread.getStackFrames().stream().filter(Objects::nonNull).forEach(frame -> {
                 Variable owner = frame.getOwner();
                 if (owner != null && owner.hasRef() && owner.getReferent() != null) {
-                    consumer.accept(thread, frame.getOwner());
+                    consumer.accept(thread, owner.getReferent());
                 }
 
                 if (frame.getScript() != null) {
                     consumer.accept(thread, frame.getScript());
                 }
 
-                frame.getVariables().stream()
-                        .filter(Objects::nonNull)
-                        .filter(var -> var.hasRef())
-                        .map(var -> var.getReferent())
-                        .filter(Objects::nonNull)
+                frame.getReferents()
                         .forEach(referent -> consumer.accept(thread, referent));
             });
         });
@@ -345,11 +342,7 @@ public class PapyrusContext extends resaver.ess.ESS.ESSContext {
             if (data != null) {
                 consumer.accept(stack, data);
 
-                data.getVariables().stream()
-                        .filter(Objects::nonNull)
-                        .filter(var -> var.hasRef())
-                        .map(var -> var.getReferent())
-                        .filter(Objects::nonNull)
+                data.getReferents()
                         .forEach(referent -> consumer.accept(stack, referent));
             }
         });
@@ -361,65 +354,27 @@ public class PapyrusContext extends resaver.ess.ESS.ESSContext {
                 if (data != null) {
                     consumer.accept(msg, data);
 
-                    data.getVariables().stream()
-                            .filter(Objects::nonNull)
-                            .filter(var -> var.hasRef())
-                            .map(var -> var.getReferent())
-                            .filter(Objects::nonNull)
+                    data.getReferents()
                             .forEach(referent -> consumer.accept(msg, referent));
                 }
             }
         });
 
         PROGRESS.reset("Arrays", this.getPapyrus().getArrays());
+        // Variant arrays can hold refs too, so every array is checked.
         PAPYRUS.getArrays().values().stream().filter(PROGRESS::inc).filter(Objects::nonNull).forEach(array -> {
-            if (array.getType().isRefType()) {
-                array.getVariables().stream()
-                        .filter(Objects::nonNull)
-                        .filter(var -> var.hasRef())
-                        .map(var -> var.getReferent())
-                        .filter(Objects::nonNull)
-                        .forEach(referent -> consumer.accept(array, referent));
-            }
+            array.getReferents()
+                    .forEach(referent -> consumer.accept(array, referent));
         });
     }
 
-    private Set<Element> createSearchSet() {
-        return new java.util.HashSet<>(30);
-    }
-
-    private Set<Element> copySearchSet(Set<Element> s) {
-        Objects.requireNonNull(s);
-        return new java.util.HashSet<>(s);
-    }
-
-    private Map<Element, Set<Element>> createSearchMap() {
-        return new java.util.HashMap<>();
-    }
-
-    private Map<Element, Set<Element>> copySearchMap(Map<Element, Set<Element>> m) {
-        Objects.requireNonNull(m);
-        return new java.util.HashMap<>(m);
-    }
-
     public List<DefinedElement> findReferees(Element element) {
-        final Map<Element, Set<Element>> REACHABILITY = getCrossreference(false);
-
-        final Set<Element> DIRECT = REACHABILITY.entrySet()
-                .stream()
-                .filter(entry -> entry.getValue().contains(element))
-                .map(entry -> entry.getKey())
-                .distinct()
-                .collect(Collectors.toSet());
+        final List<Element> DIRECT = this.findReferrers(element);
 
-        final Set<Element> SECONDARY = REACHABILITY.entrySet()
-                .stream()
-                .filter(entry -> entry.getValue().stream().anyMatch(e -> DIRECT.contains(e)))
-                .map(e -> e.getKey())
-                .distinct()
-                .collect(Collectors.toSet());
+        final Stream<Element> SECONDARY = DIRECT.stream()
+                .flatMap(e -> this.findReferrers(e).stream());
 
-        final List<DefinedElement> REFEREES = Stream.concat(DIRECT.stream(), SECONDARY.stream())
+        final List<DefinedElement> REFEREES = Stream.concat(DIRECT.stream(), SECONDARY)
                 .filter(e -> e instanceof DefinedElement)
                 .map(e -> (DefinedElement) e)
                 .distinct()
@@ -432,132 +387,6 @@ public class PapyrusContext extends resaver.ess.ESS.ESSContext {
         return pluginsCrossReference.getOrDefault(plugin, Collections.emptySet());
     }
 
-    private Map<Plugin, Set<Element>> crossReferencePlugins() {
-        //Map<Element, Set<Element>> REACHABILITY = createSearchMap();
-        //search((a,b) -> REACHABILITY.computeIfAbsent(a, k -> createSearchSet()).add(b));
-        final Map<Element, Set<Element>> REACHABILITY = getCrossreference(true);
-
-        Set<Element> ELIMINATED = new java.util.HashSet<>(50_000);
-        Plugin[] KERNEL = this.getESS().getPluginInfo()
-                .stream()
-                .filter(p -> REACHABILITY.containsKey(p))
-                .toArray(Plugin[]::new);
-
-        while (true) {
-            //System.out.println("Cross-referencing plugins: pass " + pass);
-            boolean removedIntersections = cleanReachability(REACHABILITY, ELIMINATED, KERNEL);
-            boolean extendedReachability = extendReachability(REACHABILITY, ELIMINATED, KERNEL);
-            if (!removedIntersections && !extendedReachability) {
-                break;
-            }
-        }
-        final mf.ConsoleProgress PROGRESS = new mf.ConsoleProgress();
-        PROGRESS.toggleQuiet();
-
-        PROGRESS.reset("Collecting plugin forms", this.getESS().getChangeForms());
-        this.getESS().getChangeForms().stream().filter(PROGRESS::inc).filter(Objects::nonNull).forEach(form -> {
-            Plugin p = form.getRefID().PLUGIN;
-            if (p != null) {
-                REACHABILITY.computeIfAbsent(p, k -> new java.util.HashSet<>()).add(form);
-            }
-        });
-
-        PROGRESS.reset("Collecting plugin scripts", this.getPapyrus().getScriptInstances());
-        PAPYRUS.getScriptInstances().values().stream().filter(PROGRESS::inc).filter(Objects::nonNull).forEach(instance -> {
-            if (instance.getRefID() != null && instance.getRefID().PLUGIN != null) {
-                Plugin p = instance.getRefID().PLUGIN;
-                REACHABILITY.computeIfAbsent(p, k -> new java.util.HashSet<>()).add(instance);
-            }
-        });
-
-        return REACHABILITY.entrySet()
-                .stream()
-                .filter(e -> e.getKey() instanceof Plugin)
-                .collect(Collectors.toMap(e -> (Plugin) e.getKey(), e -> e.getValue()));
-    }
-
-    static private <T> boolean extendReachability(Map<T, Set<T>> reachability, Set<T> ignore, T[] kernel) {
-        boolean extendedReach = false;
-
-        final mf.ConsoleProgress PROGRESS = new mf.ConsoleProgress();
-        PROGRESS.toggleQuiet();
-        PROGRESS.reset("\tExtending reachability", kernel);
-        
-        for (T kern : kernel) {
-            PROGRESS.inc();
-            Set<T> reachable = reachability.get(kern);
-            if (reachable != null) {
-                Set<T> alsoReachable = reachable.parallelStream()
-                        .flatMap(node -> reachability.getOrDefault(node, Collections.emptySet()).stream())
-                        .filter(Objects::nonNull)
-                        .filter(child -> !ignore.contains(child))
-                        .filter(child -> !reachable.contains(child))
-                        .collect(Collectors.toSet());
-
-                reachable.addAll(alsoReachable);
-                extendedReach = extendedReach || !alsoReachable.isEmpty();
-            }
-        }
-
-        return extendedReach;
-    }
-
-    static private <T> boolean cleanReachability(Map<T, Set<T>> reachability, Set<T> eliminated, T[] kernel) {
-        int intersections = 0;
-        final java.util.HashSet<T> intersection = new java.util.HashSet<>(2000);
-
-        final mf.ConsoleProgress PROGRESS = new mf.ConsoleProgress();
-        PROGRESS.toggleQuiet();
-        PROGRESS.reset("\tCleaning reachability", kernel);
-        
-        for (int i = 0; i < kernel.length; i++) {
-            PROGRESS.inc();
-            T kern1 = kernel[i];
-            Set<T> reachableFrom1 = reachability.get(kern1);
-            if (reachableFrom1 != null && !reachableFrom1.isEmpty()) {
-                for (int j = i + 1; j < kernel.length; j++) {
-                    T kern2 = kernel[j];
-                    Set<T> reachableFrom2 = reachability.get(kern2);
-                    if (reachableFrom2 != null && !reachableFrom2.isEmpty()) {
-                        /*
-                        intersection.clear();
-                        if (reachableFrom1.size() < reachableFrom2.size()) {
-                            intersection.addAll(reachableFrom1);
-                            intersection.retainAll(reachableFrom2);
-                        } else {
-                            intersection.addAll(reachableFrom2);
-                            intersection.retainAll(reachableFrom1);
-                        }*/
-                        intersect(reachableFrom1, reachableFrom2, intersection);
-
-                        reachableFrom1.removeAll(intersection);
-                        reachableFrom2.removeAll(intersection);
-                        reachability.keySet().removeAll(intersection);
-                        eliminated.addAll(intersection);
-                        intersections += intersection.size();
-                    }
-                }
-            }
-        }
-
-        return intersections > 0;
-    }
-
-    static private <T> void intersect(Set<T> a, Set<T> b, Set<T> intersection) {
-        if (a.size() > b.size()) {
-            intersect(b, a, intersection);
-        } else {
-            intersection.clear();
-            
-            for (T x : a) {
-                if (b.contains(x)) 
-                {
-                    intersection.add(x);
-                }
-            }
-        }
-    }
-    
     public Script findScript(TString name) {
         return this.PAPYRUS.getScripts().getOrDefault(name, null);
     }
@@ -601,6 +430,6 @@ public class PapyrusContext extends resaver.ess.ESS.ESSContext {
     //final private Map<Element, Set<Element>> REFEREES;
 
     private Map<Plugin, Set<Element>> pluginsCrossReference = null;
-    private Map<Element, Set<Element>> generalCrossReference = null;
+    private ElementGraph generalCrossReference = null;
 
 }
@@ -17,8 +17,13 @@ package resaver.ess.papyrus;
 
 import resaver.ListException;
 import java.nio.ByteBuffer;
+import resaver.ess.SizeCache;
 
 /**
+ * The size of the map is memoized. Definitions don't change size, so only
+ * adding and removing them needs to keep it up to date. Every mutator goes
+ * through <code>put</code> or <code>remove</code>, and the collection views
+ * are read-only.
  *
  * @author Mark
  * @param <T>
@@ -45,9 +50,133 @@ public class PapyrusDefinitionMap<T extends Definition> extends java.util.Linked
 
     @Override
     public int calculateSize() {
-        return 4 + this.values().parallelStream().mapToInt(v -> v.calculateSize()).sum();
+        return this.SIZE.get();
     }
 
+    @Override
+    public T put(TString key, T value) {
+        final T PREVIOUS = super.put(key, value);
+        if (PREVIOUS != null) {
+            this.SIZE.removed(PREVIOUS);
+        }
+        this.SIZE.added(value);
+        return PREVIOUS;
+    }
+
+    @Override
+    public void putAll(java.util.Map<? extends TString, ? extends T> map) {
+        map.forEach(this::put);
+    }
+
+    @Override
+    public T remove(Object key) {
+        final T PREVIOUS = super.remove(key);
+        if (PREVIOUS != null) {
+            this.SIZE.removed(PREVIOUS);
+        }
+        return PREVIOUS;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        this.SIZE.invalidate();
+    }
+
+    @Override
+    public T putIfAbsent(TString key, T value) {
+        final T CURRENT = this.get(key);
+        return CURRENT == null ? this.put(key, value) : CURRENT;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (this.containsKey(key) && java.util.Objects.equals(this.get(key), value)) {
+            this.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public T replace(TString key, T value) {
+        return this.containsKey(key) ? this.put(key, value) : null;
+    }
+
+    @Override
+    public boolean replace(TString key, T oldValue, T newValue) {
+        if (this.containsKey(key) && java.util.Objects.equals(this.get(key), oldValue)) {
+            this.put(key, newValue);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void replaceAll(java.util.function.BiFunction<? super TString, ? super T, ? extends T> function) {
+        for (TString key : new java.util.ArrayList<>(super.keySet())) {
+            this.put(key, function.apply(key, this.get(key)));
+        }
+    }
+
+    @Override
+    public T computeIfAbsent(TString key, java.util.function.Function<? super TString, ? extends T> function) {
+        final T CURRENT = this.get(key);
+        return CURRENT != null ? CURRENT : this.store(key, function.apply(key));
+    }
+
+    @Override
+    public T computeIfPresent(TString key, java.util.function.BiFunction<? super TString, ? super T, ? extends T> function) {
+        final T CURRENT = this.get(key);
+        return CURRENT == null ? null : this.store(key, function.apply(key, CURRENT));
+    }
+
+    @Override
+    public T compute(TString key, java.util.function.BiFunction<? super TString, ? super T, ? extends T> function) {
+        return this.store(key, function.apply(key, this.get(key)));
+    }
+
+    @Override
+    public T merge(TString key, T value, java.util.function.BiFunction<? super T, ? super T, ? extends T> function) {
+        java.util.Objects.requireNonNull(value);
+        final T CURRENT = this.get(key);
+        return this.store(key, CURRENT == null ? value : function.apply(CURRENT, value));
+    }
+
+    /**
+     * Puts or removes a computed value, the way the <code>compute</code>
+     * methods do, but through <code>put</code> and <code>remove</code>.
+     *
+     * @param key The key.
+     * @param value The new value, or null to remove the mapping.
+     * @return The new value.
+     */
+    private T store(TString key, T value) {
+        if (value == null) {
+            this.remove(key);
+        } else {
+            this.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public java.util.Set<TString> keySet() {
+        return java.util.Collections.unmodifiableSet(super.keySet());
+    }
+
+    @Override
+    public java.util.Collection<T> values() {
+        return java.util.Collections.unmodifiableCollection(super.values());
+    }
+
+    @Override
+    public java.util.Set<java.util.Map.Entry<TString, T>> entrySet() {
+        return java.util.Collections.unmodifiableSet(super.entrySet());
+    }
+
+    final private SizeCache SIZE = new SizeCache(() -> 4 + this.values().parallelStream().mapToInt(v -> v.calculateSize()).sum());
+
     @Override
     public void write(ByteBuffer output) {
         this.values().forEach(v -> v.write(output));
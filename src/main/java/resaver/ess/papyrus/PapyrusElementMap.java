@@ -17,8 +17,14 @@ package resaver.ess.papyrus;
 
 import resaver.ListException;
 import java.nio.ByteBuffer;
+import resaver.ess.SizeCache;
 
 /**
+ * The size of the map is memoized. Elements are told which
+ * <code>SizeCache</code> to report their changes to when they are put into the
+ * map, so only changed elements get measured again. Every mutator goes
+ * through <code>put</code> or <code>remove</code> to keep the size up to date,
+ * and the collection views are read-only.
  *
  * @author Mark
  * @param <T>
@@ -57,9 +63,156 @@ public class PapyrusElementMap<T extends HasID> extends java.util.LinkedHashMap<
 
     @Override
     public int calculateSize() {
-        return 4 + this.values().parallelStream().mapToInt(v -> v.calculateSize()).sum();
+        return this.SIZE.get();
     }
 
+    @Override
+    public T put(EID key, T value) {
+        final T PREVIOUS = super.put(key, value);
+        if (PREVIOUS != null) {
+            this.detach(PREVIOUS);
+        }
+        this.attach(value);
+        return PREVIOUS;
+    }
+
+    @Override
+    public void putAll(java.util.Map<? extends EID, ? extends T> map) {
+        map.forEach(this::put);
+    }
+
+    @Override
+    public T remove(Object key) {
+        final T PREVIOUS = super.remove(key);
+        if (PREVIOUS != null) {
+            this.detach(PREVIOUS);
+        }
+        return PREVIOUS;
+    }
+
+    @Override
+    public void clear() {
+        this.values().stream()
+                .filter(v -> v instanceof SizeCache.Member)
+                .forEach(v -> ((SizeCache.Member) v).setSizeCache(null));
+        super.clear();
+        this.SIZE.invalidate();
+    }
+
+    @Override
+    public T putIfAbsent(EID key, T value) {
+        final T CURRENT = this.get(key);
+        return CURRENT == null ? this.put(key, value) : CURRENT;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (this.containsKey(key) && java.util.Objects.equals(this.get(key), value)) {
+            this.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public T replace(EID key, T value) {
+        return this.containsKey(key) ? this.put(key, value) : null;
+    }
+
+    @Override
+    public boolean replace(EID key, T oldValue, T newValue) {
+        if (this.containsKey(key) && java.util.Objects.equals(this.get(key), oldValue)) {
+            this.put(key, newValue);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void replaceAll(java.util.function.BiFunction<? super EID, ? super T, ? extends T> function) {
+        for (EID key : new java.util.ArrayList<>(super.keySet())) {
+            this.put(key, function.apply(key, this.get(key)));
+        }
+    }
+
+    @Override
+    public T computeIfAbsent(EID key, java.util.function.Function<? super EID, ? extends T> function) {
+        final T CURRENT = this.get(key);
+        return CURRENT != null ? CURRENT : this.store(key, function.apply(key));
+    }
+
+    @Override
+    public T computeIfPresent(EID key, java.util.function.BiFunction<? super EID, ? super T, ? extends T> function) {
+        final T CURRENT = this.get(key);
+        return CURRENT == null ? null : this.store(key, function.apply(key, CURRENT));
+    }
+
+    @Override
+    public T compute(EID key, java.util.function.BiFunction<? super EID, ? super T, ? extends T> function) {
+        return this.store(key, function.apply(key, this.get(key)));
+    }
+
+    @Override
+    public T merge(EID key, T value, java.util.function.BiFunction<? super T, ? super T, ? extends T> function) {
+        java.util.Objects.requireNonNull(value);
+        final T CURRENT = this.get(key);
+        return this.store(key, CURRENT == null ? value : function.apply(CURRENT, value));
+    }
+
+    /**
+     * Puts or removes a computed value, the way the <code>compute</code>
+     * methods do, but through <code>put</code> and <code>remove</code>.
+     *
+     * @param key The key.
+     * @param value The new value, or null to remove the mapping.
+     * @return The new value.
+     */
+    private T store(EID key, T value) {
+        if (value == null) {
+            this.remove(key);
+        } else {
+            this.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public java.util.Set<EID> keySet() {
+        return java.util.Collections.unmodifiableSet(super.keySet());
+    }
+
+    @Override
+    public java.util.Collection<T> values() {
+        return java.util.Collections.unmodifiableCollection(super.values());
+    }
+
+    @Override
+    public java.util.Set<java.util.Map.Entry<EID, T>> entrySet() {
+        return java.util.Collections.unmodifiableSet(super.entrySet());
+    }
+
+    /**
+     * @param element An element that was added.
+     */
+    private void attach(T element) {
+        if (element instanceof SizeCache.Member) {
+            ((SizeCache.Member) element).setSizeCache(this.SIZE);
+        }
+        this.SIZE.added(element);
+    }
+
+    /**
+     * @param element An element that was removed.
+     */
+    private void detach(T element) {
+        if (element instanceof SizeCache.Member) {
+            ((SizeCache.Member) element).setSizeCache(null);
+        }
+        this.SIZE.removed(element);
+    }
+
+    final private SizeCache SIZE = new SizeCache(() -> 4 + this.values().parallelStream().mapToInt(v -> v.calculateSize()).sum());
+
     @Override
     public void write(ByteBuffer output) {
         output.putInt(this.size());
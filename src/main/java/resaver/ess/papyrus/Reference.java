@@ -20,6 +20,7 @@ import java.util.Optional;
 import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 import resaver.ess.Element;
 import resaver.ess.ESS;
 import resaver.ess.Linkable;
@@ -62,6 +63,7 @@ final public class Reference extends DefinedElement implements SeparateData, Has
      */
     @Override
     public void readData(ByteBuffer input, PapyrusContext context) throws PapyrusElementException, PapyrusFormatException {
+        this.changing();
         this.data = new ReferenceData(input, context);
     }
 
@@ -99,6 +101,7 @@ final public class Reference extends DefinedElement implements SeparateData, Has
      * @param newData The new value for the data field.
      */
     public void setData(ReferenceData newData) {
+        this.changing();
         this.data = newData;
     }
 
@@ -148,6 +151,15 @@ final public class Reference extends DefinedElement implements SeparateData, Has
                 : Collections.unmodifiableList(this.data.VARIABLES);
     }
 
+    /**
+     * @see HasVariables#getReferents()
+     * @return
+     */
+    @Override
+    public Stream<PapyrusElement> getReferents() {
+        return this.data == null ? Stream.empty() : this.data.VARIABLES.referents();
+    }
+
     /**
      * @see HasVariables#getDescriptors() 
      * @return 
@@ -171,6 +183,7 @@ final public class Reference extends DefinedElement implements SeparateData, Has
             throw new IllegalArgumentException("Invalid variable index: " + index);
         }
         
+        this.changing();
         this.data.VARIABLES.set(index, newVar);
     }
 
@@ -302,7 +315,7 @@ final public class Reference extends DefinedElement implements SeparateData, Has
             }
 
             output.putInt(this.VARIABLES.size());
-            this.VARIABLES.forEach(var -> var.write(output));
+            this.VARIABLES.write(output);
         }
 
         /**
@@ -315,7 +328,7 @@ final public class Reference extends DefinedElement implements SeparateData, Has
             sum += getID().calculateSize();
             sum += ((this.FLAG & 0x04) != 0 ? 4 : 0);
             sum += this.TYPE.calculateSize();
-            sum += this.VARIABLES.parallelStream().mapToInt(var -> var.calculateSize()).sum();
+            sum += this.VARIABLES.calculateSize();
             return sum;
         }
 
@@ -323,7 +336,7 @@ final public class Reference extends DefinedElement implements SeparateData, Has
         final private TString TYPE;
         final private int UNKNOWN1;
         final private int UNKNOWN2;
-        final private List<Variable> VARIABLES;
+        final private VariableList VARIABLES;
 
     }
 }
@@ -18,6 +18,7 @@ package resaver.ess.papyrus;
 import resaver.ListException;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 import java.util.Optional;
 import java.nio.ByteBuffer;
 import java.util.Objects;
@@ -87,6 +88,7 @@ final public class ScriptInstance extends DefinedElement implements SeparateData
      */
     @Override
     public void readData(ByteBuffer input, PapyrusContext context) throws PapyrusElementException, PapyrusFormatException {
+        this.changing();
         this.data = new ScriptData(input, context);
     }
 
@@ -152,6 +154,7 @@ final public class ScriptInstance extends DefinedElement implements SeparateData
      * @param newData The new value for the data field.
      */
     public void setData(ScriptData newData) {
+        this.changing();
         this.data = newData;
     }
 
@@ -214,6 +217,15 @@ final public class ScriptInstance extends DefinedElement implements SeparateData
                 : Collections.unmodifiableList(this.data.VARIABLES);
     }
 
+    /**
+     * @see HasVariables#getReferents()
+     * @return
+     */
+    @Override
+    public Stream<PapyrusElement> getReferents() {
+        return this.data == null ? Stream.empty() : this.data.VARIABLES.referents();
+    }
+
     /**
      * @see HasVariables#getDescriptors() 
      * @return 
@@ -237,6 +249,7 @@ final public class ScriptInstance extends DefinedElement implements SeparateData
             throw new IllegalArgumentException("Invalid variable index: " + index);
         }
         
+        this.changing();
         this.data.VARIABLES.set(index, newVar);
     }
 
@@ -480,7 +493,7 @@ final public class ScriptInstance extends DefinedElement implements SeparateData
             }
 
             output.putInt(this.VARIABLES.size());
-            this.VARIABLES.forEach(var -> var.write(output));
+            this.VARIABLES.write(output);
         }
 
         /**
@@ -493,7 +506,7 @@ final public class ScriptInstance extends DefinedElement implements SeparateData
             sum += getID().calculateSize();
             sum += ((this.FLAG & 0x04) != 0 ? 4 : 0);
             sum += this.STATE.calculateSize();
-            sum += this.VARIABLES.stream().mapToInt(var -> var.calculateSize()).sum();
+            sum += this.VARIABLES.calculateSize();
             return sum;
         }
 
@@ -526,7 +539,7 @@ final public class ScriptInstance extends DefinedElement implements SeparateData
         final private TString STATE;
         final private int UNKNOWN1;
         final private int UNKNOWN2;
-        final private List<Variable> VARIABLES;
+        final private VariableList VARIABLES;
 
     }
 }
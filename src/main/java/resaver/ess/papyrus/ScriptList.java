@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package resaver.ess.papyrus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * A list of scripts to clean from a savefile, in the batch cleaning format:
+ * one script name per line, with an optional .pex extension, and optionally
+ * "@@" followed by a prompt to show before the script is removed.
+ *
+ * The GUI's batch cleaner and the headless <code>clean</code> command both
+ * read their lists and clean with this class, so the two can't drift apart.
+ *
+ * @author Mark Fairchild
+ */
+final public class ScriptList {
+
+    /**
+     * Parses a script list from text.
+     *
+     * @param text The text of the list.
+     * @return The <code>ScriptList</code>.
+     */
+    static public ScriptList parse(String text) {
+        return parse(Arrays.asList(text.split("\\r?\\n")));
+    }
+
+    /**
+     * Parses a script list. Lines that aren't entries are ignored.
+     *
+     * @param lines The lines of the list.
+     * @return The <code>ScriptList</code>.
+     */
+    static public ScriptList parse(List<String> lines) {
+        final List<String> NAMES = new ArrayList<>();
+        final List<Optional<String>> PROMPTS = new ArrayList<>();
+
+        for (String line : lines) {
+            final Matcher MATCHER = PATTERN.matcher(line.trim());
+            if (MATCHER.find()) {
+                NAMES.add(MATCHER.group(1).trim());
+                PROMPTS.add(Optional.ofNullable(MATCHER.group(2)).map(String::trim));
+            }
+        }
+
+        return new ScriptList(NAMES, PROMPTS);
+    }
+
+    /**
+     * Cleans definitions from a savefile. Threads that are running any of the
+     * scripts are zeroed, and the definitions are removed along with their
+     * instances.
+     *
+     * @param papyrus The Papyrus section of the savefile.
+     * @param definitions The definitions to clean.
+     * @return What was removed.
+     */
+    static public Cleaned clean(Papyrus papyrus, Set<Definition> definitions) {
+        final Set<ActiveScript> THREADS = definitions.stream()
+                .filter(def -> def instanceof Script)
+                .flatMap(def -> papyrus.getActiveScripts().values().stream().filter(v -> v.hasScript((Script) def)))
+                .collect(Collectors.toSet());
+
+        THREADS.forEach(t -> t.zero());
+        final Set<PapyrusElement> REMOVED = papyrus.removeElements(definitions);
+        return new Cleaned(REMOVED, THREADS);
+    }
+
+    /**
+     * @param names The script names.
+     * @param prompts The prompts.
+     */
+    private ScriptList(List<String> names, List<Optional<String>> prompts) {
+        this.NAMES = Collections.unmodifiableList(names);
+        this.PROMPTS = Collections.unmodifiableList(prompts);
+    }
+
+    /**
+     * @return True if the list has no entries.
+     */
+    public boolean isEmpty() {
+        return this.NAMES.isEmpty();
+    }
+
+    /**
+     * Finds the definitions that the list names in a savefile.
+     *
+     * @param context The context of the savefile.
+     * @return The definitions that were found, in order, each with the prompt
+     * that should be shown before removing it, if any.
+     */
+    public Map<Definition, Optional<String>> match(PapyrusContext context) {
+        Objects.requireNonNull(context);
+        final Map<Definition, Optional<String>> MATCHES = new TreeMap<>();
+
+        for (int i = 0; i < this.NAMES.size(); i++) {
+            final Definition DEF = context.findAny(TString.makeUnindexed(this.NAMES.get(i)));
+            if (DEF != null) {
+                MATCHES.putIfAbsent(DEF, this.PROMPTS.get(i));
+            }
+        }
+
+        return MATCHES;
+    }
+
+    /**
+     * The results of cleaning a list of definitions.
+     */
+    static final public class Cleaned {
+
+        private Cleaned(Set<PapyrusElement> removed, Set<ActiveScript> threads) {
+            this.REMOVED = Collections.unmodifiableSet(removed);
+            this.THREADS = Collections.unmodifiableSet(threads);
+        }
+
+        /**
+         * @param type A type of element.
+         * @return The number of removed elements of the type.
+         */
+        public long count(Class<? extends PapyrusElement> type) {
+            return this.REMOVED.stream().filter(type::isInstance).count();
+        }
+
+        /**
+         * The elements that were removed.
+         */
+        final public Set<PapyrusElement> REMOVED;
+
+        /**
+         * The threads that were zeroed.
+         */
+        final public Set<ActiveScript> THREADS;
+    }
+
+    final private List<String> NAMES;
+    final private List<Optional<String>> PROMPTS;
+
+    /**
+     * (script name)(optional .pex extension)(@@ followed by deletion prompt)
+     */
+    static final private Pattern PATTERN = Pattern.compile("^([^\\.@\\s]+)(?:\\.pex)?(?:\\s*@@\\s*(.*))?", Pattern.CASE_INSENSITIVE);
+
+}
@@ -20,6 +20,7 @@ import resaver.ess.AnalyzableElement;
 import java.util.Collections;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -28,7 +29,6 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import resaver.IString;
 import java.nio.ByteBuffer;
-import java.util.stream.Stream;
 import resaver.ess.ESS;
 import resaver.ess.Element;
 import resaver.ess.Flags;
@@ -165,7 +165,7 @@ final public class StackFrame implements AnalyzableElement, Linkable, HasVariabl
         output.putInt(this.PTR);
 
         this.OWNERFIELD.write(output);
-        this.VARIABLES.forEach(var -> var.write(output));
+        this.VARIABLES.write(output);
     }
 
     /**
@@ -199,7 +199,7 @@ final public class StackFrame implements AnalyzableElement, Linkable, HasVariabl
         sum += (null != this.OWNERFIELD ? this.OWNERFIELD.calculateSize() : 0);
 
         sum += 4;
-        sum += this.VARIABLES.stream().mapToInt(var -> var.calculateSize()).sum();
+        sum += this.VARIABLES.calculateSize();
 
         return sum;
     }
@@ -208,6 +208,7 @@ final public class StackFrame implements AnalyzableElement, Linkable, HasVariabl
      * Replaces the opcodes of the <code>StackFrame</code> with NOPs.
      */
     void zero() {
+        this.THREAD.changing();
         for (int i = 0; i < this.CODE.size(); i++) {
             this.CODE.set(i, OpcodeData.NOP);
         }
@@ -288,6 +289,15 @@ final public class StackFrame implements AnalyzableElement, Linkable, HasVariabl
                 : Collections.unmodifiableList(this.VARIABLES);
     }
 
+    /**
+     * @see HasVariables#getReferents()
+     * @return
+     */
+    @Override
+    public Stream<PapyrusElement> getReferents() {
+        return this.VARIABLES == null ? Stream.empty() : this.VARIABLES.referents();
+    }
+
     /**
      * @see HasVariables#getDescriptors() 
      * @return 
@@ -311,6 +321,7 @@ final public class StackFrame implements AnalyzableElement, Linkable, HasVariabl
             throw new IllegalArgumentException("Invalid variable index: " + index);
         }
         
+        this.THREAD.changing();
         this.VARIABLES.set(index, newVar);
     }
 
@@ -846,7 +857,7 @@ final public class StackFrame implements AnalyzableElement, Linkable, HasVariabl
     final private List<OpcodeData> CODE;
     final private int PTR;
     final private Variable OWNERFIELD;
-    final private List<Variable> VARIABLES;
+    final private VariableList VARIABLES;
     final private DefinedElement OWNER;
     static final Pattern AUTOVAR_REGEX = Pattern.compile("^::(.+)_var$", Pattern.CASE_INSENSITIVE);
 
@@ -19,8 +19,13 @@ import java.io.IOException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import resaver.ess.ESS;
 import resaver.ess.WStringElement;
 
@@ -190,10 +195,137 @@ public class StringTable extends ArrayList<TString> implements PapyrusElement {
             sum += 2;
         }
 
-        sum += this.parallelStream().mapToInt(v -> v.calculateFullSize()).sum();
+        sum += this.stringsSize;
         return sum;
     }
 
+    /**
+     * Adds a <code>TString</code>, keeping a running total of the size of the
+     * strings so that <code>calculateSize</code> doesn't have to measure them
+     * all. Every other mutator keeps the total current too.
+     *
+     * @param tstr The <code>TString</code>.
+     * @return True.
+     */
+    @Override
+    public boolean add(TString tstr) {
+        this.stringsSize += tstr.calculateFullSize();
+        return super.add(tstr);
+    }
+
+    @Override
+    public void add(int index, TString tstr) {
+        super.add(index, tstr);
+        this.stringsSize += tstr.calculateFullSize();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends TString> c) {
+        final int SIZE = sizeOf(c);
+        final boolean CHANGED = super.addAll(c);
+        this.stringsSize += SIZE;
+        return CHANGED;
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends TString> c) {
+        final int SIZE = sizeOf(c);
+        final boolean CHANGED = super.addAll(index, c);
+        this.stringsSize += SIZE;
+        return CHANGED;
+    }
+
+    @Override
+    public TString set(int index, TString tstr) {
+        final TString OLD = super.set(index, tstr);
+        this.stringsSize += tstr.calculateFullSize() - OLD.calculateFullSize();
+        return OLD;
+    }
+
+    @Override
+    public TString remove(int index) {
+        final TString OLD = super.remove(index);
+        this.stringsSize -= OLD.calculateFullSize();
+        return OLD;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        final int INDEX = this.indexOf(o);
+        if (INDEX < 0) {
+            return false;
+        }
+        this.remove(INDEX);
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        final boolean CHANGED = super.removeAll(c);
+        this.remeasure();
+        return CHANGED;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        final boolean CHANGED = super.retainAll(c);
+        this.remeasure();
+        return CHANGED;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super TString> filter) {
+        final boolean CHANGED = super.removeIf(filter);
+        this.remeasure();
+        return CHANGED;
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<TString> operator) {
+        super.replaceAll(operator);
+        this.remeasure();
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        super.removeRange(fromIndex, toIndex);
+        this.remeasure();
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        this.stringsSize = 0;
+    }
+
+    /**
+     * Sublists write straight into the backing array, bypassing the
+     * mutators above, so they're read-only.
+     *
+     * @param fromIndex The low endpoint (inclusive).
+     * @param toIndex The high endpoint (exclusive).
+     * @return An unmodifiable view of the range.
+     */
+    @Override
+    public List<TString> subList(int fromIndex, int toIndex) {
+        return Collections.unmodifiableList(super.subList(fromIndex, toIndex));
+    }
+
+    /**
+     * Recalculates the running total after a bulk removal.
+     */
+    private void remeasure() {
+        this.stringsSize = sizeOf(this);
+    }
+
+    /**
+     * @param c Some <code>TString</code>s.
+     * @return Their total size when written in full.
+     */
+    static private int sizeOf(Collection<? extends TString> c) {
+        return c.stream().mapToInt(TString::calculateFullSize).sum();
+    }
+
     /**
      *
      * @param str
@@ -282,6 +414,11 @@ public class StringTable extends ArrayList<TString> implements PapyrusElement {
      */
     final private int STRCOUNT;
 
+    /**
+     * The total size of the strings, kept current by every mutator.
+     */
+    private int stringsSize;
+
     /**
      * TString implementation for 16 bit TStrings.
      */
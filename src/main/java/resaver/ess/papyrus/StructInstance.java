@@ -19,6 +19,7 @@ import resaver.ListException;
 import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 import java.util.Objects;
 import java.util.Optional;
 import resaver.ess.AnalyzableElement;
@@ -64,6 +65,7 @@ public class StructInstance extends DefinedElement implements SeparateData, HasV
      */
     @Override
     public void readData(ByteBuffer input, PapyrusContext context) throws PapyrusElementException, PapyrusFormatException {
+        this.changing();
         this.data = new StructData(input, context);
     }
 
@@ -143,6 +145,15 @@ public class StructInstance extends DefinedElement implements SeparateData, HasV
                 : Collections.unmodifiableList(this.data.VARIABLES);
     }
 
+    /**
+     * @see HasVariables#getReferents()
+     * @return
+     */
+    @Override
+    public Stream<PapyrusElement> getReferents() {
+        return this.data == null ? Stream.empty() : this.data.VARIABLES.referents();
+    }
+
     /**
      * @see HasVariables#getDescriptors() 
      * @return 
@@ -166,6 +177,7 @@ public class StructInstance extends DefinedElement implements SeparateData, HasV
             throw new IllegalArgumentException("Invalid variable index: " + index);
         }
         
+        this.changing();
         this.data.VARIABLES.set(index, newVar);
     }
 
@@ -282,7 +294,7 @@ public class StructInstance extends DefinedElement implements SeparateData, HasV
             getID().write(output);
             this.FLAG.write(output);
             output.putInt(this.VARIABLES.size());
-            this.VARIABLES.forEach(var -> var.write(output));
+            this.VARIABLES.write(output);
         }
 
         /**
@@ -294,7 +306,7 @@ public class StructInstance extends DefinedElement implements SeparateData, HasV
             int sum = 4;
             sum += this.FLAG.calculateSize();
             sum += getID().calculateSize();
-            sum += this.VARIABLES.stream().mapToInt(var -> var.calculateSize()).sum();
+            sum += this.VARIABLES.calculateSize();
             return sum;
         }
 
@@ -308,7 +320,7 @@ public class StructInstance extends DefinedElement implements SeparateData, HasV
 
         //final private EID ID;
         final private Flags.Byte FLAG;
-        final private List<Variable> VARIABLES;
+        final private VariableList VARIABLES;
 
     }
 }
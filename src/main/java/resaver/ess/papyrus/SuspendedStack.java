@@ -24,13 +24,14 @@ import resaver.Analysis;
 import resaver.ess.ESS;
 import resaver.ess.Element;
 import resaver.ess.Linkable;
+import resaver.ess.SizeCache;
 
 /**
  * Describes an active script's stack in a Skyrim savegame.
  *
  * @author Mark Fairchild
  */
-final public class SuspendedStack implements PapyrusElement, AnalyzableElement, Linkable, HasID {
+final public class SuspendedStack implements PapyrusElement, AnalyzableElement, Linkable, HasID, SizeCache.Member {
 
     /**
      * Creates a new <code>SuspendedStack</code> by reading from a
@@ -93,6 +94,23 @@ final public class SuspendedStack implements PapyrusElement, AnalyzableElement,
         return sum;
     }
 
+    /**
+     * @see SizeCache.Member#setSizeCache(resaver.ess.SizeCache)
+     * @param cache
+     */
+    @Override
+    public void setSizeCache(SizeCache cache) {
+        this.sizeCache = cache;
+    }
+
+    /**
+     * Reports that the stack is about to change size. Its message calls
+     * this when its variables are changed.
+     */
+    void changing() {
+        SizeCache.changing(this.sizeCache, this);
+    }
+
     /**
      * @return The ID of the papyrus element.
      */
@@ -240,5 +258,6 @@ final public class SuspendedStack implements PapyrusElement, AnalyzableElement,
     final private byte FLAG;
     final private FunctionMessageData MESSAGE;
     final private ActiveScript THREAD;
+    private SizeCache sizeCache;
 
 }
@@ -29,28 +29,18 @@ import resaver.ess.Linkable;
 abstract public class Variable implements PapyrusElement, Linkable {
 
     /**
-     * Creates a new <code>List</code> of <code>Variable</code> by reading from
-     * a <code>ByteBuffer</code>.
+     * Creates a new <code>VariableList</code> by reading from a
+     * <code>ByteBuffer</code>. The variables are stored in packed form, and
+     * the <code>Variable</code> objects are only created when they are needed.
      *
      * @param input The input stream.
      * @param count The number of variables.
      * @param context The <code>PapyrusContext</code> info.
-     * @return The new <code>List</code> of <code>Variable</code>.
+     * @return The new <code>VariableList</code>.
      * @throws ListException
      */
-    static public java.util.List<Variable> readList(ByteBuffer input, int count, PapyrusContext context) throws ListException {
-        final java.util.List<Variable> VARIABLES = new java.util.ArrayList<>(count);
-
-        for (int i = 0; i < count; i++) {
-            try {
-                Variable var = Variable.read(input, context);
-                VARIABLES.add(var);
-            } catch (PapyrusFormatException ex) {
-                throw new ListException(i, count, ex);
-            }
-        }
-
-        return VARIABLES;
+    static public VariableList readList(ByteBuffer input, int count, PapyrusContext context) throws ListException {
+        return VariableList.read(input, count, context);
     }
 
     /**
@@ -223,6 +213,10 @@ abstract public class Variable implements PapyrusElement, Linkable {
             this.VALUE = 0;
         }
 
+        Null(int value) {
+            this.VALUE = value;
+        }
+
         @Override
         public int calculateSize() {
             return 5;
@@ -393,6 +387,10 @@ abstract public class Variable implements PapyrusElement, Linkable {
             this.VALUE = new Null();
         }
 
+        Variant(Variable value) {
+            this.VALUE = Objects.requireNonNull(value);
+        }
+
         public Variable getValue() {
             return this.VALUE;
         }
@@ -491,6 +489,10 @@ abstract public class Variable implements PapyrusElement, Linkable {
             this.VALUE = context.addTString(newValue);
         }
 
+        Str(TString value) {
+            this.VALUE = Objects.requireNonNull(value);
+        }
+
         public TString getValue() {
             return this.VALUE;
         }
@@ -637,6 +639,10 @@ abstract public class Variable implements PapyrusElement, Linkable {
             this.VALUE = (val ? 1 : 0);
         }
 
+        Bool(int val) {
+            this.VALUE = val;
+        }
+
         public boolean getValue() {
             return this.VALUE != 0;
         }
@@ -694,6 +700,14 @@ abstract public class Variable implements PapyrusElement, Linkable {
             this.ARRAY = null;
         }
 
+        Array(Type type, TString refType, EID id, PapyrusContext context) {
+            Objects.requireNonNull(type);
+            this.TYPE = type;
+            this.REFTYPE = this.TYPE.isRefType() ? refType : null;
+            this.ARRAYID = Objects.requireNonNull(id);
+            this.ARRAY = context.findArray(this.ARRAYID);
+        }
+
         public EID getArrayID() {
             return this.ARRAYID;
         }
@@ -0,0 +1,504 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package resaver.ess.papyrus;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import resaver.ListException;
+
+/**
+ * A list of <code>Variable</code>, stored in columns.
+ *
+ * Each entry is a type code and a packed payload: the value of a
+ * <code>Null</code>, <code>Int</code>, <code>Flt</code> or <code>Bool</code>,
+ * the string index of a <code>Str</code>, or the raw id of a ref or array. Ref
+ * types also keep the string index of their reference type, and variants keep
+ * the type code of the value that they hold.
+ *
+ * <code>Variable</code> objects are only created when an entry is actually
+ * looked at, and are kept afterwards so that the same entry always gives the
+ * same object. Writing and sizing work directly from the packed columns.
+ *
+ * An entry that was set or added from outside, or that can't be packed (a
+ * variant holding a variant), is stored as its <code>Variable</code>.
+ *
+ * @author Mark Fairchild
+ */
+final public class VariableList extends AbstractList<Variable> implements RandomAccess {
+
+    /**
+     * Creates a new <code>VariableList</code> by reading from a
+     * <code>ByteBuffer</code>.
+     *
+     * @param input The input stream.
+     * @param count The number of variables.
+     * @param context The <code>PapyrusContext</code> info.
+     * @return The new <code>VariableList</code>.
+     * @throws ListException
+     */
+    static VariableList read(ByteBuffer input, int count, PapyrusContext context) throws ListException {
+        Objects.requireNonNull(input);
+        final VariableList VARIABLES = new VariableList(count, context);
+
+        for (int i = 0; i < count; i++) {
+            try {
+                VARIABLES.readEntry(input);
+            } catch (PapyrusFormatException ex) {
+                throw new ListException(i, count, ex);
+            }
+        }
+
+        return VARIABLES;
+    }
+
+    /**
+     * Finds the elements referred to by a list of variables. For a
+     * <code>VariableList</code> this doesn't create any views.
+     *
+     * @param variables The variables.
+     * @return A stream of the elements that the variables refer to.
+     */
+    static Stream<PapyrusElement> referents(List<Variable> variables) {
+        if (variables instanceof VariableList) {
+            return ((VariableList) variables).referents();
+        } else {
+            return variables.stream()
+                    .filter(Objects::nonNull)
+                    .filter(var -> var.hasRef())
+                    .map(var -> var.getReferent())
+                    .filter(Objects::nonNull);
+        }
+    }
+
+    /**
+     * Creates a new empty <code>VariableList</code>.
+     *
+     * @param capacity The initial capacity.
+     * @param context The <code>PapyrusContext</code> info.
+     */
+    private VariableList(int capacity, PapyrusContext context) {
+        this.CONTEXT = Objects.requireNonNull(context);
+        this.ID64 = context.getGame().isID64();
+        this.codes = new byte[capacity];
+        this.values = new long[capacity];
+        this.refTypes = null;
+        this.innerCodes = null;
+        this.views = null;
+        this.size = 0;
+    }
+
+    /**
+     * Writes the variables.
+     *
+     * @param output The output stream.
+     */
+    public void write(ByteBuffer output) {
+        for (int i = 0; i < this.size; i++) {
+            final byte CODE = this.codes[i];
+
+            if (CODE == OBJECT) {
+                this.views[i].write(output);
+            } else if (CODE == VARIANT) {
+                output.put(CODE);
+                output.put(this.innerCodes[i]);
+                this.writePayload(i, TYPES[this.innerCodes[i]], output);
+            } else {
+                output.put(CODE);
+                this.writePayload(i, TYPES[CODE], output);
+            }
+        }
+    }
+
+    /**
+     * @return The size of the variables in bytes.
+     */
+    public int calculateSize() {
+        int sum = 0;
+
+        for (int i = 0; i < this.size; i++) {
+            final byte CODE = this.codes[i];
+
+            if (CODE == OBJECT) {
+                sum += this.views[i].calculateSize();
+            } else if (CODE == VARIANT) {
+                sum += 2 + this.payloadSize(i, TYPES[this.innerCodes[i]]);
+            } else {
+                sum += 1 + this.payloadSize(i, TYPES[CODE]);
+            }
+        }
+
+        return sum;
+    }
+
+    /**
+     * @return A stream of the elements that the variables refer to.
+     */
+    public Stream<PapyrusElement> referents() {
+        return IntStream.range(0, this.size)
+                .mapToObj(this::referent)
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Variable get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+
+        final Variable[] VIEWS = this.views;
+        if (VIEWS != null && VIEWS[index] != null) {
+            return VIEWS[index];
+        } else {
+            return this.materialize(index);
+        }
+    }
+
+    @Override
+    public Variable set(int index, Variable var) {
+        Objects.requireNonNull(var);
+        final Variable PREVIOUS = this.get(index);
+        this.codes[index] = OBJECT;
+        this.views[index] = var;
+        return PREVIOUS;
+    }
+
+    @Override
+    public void add(int index, Variable var) {
+        Objects.requireNonNull(var);
+        if (index < 0 || index > this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+
+        this.ensureCapacity(this.size + 1);
+        this.shift(index, index + 1, this.size - index);
+        this.size++;
+        this.modCount++;
+
+        this.codes[index] = OBJECT;
+        this.views()[index] = var;
+    }
+
+    @Override
+    public Variable remove(int index) {
+        final Variable PREVIOUS = this.get(index);
+        this.shift(index + 1, index, this.size - index - 1);
+        this.size--;
+        this.modCount++;
+
+        if (this.views != null) {
+            this.views[this.size] = null;
+        }
+        return PREVIOUS;
+    }
+
+    /**
+     * Reads one variable onto the end of the list.
+     *
+     * @param input The input stream.
+     * @throws PapyrusFormatException
+     */
+    private void readEntry(ByteBuffer input) throws PapyrusFormatException {
+        final int INDEX = this.size;
+        this.ensureCapacity(INDEX + 1);
+
+        final Type TYPE = Type.read(input);
+
+        if (TYPE == Type.VARIANT) {
+            final int MARK = input.position();
+            final Type INNER = Type.read(input);
+
+            if (INNER == Type.VARIANT) {
+                ((Buffer) input).position(MARK);
+                this.codes[INDEX] = OBJECT;
+                this.views()[INDEX] = new Variable.Variant(Variable.read(input, this.CONTEXT));
+            } else {
+                this.codes[INDEX] = VARIANT;
+                this.innerCodes()[INDEX] = (byte) INNER.ordinal();
+                this.readPayload(INDEX, INNER, input);
+            }
+        } else {
+            this.codes[INDEX] = (byte) TYPE.ordinal();
+            this.readPayload(INDEX, TYPE, input);
+        }
+
+        this.size++;
+    }
+
+    /**
+     * Reads the payload of an entry.
+     *
+     * @param index The index of the entry.
+     * @param type The type of the payload.
+     * @param input The input stream.
+     * @throws PapyrusFormatException
+     */
+    private void readPayload(int index, Type type, ByteBuffer input) throws PapyrusFormatException {
+        switch (type) {
+            case NULL:
+            case INTEGER:
+            case FLOAT:
+            case BOOLEAN:
+                this.values[index] = input.getInt();
+                break;
+            case STRING:
+                this.values[index] = this.CONTEXT.readTString(input).getIndex();
+                break;
+            default:
+                if (type.isRefType()) {
+                    this.refTypes()[index] = this.CONTEXT.readTString(input).getIndex();
+                }
+                this.values[index] = this.ID64 ? input.getLong() : input.getInt();
+                break;
+        }
+    }
+
+    /**
+     * Writes the payload of an entry.
+     *
+     * @param index The index of the entry.
+     * @param type The type of the payload.
+     * @param output The output stream.
+     */
+    private void writePayload(int index, Type type, ByteBuffer output) {
+        switch (type) {
+            case NULL:
+            case INTEGER:
+            case FLOAT:
+            case BOOLEAN:
+                output.putInt((int) this.values[index]);
+                break;
+            case STRING:
+                this.CONTEXT.getTString((int) this.values[index]).write(output);
+                break;
+            default:
+                if (type.isRefType()) {
+                    this.CONTEXT.getTString(this.refTypes[index]).write(output);
+                }
+                if (this.ID64) {
+                    output.putLong(this.values[index]);
+                } else {
+                    output.putInt((int) this.values[index]);
+                }
+                break;
+        }
+    }
+
+    /**
+     * @param index The index of the entry.
+     * @param type The type of the payload.
+     * @return The size of the payload in bytes.
+     */
+    private int payloadSize(int index, Type type) {
+        switch (type) {
+            case NULL:
+            case INTEGER:
+            case FLOAT:
+            case BOOLEAN:
+                return 4;
+            case STRING:
+                return this.CONTEXT.getTString((int) this.values[index]).calculateSize();
+            default:
+                return (this.ID64 ? 8 : 4) + (type.isRefType()
+                        ? this.CONTEXT.getTString(this.refTypes[index]).calculateSize()
+                        : 0);
+        }
+    }
+
+    /**
+     * @param index The index of the entry.
+     * @return The element that the entry refers to, or null.
+     */
+    private PapyrusElement referent(int index) {
+        final byte CODE = this.codes[index];
+
+        if (CODE == OBJECT) {
+            final Variable VAR = this.views[index];
+            return VAR.hasRef() ? VAR.getReferent() : null;
+        }
+
+        final Type TYPE = TYPES[CODE == VARIANT ? this.innerCodes[index] : CODE];
+        switch (TYPE) {
+            case NULL:
+            case INTEGER:
+            case FLOAT:
+            case BOOLEAN:
+            case STRING:
+                return null;
+            case REF:
+            case STRUCT:
+                return this.CONTEXT.findReferrent(this.makeEID(index));
+            default:
+                return this.CONTEXT.findArray(this.makeEID(index));
+        }
+    }
+
+    /**
+     * Creates the view of an entry.
+     *
+     * @param index The index of the entry.
+     * @return The view.
+     */
+    synchronized private Variable materialize(int index) {
+        final Variable[] VIEWS = this.views();
+        if (VIEWS[index] == null) {
+            final byte CODE = this.codes[index];
+            VIEWS[index] = CODE == VARIANT
+                    ? new Variable.Variant(this.decode(index, TYPES[this.innerCodes[index]]))
+                    : this.decode(index, TYPES[CODE]);
+        }
+        return VIEWS[index];
+    }
+
+    /**
+     * @param index The index of the entry.
+     * @param type The type of the payload.
+     * @return A <code>Variable</code> for the payload.
+     */
+    private Variable decode(int index, Type type) {
+        final int VALUE = (int) this.values[index];
+
+        switch (type) {
+            case NULL:
+                return new Variable.Null(VALUE);
+            case INTEGER:
+                return new Variable.Int(VALUE);
+            case FLOAT:
+                return new Variable.Flt(Float.intBitsToFloat(VALUE));
+            case BOOLEAN:
+                return new Variable.Bool(VALUE);
+            case STRING:
+                return new Variable.Str(this.CONTEXT.getTString(VALUE));
+            case REF:
+                return new Variable.Ref(this.CONTEXT.getTString(this.refTypes[index]), this.makeEID(index), this.CONTEXT);
+            case STRUCT:
+                return new Variable.StructRef(this.CONTEXT.getTString(this.refTypes[index]), this.makeEID(index), this.CONTEXT);
+            default:
+                final TString REFTYPE = type.isRefType() ? this.CONTEXT.getTString(this.refTypes[index]) : null;
+                return new Variable.Array(type, REFTYPE, this.makeEID(index), this.CONTEXT);
+        }
+    }
+
+    /**
+     * @param index The index of an entry.
+     * @return The <code>EID</code> stored in the entry.
+     */
+    private EID makeEID(int index) {
+        return this.ID64
+                ? this.CONTEXT.makeEID64(this.values[index])
+                : this.CONTEXT.makeEID32((int) this.values[index]);
+    }
+
+    /**
+     * Moves a range of entries in every column.
+     *
+     * @param from The first index to move from.
+     * @param to The first index to move to.
+     * @param length The number of entries to move.
+     */
+    private void shift(int from, int to, int length) {
+        System.arraycopy(this.codes, from, this.codes, to, length);
+        System.arraycopy(this.values, from, this.values, to, length);
+        if (this.refTypes != null) {
+            System.arraycopy(this.refTypes, from, this.refTypes, to, length);
+        }
+        if (this.innerCodes != null) {
+            System.arraycopy(this.innerCodes, from, this.innerCodes, to, length);
+        }
+        if (this.views != null) {
+            System.arraycopy(this.views, from, this.views, to, length);
+        }
+    }
+
+    /**
+     * Makes sure that every column has room for some number of entries.
+     *
+     * @param capacity The number of entries.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= this.codes.length) {
+            return;
+        }
+
+        final int NEWCAPACITY = Math.max(capacity, 2 * this.codes.length);
+        this.codes = Arrays.copyOf(this.codes, NEWCAPACITY);
+        this.values = Arrays.copyOf(this.values, NEWCAPACITY);
+        if (this.refTypes != null) {
+            this.refTypes = Arrays.copyOf(this.refTypes, NEWCAPACITY);
+        }
+        if (this.innerCodes != null) {
+            this.innerCodes = Arrays.copyOf(this.innerCodes, NEWCAPACITY);
+        }
+        if (this.views != null) {
+            this.views = Arrays.copyOf(this.views, NEWCAPACITY);
+        }
+    }
+
+    /**
+     * @return The reference type column, creating it if necessary.
+     */
+    private int[] refTypes() {
+        if (this.refTypes == null) {
+            this.refTypes = new int[this.codes.length];
+        }
+        return this.refTypes;
+    }
+
+    /**
+     * @return The variant type column, creating it if necessary.
+     */
+    private byte[] innerCodes() {
+        if (this.innerCodes == null) {
+            this.innerCodes = new byte[this.codes.length];
+        }
+        return this.innerCodes;
+    }
+
+    /**
+     * @return The view column, creating it if necessary.
+     */
+    private Variable[] views() {
+        if (this.views == null) {
+            this.views = new Variable[this.codes.length];
+        }
+        return this.views;
+    }
+
+    final private PapyrusContext CONTEXT;
+    final private boolean ID64;
+    private byte[] codes;
+    private long[] values;
+    private int[] refTypes;
+    private byte[] innerCodes;
+    private Variable[] views;
+    private int size;
+
+    static final private Type[] TYPES = Type.values();
+    static final private byte VARIANT = (byte) Type.VARIANT.ordinal();
+    static final private byte OBJECT = -1;
+
+}
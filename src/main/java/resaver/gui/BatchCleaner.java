@@ -19,28 +19,21 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.Objects;
 import java.util.ResourceBundle;
-import java.util.Set;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import javax.swing.BorderFactory;
 import javax.swing.JOptionPane;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
 import javax.swing.SwingWorker;
 import resaver.ess.ESS;
-import resaver.ess.papyrus.ActiveScript;
 import resaver.ess.papyrus.Definition;
 import resaver.ess.papyrus.Reference;
 import resaver.ess.papyrus.ScriptInstance;
-import resaver.ess.papyrus.Papyrus;
 import resaver.ess.papyrus.PapyrusContext;
-import resaver.ess.papyrus.PapyrusElement;
 import resaver.ess.papyrus.Script;
+import resaver.ess.papyrus.ScriptList;
 import resaver.ess.papyrus.Struct;
 import resaver.ess.papyrus.StructInstance;
-import resaver.ess.papyrus.TString;
 
 /**
  *
@@ -97,51 +90,28 @@ public class BatchCleaner extends SwingWorker<Boolean, Double> {
                 return false;
             }
 
-            // Split the input into lines.
-            final String[] LINES = batch.split("\n");
+            final ScriptList SCRIPTS = ScriptList.parse(batch);
             final java.util.Set<Definition> CLEAN_NAMES = new java.util.TreeSet<>();
 
-            // I had 99 problems, so I used regular expressions. Now I have 100 problems.
-            // (script name)(optional .pex extension)(@@ followed by deletion prompt)
-            final String PATTERN = "^([^\\.@\\s]+)(?:\\.pex)?(?:\\s*@@\\s*(.*))?";
-            final Pattern REGEX = Pattern.compile(PATTERN, Pattern.CASE_INSENSITIVE);
-
-            // Now iterate through the lines.
-            for (String line : LINES) {
-                // Match the regex.
-                final Matcher MATCHER = REGEX.matcher(line);
-                if (!MATCHER.find()) {
-                    assert false;
-                }
-
-                // For debugging.
-                java.util.List<String> groups = new java.util.LinkedList<>();
-                for (int i = 0; i <= MATCHER.groupCount(); i++) {
-                    groups.add(MATCHER.group(i));
-                }
-                System.out.printf("Groups = %d: %s\n", MATCHER.groupCount(), groups);
-
-                // Retrieve group 1, the definition name.
-                final String NAME = MATCHER.group(1).trim();
-                final Definition DEF = this.CONTEXT.findAny(TString.makeUnindexed(NAME));
-
-                if (DEF != null) {
-                    // Group 2 is an optional deletion prompt.
-                    if (null == MATCHER.group(2)) {
+            // Now iterate through the definitions that are present.
+            for (java.util.Map.Entry<Definition, java.util.Optional<String>> match : SCRIPTS.match(this.CONTEXT).entrySet()) {
+                final Definition DEF = match.getKey();
+
+                // An entry may have a deletion prompt.
+                if (!match.getValue().isPresent()) {
+                    CLEAN_NAMES.add(DEF);
+                    LOG.info(String.format("Definition present, adding to cleaning list: %s", DEF));
+
+                } else {
+                    LOG.info(String.format("Definition present, prompting for deletion: %s", DEF));
+                    final String PROMPT = match.getValue().get();
+                    final String MSG = String.format("Delete %s?\n%s", DEF, PROMPT);
+                    final String TITLE = "Confirm";
+                    int result = JOptionPane.showConfirmDialog(this.WINDOW, MSG, TITLE, JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE);
+                    if (result == JOptionPane.OK_OPTION) {
                         CLEAN_NAMES.add(DEF);
-                        LOG.info(String.format("Definition present, adding to cleaning list: %s", DEF));
-
-                    } else {
-                        LOG.info(String.format("Definition present, prompting for deletion: %s", DEF));
-                        final String PROMPT = MATCHER.group(2).trim();
-                        final String MSG = String.format("Delete %s?\n%s", DEF, PROMPT);
-                        final String TITLE = "Confirm";
-                        int result = JOptionPane.showConfirmDialog(this.WINDOW, MSG, TITLE, JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE);
-                        if (result == JOptionPane.OK_OPTION) {
-                            CLEAN_NAMES.add(DEF);
-                        } else if (result == JOptionPane.CANCEL_OPTION) {
-                            return false;
-                        }
+                    } else if (result == JOptionPane.CANCEL_OPTION) {
+                        return false;
                     }
                 }
             }
@@ -169,24 +139,15 @@ public class BatchCleaner extends SwingWorker<Boolean, Double> {
                 return false;
             }
 
-            final Papyrus PAPYRUS = this.SAVE.getPapyrus();
-            
-            final Set<ActiveScript> THREADS = CLEAN_NAMES.stream()
-                    .filter(def -> (def instanceof Script))
-                    .flatMap(def -> PAPYRUS.getActiveScripts().values().stream()
-                            .filter(v -> v.hasScript((Script)def)))
-                    .collect(Collectors.toSet());
-            
-            THREADS.forEach(t -> t.zero());
-            final Set<PapyrusElement> REMOVED = this.SAVE.getPapyrus().removeElements(CLEAN_NAMES);
-            this.WINDOW.deleteNodesFor(REMOVED);
+            final ScriptList.Cleaned CLEANED = ScriptList.clean(this.SAVE.getPapyrus(), CLEAN_NAMES);
+            this.WINDOW.deleteNodesFor(CLEANED.REMOVED);
             
-            long scripts = REMOVED.stream().filter(v -> v instanceof Script).count();
-            long scriptInstances = REMOVED.stream().filter(v -> v instanceof ScriptInstance).count();
-            long structs = REMOVED.stream().filter(v -> v instanceof Struct).count();
-            long structsInstances = REMOVED.stream().filter(v -> v instanceof StructInstance).count();
-            long references = REMOVED.stream().filter(v -> v instanceof Reference).count();
-            long threads = THREADS.size();
+            long scripts = CLEANED.count(Script.class);
+            long scriptInstances = CLEANED.count(ScriptInstance.class);
+            long structs = CLEANED.count(Struct.class);
+            long structsInstances = CLEANED.count(StructInstance.class);
+            long references = CLEANED.count(Reference.class);
+            long threads = CLEANED.THREADS.size();
 
             final String MSG = String.format("Cleaned %d scripts and %d corresponding instances.\nCleaned %s structs and %d corresponding instances.\nCleaned %d references.\n%d threads were terminated.", scripts, scriptInstances, structs, structsInstances, references, threads);
             JOptionPane.showMessageDialog(this.WINDOW, MSG, TITLE, JOptionPane.INFORMATION_MESSAGE);
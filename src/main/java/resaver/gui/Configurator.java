@@ -31,7 +31,11 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.logging.Level;
@@ -44,6 +48,7 @@ import javax.swing.JOptionPane;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import resaver.Mod;
 import resaver.Game;
+import resaver.ess.SaveCatalog;
 
 /**
  * Displays dialog boxes for configuring <code>ModChooser</code> and
@@ -369,6 +374,7 @@ abstract public class Configurator {
             CHOOSER.getActionMap().get("viewTypeDetails").actionPerformed(null);
             CHOOSER.setCurrentDirectory(startingDirectory.toFile());
             CHOOSER.setFileFilter(Game.FILTER_ALL);
+            CHOOSER.setAccessory(new SavePreview(CHOOSER));
 
             if (startingFile != null) {
                 CHOOSER.setSelectedFile(startingFile.toFile());
@@ -952,6 +958,57 @@ abstract public class Configurator {
         return file;
     }
 
+    /**
+     * @return The catalog of savefiles, loaded from disk the first time it's
+     * needed.
+     */
+    static public SaveCatalog getCatalog() {
+        synchronized (Configurator.class) {
+            if (catalog == null) {
+                catalog = SaveCatalog.load(CATALOG_FILE);
+            }
+            return catalog;
+        }
+    }
+
+    /**
+     * Schedules the catalog of savefiles to be written back to disk, if it
+     * has been loaded. The catalog is rewritten in full, thumbnails and all,
+     * so writes are delayed by a few seconds and requests made in the 
+     * meantime are folded into the same write.
+     */
+    static public void storeCatalog() {
+        synchronized (Configurator.class) {
+            if (catalog != null && catalogStore == null) {
+                catalogStore = CATALOG_WRITER.schedule(Configurator::flushCatalog, CATALOG_DELAY, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes the catalog of savefiles back to disk immediately, if it has 
+     * been loaded and has changed. Called on exit, and by 
+     * <code>storeCatalog</code> once its delay runs out.
+     */
+    static public void flushCatalog() {
+        final SaveCatalog CATALOG;
+        synchronized (Configurator.class) {
+            CATALOG = catalog;
+            if (catalogStore != null) {
+                catalogStore.cancel(false);
+                catalogStore = null;
+            }
+        }
+
+        if (CATALOG != null) {
+            try {
+                CATALOG.save();
+            } catch (IOException ex) {
+                LOG.log(Level.WARNING, "Couldn't write the save catalog.", ex);
+            }
+        }
+    }
+
     /**
      * Getter for the previous plugins export field.
      *
@@ -1071,6 +1128,15 @@ abstract public class Configurator {
     static final private Pattern KEY_VALUE = Pattern.compile("^(.+)=(?:@ByteArray\\((.+)\\)|(.+))$", Pattern.CASE_INSENSITIVE);
     static private final Path MO2ROOT = Paths.get(System.getProperty("user.home"), "appData", "local", "ModOrganizer");
     static private final Path MYGAMES = new JFileChooser().getFileSystemView().getDefaultDirectory().toPath().resolve("My Games");
+    static private final Path CATALOG_FILE = Paths.get(System.getProperty("user.home"), ".resaver", "catalog.dat");
+    static private SaveCatalog catalog = null;
+    static private ScheduledFuture<?> catalogStore = null;
+    static private final int CATALOG_DELAY = 10;
+    static private final ScheduledExecutorService CATALOG_WRITER = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread THREAD = new Thread(r, "Save catalog writer");
+        THREAD.setDaemon(true);
+        return THREAD;
+    });
 
     static final private ResourceBundle I18N = ResourceBundle.getBundle("Strings");
     static private final FileNameExtensionFilter TEXTFILES = new FileNameExtensionFilter("Text file", "txt");
@@ -93,6 +93,8 @@ public class Opener extends SwingWorker<Opener.Result, Double> {
             final ModelBuilder MB = new ModelBuilder(PM, SORT, null);
             PROGRESS.setModel(PM);
             final ESS.Result ESS_RESULT = ESS.readESS(this.SAVEFILE, MB);
+            Configurator.getCatalog().record(ESS_RESULT.ESS);
+            Configurator.storeCatalog();
             final Worrier WORRIER = new Worrier(ESS_RESULT, PREVIOUS.map(p -> p.WORRIER));
             final Opener.Result RESULT = new Opener.Result(ESS_RESULT, WORRIER);
                     
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package resaver.gui;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.beans.PropertyChangeEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.ImageIcon;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
+import resaver.ess.SaveCatalog;
+
+/**
+ * An accessory for the savefile chooser that shows the screenshot and details
+ * of the selected savefile, taken from the <code>SaveCatalog</code>.
+ *
+ * Whenever the chooser changes directory, the catalog is refreshed in the
+ * background, so only savefiles that are new or have changed get parsed.
+ *
+ * @author Mark Fairchild
+ */
+final public class SavePreview extends JPanel {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new <code>SavePreview</code> and attaches it to a chooser.
+     *
+     * @param chooser The chooser.
+     */
+    public SavePreview(JFileChooser chooser) {
+        super(new BorderLayout());
+        this.IMAGE = new JLabel();
+        this.DETAILS = new JLabel();
+        this.IMAGE.setHorizontalAlignment(SwingConstants.CENTER);
+        this.DETAILS.setVerticalAlignment(SwingConstants.TOP);
+        super.add(this.IMAGE, BorderLayout.NORTH);
+        super.add(this.DETAILS, BorderLayout.CENTER);
+        super.setPreferredSize(new Dimension(WIDTH + 20, 0));
+
+        chooser.addPropertyChangeListener(JFileChooser.SELECTED_FILE_CHANGED_PROPERTY, this::selectionChanged);
+        chooser.addPropertyChangeListener(JFileChooser.DIRECTORY_CHANGED_PROPERTY, this::directoryChanged);
+
+        if (chooser.getCurrentDirectory() != null) {
+            this.refresh(chooser.getCurrentDirectory().toPath());
+        }
+    }
+
+    /**
+     * Shows the selected savefile.
+     *
+     * @param evt The event.
+     */
+    private void selectionChanged(PropertyChangeEvent evt) {
+        final File SELECTED = (File) evt.getNewValue();
+        if (this.preview != null) {
+            this.preview.cancel(false);
+            this.preview = null;
+        }
+        
+        this.IMAGE.setIcon(null);
+        this.DETAILS.setText("");
+
+        if (SELECTED == null || !Configurator.validateSavegame(SELECTED.toPath())) {
+            return;
+        }
+
+        final Path PATH = SELECTED.toPath();
+        final SaveCatalog CATALOG = Configurator.getCatalog();
+
+        this.preview = new SwingWorker<SaveCatalog.Entry, Void>() {
+            @Override
+            protected SaveCatalog.Entry doInBackground() throws IOException {
+                return CATALOG.update(PATH);
+            }
+
+            @Override
+            protected void done() {
+                // A slow preview of an earlier selection must not replace
+                // the current one.
+                if (isCancelled() || SavePreview.this.preview != this) {
+                    return;
+                }
+                
+                try {
+                    SavePreview.this.show(get());
+                } catch (InterruptedException | java.util.concurrent.ExecutionException ex) {
+                    LOG.log(Level.FINE, "Couldn't preview " + PATH, ex);
+                }
+            }
+        };
+        this.preview.execute();
+    }
+
+    /**
+     * Refreshes the catalog for a new directory.
+     *
+     * @param evt The event.
+     */
+    private void directoryChanged(PropertyChangeEvent evt) {
+        final File DIR = (File) evt.getNewValue();
+        if (DIR != null) {
+            this.refresh(DIR.toPath());
+        }
+    }
+
+    /**
+     * Refreshes the catalog for a directory in the background.
+     *
+     * @param dir The directory.
+     */
+    private void refresh(Path dir) {
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                Configurator.getCatalog().refresh(Collections.singleton(dir));
+                Configurator.storeCatalog();
+                return null;
+            }
+        }.execute();
+    }
+
+    /**
+     * Displays a catalog entry.
+     *
+     * @param entry The entry.
+     */
+    private void show(SaveCatalog.Entry entry) {
+        this.IMAGE.setIcon(entry.getThumbnail().map(ImageIcon::new).orElse(null));
+
+        final StringBuilder BUF = new StringBuilder("<html>");
+        BUF.append(String.format("<b>%s</b><br/>", escape(entry.NAME)));
+        BUF.append(String.format("Level %d %s<br/>", entry.LEVEL, escape(entry.RACE)));
+        BUF.append(String.format("%s<br/>", escape(entry.LOCATION)));
+        BUF.append(String.format("%s<br/>", escape(entry.GAMEDATE)));
+        BUF.append(String.format("Save #%d, %s<br/>", entry.SAVENUMBER, entry.GAME.NAME));
+        if (entry.PLUGIN_COUNT >= 0) {
+            BUF.append(String.format("%d plugins<br/>", entry.PLUGIN_COUNT));
+        }
+        BUF.append(String.format("%.1f mb", entry.FILE_SIZE / 1048576.0));
+        BUF.append("</html>");
+        this.DETAILS.setText(BUF.toString());
+    }
+
+    /**
+     * @param s A string.
+     * @return The string with HTML special characters escaped.
+     */
+    static private String escape(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    final private JLabel IMAGE;
+    final private JLabel DETAILS;
+    private SwingWorker<SaveCatalog.Entry, Void> preview;
+    static final private int WIDTH = 128;
+    static final private Logger LOG = Logger.getLogger(SavePreview.class.getCanonicalName());
+
+}
@@ -906,6 +906,7 @@ final public class SaveWindow extends JFrame {
             } catch (BackingStoreException ex) {
                 LOG.log(Level.WARNING, "Error saving preferences.", ex);
             }
+            Configurator.flushCatalog();
             this.FILTERFIELD.terminate();
             this.LBL_MEMORY.terminate();
             this.setVisible(false);
@@ -1280,7 +1281,7 @@ final public class SaveWindow extends JFrame {
         }
 
         try {
-            final ESS.Result RESULT = ESS.readESS(otherPath, new ModelBuilder(new ProgressModel(1)));
+            final ESS.Result RESULT = ESS.readESS(otherPath);
             ESS.verifyIdentical(this.save, RESULT.ESS);
             JOptionPane.showMessageDialog(this, "No mismatches detected.", "Match", JOptionPane.INFORMATION_MESSAGE);
 
@@ -29,6 +29,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -193,16 +196,49 @@ public class Scanner extends SwingWorker<resaver.Analysis, Double> {
 
             COUNTER.reset(PLUGINS.getSize());
 
-            for (Plugin plugin : PLUGINS.getAllPlugins()) {
-                this.PROGRESS.accept(MessageFormat.format(I18N.getString("SCANNER_PARSING_PLUGIN"), COUNTER.eval(), plugin.indexName()));
+            // Plugins are independent of each other, so they are skimmed in 
+            // parallel. The largest are started first, so that one big 
+            // plugin doesn't end up running alone at the end.
+            final List<Plugin> FOUND = new ArrayList<>(PLUGINS.getSize());
+            final Map<Plugin, Long> FILESIZES = new HashMap<>();
 
+            for (Plugin plugin : PLUGINS.getAllPlugins()) {
                 if (!PLUGINFILEMAP.containsKey(plugin)) {
+                    synchronized (COUNTER) {
+                        COUNTER.click();
+                    }
                     MISSING_PLUGINS.add(plugin.NAME);
                     LOG.info(MessageFormat.format("Plugin {0} could not be found.", plugin));
-
                 } else {
+                    FOUND.add(plugin);
+                    FILESIZES.put(plugin, PLUGINFILEMAP.get(plugin).toFile().length());
+                }
+            }
+
+            final List<Plugin> LARGEST_FIRST = new ArrayList<>(FOUND);
+            LARGEST_FIRST.sort((p1, p2) -> Long.compare(FILESIZES.get(p2), FILESIZES.get(p1)));
+
+            // Tasks are taken in the order they were submitted.
+            final int THREADS = Math.max(1, Math.min(FOUND.size(), Runtime.getRuntime().availableProcessors()));
+            final ForkJoinPool POOL = new ForkJoinPool(THREADS, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+            final Map<Plugin, Future<PluginNameData>> RESULTS = new HashMap<>();
+
+            try {
+                for (Plugin plugin : LARGEST_FIRST) {
+                    RESULTS.put(plugin, POOL.submit(() -> {
+                        final String MSG;
+                        synchronized (COUNTER) {
+                            MSG = MessageFormat.format(I18N.getString("SCANNER_PARSING_PLUGIN"), COUNTER.eval(), plugin.indexName());
+                        }
+                        this.PROGRESS.accept(MSG);
+                        return ESP.skimPlugin(PLUGINFILEMAP.get(plugin), GAME, plugin, PLUGINS, new PluginNameData(plugin));
+                    }));
+                }
+
+                // Gather the results in load order.
+                for (Plugin plugin : FOUND) {
                     try {
-                        final PluginNameData INFO = ESP.skimPlugin(PLUGINFILEMAP.get(plugin), GAME, plugin, PLUGINS, new PluginNameData(plugin));                            
+                        final PluginNameData INFO = RESULTS.get(plugin).get();
                         PLUGIN_DATA.put(plugin, INFO);
 
                         final String MSG = String.format(I18N.getString("SCANNER_LOG_PLUGINDATA"), INFO.getNameCount(), INFO.getScriptDataSize() / 1024.0f, plugin.indexName());
@@ -212,24 +248,38 @@ public class Scanner extends SwingWorker<resaver.Analysis, Double> {
                         assert INFO.getScriptDataSize() >= 0;
                         SIZES.put(plugin, INFO.getScriptDataSize());
 
-                    } catch (ClosedByInterruptException ex) {
-                        throw ex;
-                    } catch (FileNotFoundException ex) {
-                        MISSING_PLUGINS.add(plugin.NAME);
-                        final String MSG = MessageFormat.format("Plugin missing: {0}.", plugin.indexName());
-                        LOG.log(Level.WARNING, MSG, ex);                        
-                    } catch (RuntimeException ex) {
-                        ERR_PLUGINS.add(plugin.NAME);
-                        final String MSG = MessageFormat.format("Error reading plugin: {0}.", plugin.indexName());
-                        LOG.log(Level.WARNING, MSG, ex);
-                        ex.printStackTrace(System.err);
-                    } catch (PluginException ex) {
-                        ERR_PLUGINS.add(ex.PLUGIN);
-                        final String MSG = MessageFormat.format("Error reading plugin: {0}.", ex.CONTEXT);
-                        LOG.log(Level.WARNING, MSG, ex);
-                        ex.printStackTrace(System.err);                        
+                    } catch (ExecutionException wrapper) {
+                        final Throwable ex = wrapper.getCause();
+
+                        if (ex instanceof ClosedByInterruptException) {
+                            throw (ClosedByInterruptException) ex;
+                        } else if (ex instanceof Error) {
+                            throw (Error) ex;
+                        } else if (ex instanceof FileNotFoundException) {
+                            MISSING_PLUGINS.add(plugin.NAME);
+                            final String MSG = MessageFormat.format("Plugin missing: {0}.", plugin.indexName());
+                            LOG.log(Level.WARNING, MSG, ex);                        
+                        } else if (ex instanceof PluginException) {
+                            final PluginException PEX = (PluginException) ex;
+                            ERR_PLUGINS.add(PEX.PLUGIN);
+                            final String MSG = MessageFormat.format("Error reading plugin: {0}.", PEX.CONTEXT);
+                            LOG.log(Level.WARNING, MSG, ex);
+                            ex.printStackTrace(System.err);                        
+                        } else {
+                            ERR_PLUGINS.add(plugin.NAME);
+                            final String MSG = MessageFormat.format("Error reading plugin: {0}.", plugin.indexName());
+                            LOG.log(Level.WARNING, MSG, ex);
+                            ex.printStackTrace(System.err);
+                        }
                     }
                 }
+
+            } catch (InterruptedException ex) {
+                final ClosedByInterruptException CLOSED = new ClosedByInterruptException();
+                CLOSED.initCause(ex);
+                throw CLOSED;
+            } finally {
+                POOL.shutdownNow();
             }
 
             this.PROGRESS.accept(I18N.getString("SCANNER_CREATING_ANALYSIS"));
@@ -138,6 +138,11 @@ public class Watcher {
                     REGKEYS.put(dir.register(WATCHSERVICE, StandardWatchEventKinds.ENTRY_CREATE), dir);
                 }
 
+                // Bring the catalog up to date; only new or changed savefiles
+                // are parsed. Events that arrive meanwhile are queued.
+                Configurator.getCatalog().refresh(dirCollection);
+                Configurator.storeCatalog();
+
                 while (true) {
 
                     final WatchKey EVENTKEY = WATCHSERVICE.take();
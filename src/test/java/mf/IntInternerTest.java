@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mf;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the <code>IntInterner</code> class.
+ *
+ * @author Mark Fairchild
+ */
+public class IntInternerTest {
+
+    /**
+     * Test of computeIfAbsent and get, of class IntInterner.
+     */
+    @Test
+    void computeIfAbsent() {
+        final IntInterner<String> INTERNER = new IntInterner<>(4);
+        final AtomicInteger CALLS = new AtomicInteger();
+
+        for (int key : KEYS) {
+            assertNull(INTERNER.get(key));
+            final String VALUE = INTERNER.computeIfAbsent(key, k -> {
+                CALLS.incrementAndGet();
+                return Integer.toString(k);
+            });
+            assertEquals(Integer.toString(key), VALUE);
+            assertSame(VALUE, INTERNER.computeIfAbsent(key, k -> fail("The factory was called twice for " + k)));
+            assertSame(VALUE, INTERNER.get(key));
+        }
+
+        assertEquals(KEYS.length, CALLS.get());
+        assertEquals(KEYS.length, INTERNER.size());
+    }
+
+    /**
+     * Test of size and values, of class IntInterner, across several resizes.
+     */
+    @Test
+    void growth() {
+        final IntInterner<Integer> INTERNER = new IntInterner<>(1);
+        final int COUNT = 100_000;
+
+        for (int i = 0; i < COUNT; i++) {
+            final int KEY = i * 0x9E3779B9;
+            INTERNER.computeIfAbsent(KEY, k -> k);
+        }
+
+        assertEquals(COUNT, INTERNER.size());
+        assertEquals(COUNT, INTERNER.values().distinct().count());
+        for (int i = 0; i < COUNT; i++) {
+            final int KEY = i * 0x9E3779B9;
+            assertEquals(KEY, INTERNER.get(KEY).intValue());
+        }
+    }
+
+    /**
+     * Test of computeIfAbsent, of class IntInterner, from several threads at
+     * once: every thread has to get the same value for a key.
+     */
+    @Test
+    void concurrentComputeIfAbsent() throws Exception {
+        final IntInterner<Object> INTERNER = new IntInterner<>(16);
+        final int THREADS = 8;
+        final int COUNT = 50_000;
+        final CountDownLatch START = new CountDownLatch(1);
+        final ExecutorService POOL = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            final List<Future<List<Object>>> RESULTS = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                RESULTS.add(POOL.submit(() -> {
+                    START.await();
+                    final List<Object> VALUES = new ArrayList<>(COUNT);
+                    for (int key = 0; key < COUNT; key++) {
+                        VALUES.add(INTERNER.computeIfAbsent(key, k -> new Object()));
+                    }
+                    return VALUES;
+                }));
+            }
+            START.countDown();
+
+            final List<Object> FIRST = RESULTS.get(0).get();
+            for (Future<List<Object>> result : RESULTS) {
+                final List<Object> VALUES = result.get();
+                for (int key = 0; key < COUNT; key++) {
+                    assertSame(FIRST.get(key), VALUES.get(key), "Different values for key " + key);
+                }
+            }
+
+            assertEquals(COUNT, INTERNER.size());
+            final Set<Object> ALL = INTERNER.values().collect(Collectors.toSet());
+            assertEquals(new HashSet<>(FIRST), ALL);
+        } finally {
+            POOL.shutdownNow();
+        }
+    }
+
+    static final private int[] KEYS = {0, 1, -1, 17, 0x10000, Integer.MIN_VALUE, Integer.MAX_VALUE, 0xFF000014, 0x00000D62};
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package mf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Tests the streams written by the <code>ParallelDeflater</code> class, which
+ * have to be readable by an ordinary inflater.
+ *
+ * @author Mark Fairchild
+ */
+public class ParallelDeflaterTest {
+
+    /**
+     * Sizes on both sides of the block size (128k), the size above which
+     * <code>BufferUtil.deflateZLIB</code> compresses in parallel (1m), and a
+     * few batches.
+     */
+    static private IntStream sizeProvider() {
+        return IntStream.of(0, 1,
+                (1 << 17) - 1, 1 << 17, (1 << 17) + 1,
+                (1 << 20) - 1, 1 << 20, (1 << 20) + 1,
+                7 * (1 << 20) + 12345);
+    }
+
+    /**
+     * Test of deflate, of class ParallelDeflater.
+     *
+     * @param size The size of the input.
+     */
+    @ParameterizedTest(name = "{index} => size={0}")
+    @MethodSource("sizeProvider")
+    void deflateRoundTrip(int size) throws DataFormatException {
+        final byte[] DATA = sample(size, size);
+        final ByteBuffer COMPRESSED = ParallelDeflater.deflate(ByteBuffer.wrap(DATA), Deflater.BEST_COMPRESSION);
+        assertArrayEquals(DATA, inflate(COMPRESSED, size));
+    }
+
+    /**
+     * Test of deflateZLIB, of class BufferUtil, which picks the parallel or
+     * the pooled deflater by size.
+     *
+     * @param size The size of the input.
+     */
+    @ParameterizedTest(name = "{index} => size={0}")
+    @MethodSource("sizeProvider")
+    void deflateZLIBRoundTrip(int size) throws DataFormatException {
+        final byte[] DATA = sample(size, ~size);
+        final ByteBuffer INPUT = ByteBuffer.wrap(DATA);
+        final ByteBuffer COMPRESSED = BufferUtil.deflateZLIB(INPUT, size);
+        assertFalse(INPUT.hasRemaining());
+        assertArrayEquals(DATA, inflate(COMPRESSED, size));
+    }
+
+    /**
+     * Test of write and finish, of class ParallelDeflater, with the input
+     * arriving in uneven pieces.
+     */
+    @Test
+    void streamedWrites() throws IOException, DataFormatException {
+        final int SIZE = 3 * (1 << 20) + 777;
+        final byte[] DATA = sample(SIZE, 42);
+        final ByteArrayOutputStream BYTES = new ByteArrayOutputStream();
+        final ParallelDeflater DEFLATER = new ParallelDeflater(Channels.newChannel(BYTES), Deflater.BEST_SPEED);
+
+        final Random RANDOM = new Random(42);
+        for (int pos = 0; pos < SIZE;) {
+            final int N = Math.min(SIZE - pos, 1 + RANDOM.nextInt(200_000));
+            DEFLATER.write(ByteBuffer.wrap(DATA, pos, N));
+            pos += N;
+        }
+
+        final long WRITTEN = DEFLATER.finish();
+        assertEquals(SIZE, DEFLATER.getBytesRead());
+        assertEquals(BYTES.size(), WRITTEN);
+        assertArrayEquals(DATA, inflate(ByteBuffer.wrap(BYTES.toByteArray()), SIZE));
+    }
+
+    /**
+     * Test of combine, of class ParallelDeflater.
+     */
+    @Test
+    void combine() {
+        final Random RANDOM = new Random(7);
+
+        for (int trial = 0; trial < 200; trial++) {
+            final byte[] DATA = new byte[RANDOM.nextInt(300_000)];
+            RANDOM.nextBytes(DATA);
+            final int SPLIT = DATA.length == 0 ? 0 : RANDOM.nextInt(DATA.length + 1);
+
+            final Adler32 WHOLE = new Adler32();
+            WHOLE.update(DATA);
+            final Adler32 FIRST = new Adler32();
+            FIRST.update(DATA, 0, SPLIT);
+            final Adler32 SECOND = new Adler32();
+            SECOND.update(DATA, SPLIT, DATA.length - SPLIT);
+
+            assertEquals(WHOLE.getValue(), ParallelDeflater.combine(FIRST.getValue(), SECOND.getValue(), DATA.length - SPLIT),
+                    "combine failed for split " + SPLIT + " of " + DATA.length);
+        }
+    }
+
+    /**
+     * Inflates a complete ZLIB stream. The inflater checks the header and the
+     * Adler-32 trailer.
+     *
+     * @param compressed The stream.
+     * @param size The expected size of the output.
+     * @return The output.
+     */
+    static private byte[] inflate(ByteBuffer compressed, int size) throws DataFormatException {
+        final byte[] INPUT = new byte[compressed.remaining()];
+        compressed.get(INPUT);
+
+        final Inflater INFLATER = new Inflater();
+        try {
+            INFLATER.setInput(INPUT);
+            final byte[] OUTPUT = new byte[size + 1];
+            int count = 0;
+            while (!INFLATER.finished()) {
+                final int N = INFLATER.inflate(OUTPUT, count, OUTPUT.length - count);
+                if (N == 0 && !INFLATER.finished() && (INFLATER.needsInput() || INFLATER.needsDictionary())) {
+                    fail("Truncated stream after " + count + " bytes.");
+                }
+                count += N;
+            }
+            assertEquals(0, INFLATER.getRemaining(), "Trailing bytes after the stream.");
+            return Arrays.copyOf(OUTPUT, count);
+        } finally {
+            INFLATER.end();
+        }
+    }
+
+    /**
+     * Makes sample data that compresses somewhat: runs of repeated phrases
+     * broken up by random bytes.
+     *
+     * @param size The size.
+     * @param seed The random seed.
+     * @return The data.
+     */
+    static private byte[] sample(int size, long seed) {
+        final Random RANDOM = new Random(seed);
+        final byte[][] PHRASES = new byte[32][];
+        for (int i = 0; i < PHRASES.length; i++) {
+            PHRASES[i] = new byte[4 + RANDOM.nextInt(60)];
+            RANDOM.nextBytes(PHRASES[i]);
+        }
+
+        final ByteBuffer DATA = ByteBuffer.allocate(size);
+        while (DATA.hasRemaining()) {
+            if (RANDOM.nextInt(4) == 0) {
+                DATA.put((byte) RANDOM.nextInt());
+            } else {
+                final byte[] PHRASE = PHRASES[RANDOM.nextInt(PHRASES.length)];
+                DATA.put(PHRASE, 0, Math.min(PHRASE.length, DATA.remaining()));
+            }
+        }
+        ((Buffer) DATA).flip();
+        return DATA.array();
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package resaver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the intern pool behind <code>IString.get</code>.
+ *
+ * @author Mark Fairchild
+ */
+public class IStringTest {
+
+    /**
+     * Test of get, of class IString: every capitalization of a string gives
+     * the same lowercase instance.
+     */
+    @Test
+    void getIgnoresCase() {
+        final String[] NAMES = {"WIDeadBodyCleanupScript", "widEADbodyCLEANUPscript", "wideadbodycleanupscript", "\u00C4\u00D6\u00DC_Pl\u00E4tze"};
+
+        for (String name : NAMES) {
+            final IString POOLED = IString.get(name);
+            assertEquals(name.toLowerCase(), POOLED.toString());
+            assertSame(POOLED, IString.get(name.toUpperCase()));
+            assertSame(POOLED, IString.get(name.toLowerCase()));
+            assertSame(POOLED, IString.get(new String(name.toCharArray())));
+            assertTrue(POOLED.equals(name));
+            assertEquals(POOLED.hashCode(), new IString(name).hashCode());
+        }
+
+        assertNotSame(IString.get(NAMES[0]), IString.get(NAMES[3]));
+        assertSame(IString.get(""), IString.get(new String()));
+    }
+
+    /**
+     * Test of get, of class IString, with enough strings to resize every
+     * stripe of the pool several times.
+     */
+    @Test
+    void getMany() {
+        final int COUNT = 200_000;
+        final List<IString> POOLED = new ArrayList<>(COUNT);
+
+        for (int i = 0; i < COUNT; i++) {
+            POOLED.add(IString.get("Pool_Test_" + i));
+        }
+        for (int i = 0; i < COUNT; i++) {
+            assertSame(POOLED.get(i), IString.get("POOL_TEST_" + i));
+        }
+    }
+
+    /**
+     * Test of get, of class IString, from several threads at once: every
+     * thread has to get the same instance for a string.
+     */
+    @Test
+    void getConcurrently() throws Exception {
+        final int THREADS = 8;
+        final int COUNT = 20_000;
+        final CountDownLatch START = new CountDownLatch(1);
+        final ExecutorService POOL = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            final List<Future<List<IString>>> RESULTS = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final boolean UPPER = t % 2 == 0;
+                RESULTS.add(POOL.submit(() -> {
+                    START.await();
+                    final List<IString> VALUES = new ArrayList<>(COUNT);
+                    for (int i = 0; i < COUNT; i++) {
+                        VALUES.add(IString.get((UPPER ? "CONCURRENT_" : "concurrent_") + i));
+                    }
+                    return VALUES;
+                }));
+            }
+            START.countDown();
+
+            final List<IString> FIRST = RESULTS.get(0).get();
+            for (Future<List<IString>> result : RESULTS) {
+                final List<IString> VALUES = result.get();
+                for (int i = 0; i < COUNT; i++) {
+                    assertSame(FIRST.get(i), VALUES.get(i), "Different instances for string " + i);
+                }
+            }
+        } finally {
+            POOL.shutdownNow();
+        }
+    }
+
+}
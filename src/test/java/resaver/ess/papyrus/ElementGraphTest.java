@@ -0,0 +1,218 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package resaver.ess.papyrus;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import resaver.ess.Element;
+import resaver.ess.Plugin;
+
+/**
+ * Tests the <code>partition</code> method of the <code>ElementGraph</code>
+ * class on small graphs built by hand.
+ *
+ * @author Mark Fairchild
+ */
+public class ElementGraphTest {
+
+    /**
+     * Test of partition, of class ElementGraph.
+     *
+     * <pre>
+     * A -> a1 -> a2 -> a3 -> a1      (three levels, with a cycle)
+     * A -> s -> z                    (s is shared with B; z is only behind s)
+     * A, B, C -> t                   (shared three ways)
+     * B -> b1 -> x                   (x is also reached by C, a level later)
+     * C -> c1 -> y -> x
+     * D                              (refers to nothing)
+     * </pre>
+     */
+    @Test
+    void partition() {
+        final Plugin A = Plugin.makeUnloadedPlugin("A.esp");
+        final Plugin B = Plugin.makeUnloadedPlugin("B.esp");
+        final Plugin C = Plugin.makeUnloadedPlugin("C.esp");
+        final Plugin D = Plugin.makeUnloadedPlugin("D.esp");
+        final Element A1 = new Node("a1"), A2 = new Node("a2"), A3 = new Node("a3");
+        final Element B1 = new Node("b1"), C1 = new Node("c1");
+        final Element S = new Node("s"), T = new Node("t"), X = new Node("x"), Y = new Node("y"), Z = new Node("z");
+
+        final List<Element[]> EDGES = Arrays.asList(
+                edge(A, A1), edge(A1, A2), edge(A2, A3), edge(A3, A1),
+                edge(A, S), edge(B, S), edge(S, Z),
+                edge(A, T), edge(B, T), edge(C, T),
+                edge(B, B1), edge(B1, X),
+                edge(C, C1), edge(C1, Y), edge(Y, X));
+
+        final ElementGraph GRAPH = build(EDGES);
+        final Map<Plugin, Set<Element>> PARTITION = GRAPH.partition(Arrays.asList(A, B, C, D));
+
+        // Shared elements are kept only for the plugins that refer to them
+        // directly; x and z belong to nobody.
+        assertEquals(set(A1, A2, A3, S, T), PARTITION.get(A));
+        assertEquals(set(B1, S, T), PARTITION.get(B));
+        assertEquals(set(C1, Y, T), PARTITION.get(C));
+        assertFalse(PARTITION.containsKey(D));
+        assertEquals(reference(EDGES, Arrays.asList(A, B, C, D)), PARTITION);
+    }
+
+    /**
+     * Test of partition, of class ElementGraph, against a straightforward
+     * set-based version of the same algorithm, on random graphs.
+     *
+     * @param seed The random seed.
+     */
+    @ParameterizedTest(name = "{index} => seed={0}")
+    @MethodSource("seedProvider")
+    void partitionRandom(int seed) {
+        final Random RANDOM = new Random(seed);
+        final List<Plugin> PLUGINS = IntStream.range(0, 2 + RANDOM.nextInt(6))
+                .mapToObj(i -> Plugin.makeUnloadedPlugin("Plugin" + i + ".esp"))
+                .collect(Collectors.toList());
+        final List<Element> NODES = IntStream.range(0, 20 + RANDOM.nextInt(180))
+                .mapToObj(i -> new Node("n" + i))
+                .collect(Collectors.toList());
+
+        final List<Element[]> EDGES = new ArrayList<>();
+        for (Plugin plugin : PLUGINS) {
+            for (int i = RANDOM.nextInt(6); i > 0; i--) {
+                EDGES.add(edge(plugin, NODES.get(RANDOM.nextInt(NODES.size()))));
+            }
+        }
+        for (int i = RANDOM.nextInt(2 * NODES.size()); i > 0; i--) {
+            EDGES.add(edge(NODES.get(RANDOM.nextInt(NODES.size())), NODES.get(RANDOM.nextInt(NODES.size()))));
+        }
+
+        final ElementGraph GRAPH = build(EDGES);
+        assertEquals(reference(EDGES, PLUGINS), GRAPH.partition(PLUGINS));
+    }
+
+    static private IntStream seedProvider() {
+        return IntStream.range(0, 50);
+    }
+
+    /**
+     * The partition, computed with sets: extend every plugin one level at a
+     * time, eliminating anything that two plugins have reached, then give
+     * each plugin back its direct references.
+     *
+     * @param edges The edges.
+     * @param plugins The plugins.
+     * @return The partition.
+     */
+    static private Map<Plugin, Set<Element>> reference(List<Element[]> edges, List<Plugin> plugins) {
+        final Map<Element, Set<Element>> SUCCESSORS = new HashMap<>();
+        edges.forEach(e -> SUCCESSORS.computeIfAbsent(e[0], k -> new HashSet<>()).add(e[1]));
+
+        final Map<Plugin, Set<Element>> REACH = new LinkedHashMap<>();
+        final Map<Plugin, Set<Element>> FRONTIER = new HashMap<>();
+        plugins.stream().filter(SUCCESSORS::containsKey).forEach(p -> {
+            REACH.put(p, new HashSet<>(SUCCESSORS.get(p)));
+            FRONTIER.put(p, new HashSet<>(SUCCESSORS.get(p)));
+        });
+
+        final Set<Element> ELIMINATED = new HashSet<>();
+        boolean changed = true;
+
+        while (changed) {
+            final Map<Element, Long> COUNTS = REACH.values().stream()
+                    .flatMap(Set::stream)
+                    .collect(Collectors.groupingBy(e -> e, Collectors.counting()));
+            final Set<Element> SHARED = COUNTS.keySet().stream()
+                    .filter(e -> COUNTS.get(e) > 1)
+                    .collect(Collectors.toSet());
+            REACH.values().forEach(r -> r.removeAll(SHARED));
+            ELIMINATED.addAll(SHARED);
+            changed = !SHARED.isEmpty();
+
+            for (Plugin p : REACH.keySet()) {
+                final Set<Element> NEXT = new HashSet<>();
+                for (Element node : FRONTIER.get(p)) {
+                    if (!ELIMINATED.contains(node)) {
+                        for (Element target : SUCCESSORS.getOrDefault(node, new HashSet<>())) {
+                            if (!ELIMINATED.contains(target) && REACH.get(p).add(target)) {
+                                NEXT.add(target);
+                            }
+                        }
+                    }
+                }
+                FRONTIER.put(p, NEXT);
+                changed |= !NEXT.isEmpty();
+            }
+        }
+
+        REACH.forEach((p, r) -> r.addAll(SUCCESSORS.get(p)));
+        return REACH;
+    }
+
+    /**
+     * @param edges The edges.
+     * @return The graph, as <code>ElementGraph.build</code> would make it from
+     * a search that reported the edges.
+     */
+    static private ElementGraph build(List<Element[]> edges) {
+        return ElementGraph.build(consumer -> edges.forEach(e -> consumer.accept(e[0], e[1])));
+    }
+
+    static private Element[] edge(Element from, Element to) {
+        return new Element[]{from, to};
+    }
+
+    static private Set<Element> set(Element... elements) {
+        return new HashSet<>(Arrays.asList(elements));
+    }
+
+    /**
+     * A stand-in for a Papyrus element.
+     */
+    static final private class Node implements Element {
+
+        Node(String name) {
+            this.NAME = name;
+        }
+
+        @Override
+        public void write(ByteBuffer output) {
+        }
+
+        @Override
+        public int calculateSize() {
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return this.NAME;
+        }
+
+        final private String NAME;
+    }
+
+}
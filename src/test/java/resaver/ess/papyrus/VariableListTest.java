@@ -0,0 +1,402 @@
+/*
+ * Copyright 2020 Mark.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package resaver.ess.papyrus;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import resaver.Game;
+import resaver.ListException;
+import resaver.ess.ESS;
+import resaver.ess.ESSTest;
+import resaver.ess.ElementException;
+
+/**
+ * Tests the <code>write</code> and <code>calculateSize</code> methods of the
+ * <code>VariableList</code> class against the <code>Variable</code> objects
+ * that it hands out, using variables built by hand and the variables from the
+ * test saves.
+ *
+ * @author Mark Fairchild
+ */
+public class VariableListTest {
+
+    private static Stream<Path> pathProvider() {
+        try {
+            final List<Path> PATHS = Files.walk(ESSTest.TESTSAVES_DIR)
+                    .filter(p -> Game.FILTER_ALL.accept(p.toFile()))
+                    .filter(Files::isReadable)
+                    .filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+            return PATHS.stream();
+        } catch (IOException ex) {
+            System.out.println("Error while reading test files.");
+            System.err.println(ex.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    static private Stream<Game> gameProvider() {
+        return Stream.of(Game.SKYRIM_LE, Game.SKYRIM_SE);
+    }
+
+    /**
+     * Test of write and calculateSize, of class VariableList, with a variable
+     * of every kind. Skyrim LE has 32-bit ids and 16-bit string indices,
+     * Skyrim SE has 64-bit ids and 32-bit string indices.
+     *
+     * @param game The game whose savefile format to use.
+     */
+    @ParameterizedTest(name = "{index} => game={0}")
+    @MethodSource("gameProvider")
+    void writeAndCalculateSizeEveryKind(Game game) throws IOException, ElementException, ListException, PapyrusFormatException {
+        final boolean ID64 = game.isID64();
+        final List<String> STRINGS = new ArrayList<>(Arrays.asList("Actor", "MyStruct", "Hello"));
+        if (!ID64) {
+            // Enough strings for indices that don't fit in 16 bits.
+            while (STRINGS.size() < 0x11000) {
+                STRINGS.add("s" + STRINGS.size());
+            }
+        }
+        STRINGS.add("Wide");
+
+        final Path DIR = Files.createTempDirectory("variablelist_test");
+        final Path SAVE = DIR.resolve("test." + game.SAVE_EXT);
+        try {
+            Files.write(SAVE, minimalSave(game, STRINGS));
+            final PapyrusContext CONTEXT = ESS.readESS(SAVE).ESS.getPapyrus().getContext();
+
+            final int ACTOR = 0;
+            final int STRUCT = 1;
+            final int HELLO = 2;
+            final int WIDE = STRINGS.size() - 1;
+            final long ID = ID64 ? 0x0123456789ABCDEFL : 0x89ABCDEFL;
+
+            final ByteBuffer DATA = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+            int count = 0;
+
+            for (boolean variant : new boolean[]{false, true}) {
+                count += 13;
+
+                entry(DATA, variant, Type.NULL).putInt(0);
+                entry(DATA, variant, Type.INTEGER).putInt(-12345);
+                entry(DATA, variant, Type.FLOAT).putFloat(1.5f);
+                entry(DATA, variant, Type.BOOLEAN).putInt(1);
+                tstring(entry(DATA, variant, Type.STRING), HELLO, ID64);
+                tstring(entry(DATA, variant, Type.STRING), WIDE, ID64);
+                eid(tstring(entry(DATA, variant, Type.REF), ACTOR, ID64), ID, ID64);
+                eid(tstring(entry(DATA, variant, Type.REF), ACTOR, ID64), 0L, ID64);
+                eid(tstring(entry(DATA, variant, Type.STRUCT), STRUCT, ID64), ID, ID64);
+                eid(tstring(entry(DATA, variant, Type.REF_ARRAY), WIDE, ID64), ID, ID64);
+                eid(tstring(entry(DATA, variant, Type.STRUCT_ARRAY), STRUCT, ID64), ID + 1, ID64);
+                eid(entry(DATA, variant, Type.INTEGER_ARRAY), ID + 2, ID64);
+                eid(entry(DATA, variant, Type.VARIANT_ARRAY), ID + 3, ID64);
+
+                if (variant) {
+                    // A variant holding a variant.
+                    entry(DATA, true, Type.VARIANT);
+                    DATA.put((byte) Type.INTEGER.ordinal()).putInt(7);
+                    count++;
+                }
+            }
+
+            ((Buffer) DATA).flip();
+            final byte[] EXPECTED = Arrays.copyOf(DATA.array(), DATA.limit());
+
+            final List<Variable> REFERENCE = new ArrayList<>();
+            final ByteBuffer INPUT = wrap(EXPECTED);
+            for (int i = 0; i < count; i++) {
+                REFERENCE.add(Variable.read(INPUT, CONTEXT));
+            }
+            assertFalse(INPUT.hasRemaining());
+            assertArrayEquals(EXPECTED, writeEach(REFERENCE));
+
+            final VariableList PACKED = VariableList.read(wrap(EXPECTED), count, CONTEXT);
+            assertEquals(count, PACKED.size());
+            assertEquals(EXPECTED.length, PACKED.calculateSize());
+            assertArrayEquals(EXPECTED, write(PACKED));
+
+            for (int i = 0; i < count; i++) {
+                final Variable VAR = PACKED.get(i);
+                assertEquals(REFERENCE.get(i).getType(), VAR.getType(), "Type of entry " + i);
+                assertEquals(REFERENCE.get(i).calculateSize(), VAR.calculateSize(), "Size of entry " + i);
+                assertEquals(REFERENCE.get(i).toString(), VAR.toString(), "Entry " + i);
+            }
+
+            // Materializing the entries mustn't change anything.
+            assertArrayEquals(EXPECTED, writeEach(PACKED));
+            assertEquals(EXPECTED.length, PACKED.calculateSize());
+            assertArrayEquals(EXPECTED, write(PACKED));
+
+        } finally {
+            Files.deleteIfExists(SAVE);
+            Files.deleteIfExists(DIR);
+        }
+    }
+
+    /**
+     * Test of write and calculateSize, of class VariableList. Every list of
+     * variables in a save is written out one <code>Variable</code> at a time,
+     * read back into a <code>VariableList</code>, and written from the packed
+     * columns; the bytes and the sizes have to match.
+     *
+     * @param path The save to test with.
+     */
+    @ParameterizedTest(name = "{index} => filename={0}")
+    @MethodSource("pathProvider")
+    void writeAndCalculateSize(Path path) throws IOException, ElementException, ListException {
+        final ESS SAVE = ESS.readESS(path).ESS;
+        final Papyrus PAPYRUS = SAVE.getPapyrus();
+        final PapyrusContext CONTEXT = PAPYRUS.getContext();
+
+        final List<List<Variable>> LISTS = Stream.of(
+                PAPYRUS.getScriptInstances().values().stream(),
+                PAPYRUS.getStructInstances().values().stream(),
+                PAPYRUS.getReferences().values().stream(),
+                PAPYRUS.getArrays().values().stream(),
+                PAPYRUS.getActiveScripts().values().stream().flatMap(a -> a.getStackFrames().stream()))
+                .flatMap(s -> s)
+                .map(v -> ((HasVariables) v).getVariables())
+                .filter(v -> !v.isEmpty())
+                .collect(Collectors.toList());
+
+        for (List<Variable> variables : LISTS) {
+            final byte[] EXPECTED = writeEach(variables);
+            final VariableList PACKED = VariableList.read(wrap(EXPECTED), variables.size(), CONTEXT);
+
+            assertEquals(variables.size(), PACKED.size());
+            assertEquals(EXPECTED.length, PACKED.calculateSize());
+            assertArrayEquals(EXPECTED, write(PACKED));
+
+            // Materializing the entries mustn't change anything.
+            assertArrayEquals(EXPECTED, writeEach(PACKED));
+            assertArrayEquals(EXPECTED, write(PACKED));
+        }
+    }
+
+    /**
+     * Test of set, add and remove, of class VariableList. Entries that are
+     * replaced from outside are written from their <code>Variable</code>, the
+     * rest from the packed columns.
+     *
+     * @param path The save to test with.
+     */
+    @ParameterizedTest(name = "{index} => filename={0}")
+    @MethodSource("pathProvider")
+    void modify(Path path) throws IOException, ElementException, ListException {
+        final ESS SAVE = ESS.readESS(path).ESS;
+        final Papyrus PAPYRUS = SAVE.getPapyrus();
+        final PapyrusContext CONTEXT = PAPYRUS.getContext();
+
+        for (ScriptInstance instance : PAPYRUS.getScriptInstances().values()) {
+            final List<Variable> VARIABLES = instance.getVariables();
+            if (VARIABLES.size() < 2) {
+                continue;
+            }
+
+            final VariableList PACKED = VariableList.read(wrap(writeEach(VARIABLES)), VARIABLES.size(), CONTEXT);
+            PACKED.add(0, new Variable.Int(12345));
+            PACKED.set(PACKED.size() - 1, new Variable.Bool(true));
+            PACKED.remove(1);
+            PACKED.add(PACKED.size(), new Variable.Flt(0.5f));
+
+            final byte[] EXPECTED = writeEach(PACKED);
+            assertEquals(EXPECTED.length, PACKED.calculateSize());
+            assertArrayEquals(EXPECTED, write(PACKED));
+
+            final VariableList REREAD = VariableList.read(wrap(EXPECTED), PACKED.size(), CONTEXT);
+            assertArrayEquals(EXPECTED, write(REREAD));
+            for (int i = 0; i < PACKED.size(); i++) {
+                assertEquals(PACKED.get(i).getType(), REREAD.get(i).getType());
+            }
+        }
+    }
+
+    /**
+     * Writes the type code of an entry.
+     *
+     * @param output The output stream.
+     * @param variant Whether the entry is wrapped in a variant.
+     * @param type The type of the entry.
+     * @return The output stream.
+     */
+    static private ByteBuffer entry(ByteBuffer output, boolean variant, Type type) {
+        if (variant) {
+            output.put((byte) Type.VARIANT.ordinal());
+        }
+        return output.put((byte) type.ordinal());
+    }
+
+    /**
+     * Writes a string index the way <code>StringTable</code> does.
+     *
+     * @param output The output stream.
+     * @param index The index.
+     * @param str32 Whether string indices are 32 bits.
+     * @return The output stream.
+     */
+    static private ByteBuffer tstring(ByteBuffer output, int index, boolean str32) {
+        if (str32) {
+            return output.putInt(index);
+        } else if (index > 0xFFF0) {
+            return output.putShort((short) 0xFFFF).putInt(index);
+        } else {
+            return output.putShort((short) index);
+        }
+    }
+
+    /**
+     * @param output The output stream.
+     * @param id The id.
+     * @param id64 Whether ids are 64 bits.
+     * @return The output stream.
+     */
+    static private ByteBuffer eid(ByteBuffer output, long id, boolean id64) {
+        return id64 ? output.putLong(id) : output.putInt((int) id);
+    }
+
+    /**
+     * Makes the smallest savefile that <code>ESS.readESS</code> will accept:
+     * one plugin, no changeforms, and a Papyrus section that holds nothing but
+     * a string table.
+     *
+     * @param game Skyrim LE or Skyrim SE.
+     * @param strings The string table.
+     * @return The savefile.
+     */
+    static private byte[] minimalSave(Game game, List<String> strings) {
+        final boolean SE = game == Game.SKYRIM_SE;
+
+        final ByteBuffer PAPYRUS = ByteBuffer.allocate(1 << 21).order(ByteOrder.LITTLE_ENDIAN);
+        PAPYRUS.putShort((short) 4);
+        if (SE) {
+            PAPYRUS.putInt(strings.size());
+        } else {
+            // Smaller tables would trigger the string-table-bug correction.
+            assert strings.size() >= 20000;
+            PAPYRUS.putShort((short) 0xFFFF).putInt(strings.size());
+        }
+        strings.forEach(s -> wstring(PAPYRUS, s));
+
+        // Scripts, script instances, references, arrays, the runtime id,
+        // active scripts, function messages, both suspended stack tables,
+        // the unknown int, the unknown id list, and the queued unbinds.
+        for (int i = 0; i < 12; i++) {
+            PAPYRUS.putInt(0);
+        }
+        PAPYRUS.putShort((short) 0);
+        ((Buffer) PAPYRUS).flip();
+
+        final ByteBuffer OUTPUT = ByteBuffer.allocate(PAPYRUS.limit() + 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+        // The header.
+        OUTPUT.put("TESV_SAVEGAME".getBytes(StandardCharsets.US_ASCII));
+        final int HEADERSIZE = OUTPUT.position();
+        OUTPUT.putInt(0);
+        OUTPUT.putInt(SE ? 12 : 9);
+        OUTPUT.putInt(1);
+        wstring(OUTPUT, "Test");
+        OUTPUT.putInt(1);
+        wstring(OUTPUT, "");
+        wstring(OUTPUT, "");
+        wstring(OUTPUT, "NordRace");
+        OUTPUT.putShort((short) 0);
+        OUTPUT.putFloat(0.0f);
+        OUTPUT.putFloat(0.0f);
+        OUTPUT.putLong(0L);
+        OUTPUT.putInt(0);
+        OUTPUT.putInt(0);
+        if (SE) {
+            OUTPUT.putShort((short) 0);
+        }
+        OUTPUT.putInt(HEADERSIZE, OUTPUT.position() - HEADERSIZE - 4);
+
+        // The form version and the plugin list.
+        OUTPUT.put((byte) (SE ? 77 : 74));
+        OUTPUT.putInt(1 + 2 + "Skyrim.esm".length());
+        OUTPUT.put((byte) 1);
+        wstring(OUTPUT, "Skyrim.esm");
+
+        // The file location table. Tables 1 and 2 and the changeforms are
+        // empty, and table 3 holds just the Papyrus section.
+        final int TABLE1 = OUTPUT.position() + 100;
+        final int FORMIDS = TABLE1 + 8 + PAPYRUS.limit();
+        OUTPUT.putInt(FORMIDS).putInt(FORMIDS + 8);
+        OUTPUT.putInt(TABLE1).putInt(TABLE1).putInt(TABLE1).putInt(TABLE1);
+        for (int i = 0; i < 4 + 15; i++) {
+            OUTPUT.putInt(0);
+        }
+
+        OUTPUT.putInt(1001).putInt(PAPYRUS.limit()).put(PAPYRUS);
+
+        // The FormID array and the visited worldspaces.
+        OUTPUT.putInt(0).putInt(0);
+        return Arrays.copyOf(OUTPUT.array(), OUTPUT.position());
+    }
+
+    /**
+     * @param output The output stream.
+     * @param str A string.
+     */
+    static private void wstring(ByteBuffer output, String str) {
+        final byte[] BYTES = str.getBytes(StandardCharsets.US_ASCII);
+        output.putShort((short) BYTES.length).put(BYTES);
+    }
+
+    /**
+     * @param variables The variables.
+     * @return The variables written one <code>Variable</code> at a time.
+     */
+    static private byte[] writeEach(List<Variable> variables) {
+        final int SIZE = variables.stream().mapToInt(Variable::calculateSize).sum();
+        final ByteBuffer OUTPUT = ByteBuffer.allocate(SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        variables.forEach(v -> v.write(OUTPUT));
+        assertEquals(SIZE, OUTPUT.position());
+        return OUTPUT.array();
+    }
+
+    /**
+     * @param variables The variables.
+     * @return The variables written from the packed columns.
+     */
+    static private byte[] write(VariableList variables) {
+        final ByteBuffer OUTPUT = ByteBuffer.allocate(variables.calculateSize()).order(ByteOrder.LITTLE_ENDIAN);
+        variables.write(OUTPUT);
+        assertFalse(OUTPUT.hasRemaining());
+        return OUTPUT.array();
+    }
+
+    /**
+     * @param bytes Some bytes.
+     * @return A little-endian buffer of the bytes.
+     */
+    static private ByteBuffer wrap(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+}